@@ -0,0 +1,56 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+
+/**
+ * Shared fixtures for the JMH benchmarks: a fixed clock and calendars
+ * pre-filled to a given fraction.
+ */
+final class BenchmarkCalendars {
+
+    static final LocalDate TODAY = LocalDate.of(2025, 3, 10);
+    static final Clock     CLOCK = Clock.fixed(TODAY.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    static final LocalTime FIRST_SLOT    = LocalTime.of(9, 0);
+    static final int       SLOT_MINUTES  = 15;
+    static final int       SLOTS_PER_DAY = 32;
+
+    private BenchmarkCalendars() { }
+
+    /** In-memory calendar over {@code horizonDays} with roughly {@code fill} of every day booked. */
+    static Calendar filled(int horizonDays, double fill, long seed) {
+        return filled(horizonDays, SLOT_MINUTES, fill, seed);
+    }
+
+    /** As {@link #filled(int, double, long)} on a 09:00–17:00 grid of {@code slotMinutes} slots. */
+    static Calendar filled(int horizonDays, int slotMinutes, double fill, long seed) {
+        SlotGrid grid = grid(slotMinutes);
+        Calendar calendar = new Calendar(CLOCK, null, null, grid, horizonDays, CalendarMetrics.NOOP);
+        calendar.init();
+
+        SplittableRandom rnd = new SplittableRandom(seed);
+        for (int d = 0; d < horizonDays; d++) {
+            String date = TODAY.plusDays(d).toString();
+            for (int s = 0; s < grid.slotsPerDay(); s++) {
+                if (rnd.nextDouble() < fill) {
+                    String time = FIRST_SLOT.plusMinutes((long) slotMinutes * s).toString();
+                    calendar.bookEvent(date, time, "client-" + s, "Demo", "advisor");
+                }
+            }
+        }
+        return calendar;
+    }
+
+    static SlotGrid grid(int slotMinutes) {
+        return new SlotGrid(FIRST_SLOT, LocalTime.of(17, 0), Duration.ofMinutes(slotMinutes));
+    }
+
+    static LocalTime slotTime(int idx) {
+        return FIRST_SLOT.plusMinutes((long) SLOT_MINUTES * idx);
+    }
+}
@@ -0,0 +1,65 @@
+package com.demoscheduler.demoscheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Calendar#bookEvent} followed by {@link Calendar#cancelEvent} on
+ * random slots of one day, from 1..N threads contending for the same slots.
+ * Run other thread counts with {@code -t}.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class BookCancelBenchmark {
+
+    @Param({"14", "365"})
+    public int horizonDays;
+
+    private Calendar calendar;
+    private String   date;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = BenchmarkCalendars.filled(horizonDays, 0.0, 0);
+        date     = BenchmarkCalendars.TODAY.plusDays(horizonDays / 2).toString();
+    }
+
+    /** Each thread books under its own client name. */
+    @State(Scope.Thread)
+    public static class Client {
+        final String name = "client-" + Thread.currentThread().threadId();
+        final SplittableRandom rnd = new SplittableRandom(Thread.currentThread().threadId());
+        final String[] times = new String[BenchmarkCalendars.SLOTS_PER_DAY];
+
+        public Client() {
+            for (int i = 0; i < times.length; i++) times[i] = BenchmarkCalendars.slotTime(i).toString();
+        }
+    }
+
+    private boolean bookCancel(Client c) {
+        String time = c.times[c.rnd.nextInt(c.times.length)];
+        return calendar.bookEvent(date, time, c.name, "Demo", "advisor")
+                && calendar.cancelEvent(date, time, c.name);
+    }
+
+    @Benchmark
+    @Threads(1)
+    public boolean bookCancel_1thread(Client c) {
+        return bookCancel(c);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public boolean bookCancel_4threads(Client c) {
+        return bookCancel(c);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public boolean bookCancel_maxThreads(Client c) {
+        return bookCancel(c);
+    }
+}
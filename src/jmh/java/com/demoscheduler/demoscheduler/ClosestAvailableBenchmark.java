@@ -0,0 +1,60 @@
+package com.demoscheduler.demoscheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link Calendar#getClosestAvailable} on empty, half-full and nearly-full
+ * days, for growing horizons — single-day and across the whole horizon —
+ * on coarse and fine slot grids, for single slots and hour-long runs.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class ClosestAvailableBenchmark {
+
+    @Param({"14", "90", "365"})
+    public int horizonDays;
+
+    /** Fraction of each day's slots that are booked. */
+    @Param({"0.0", "0.5", "0.95"})
+    public double fill;
+
+    @Param({"5", "32"})
+    public int count;
+
+    @Param({"15", "5"})
+    public int slotMinutes;
+
+    /** Appointment length; more than one slot exercises the contiguous-run search. */
+    @Param({"15", "60"})
+    public int lengthMinutes;
+
+    private Calendar  calendar;
+    private LocalDate date;
+    private LocalTime desired;
+    private Duration  length;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        calendar = BenchmarkCalendars.filled(horizonDays, slotMinutes, fill, 42);
+        date     = BenchmarkCalendars.TODAY.plusDays(horizonDays / 2);
+        desired  = LocalTime.of(12, 7);
+        length   = Duration.ofMinutes(lengthMinutes);
+    }
+
+    @Benchmark
+    public List<Event> closestAvailable() {
+        return calendar.getClosestAvailable(date, desired, length, count);
+    }
+
+    @Benchmark
+    public List<Event> closestAvailableAcrossHorizon() {
+        return calendar.getClosestAvailable(null, null, date, desired, length, count);
+    }
+}
@@ -0,0 +1,24 @@
+package com.demoscheduler.demoscheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link Calendar#init()} (building an empty window) for growing horizons.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+public class InitBenchmark {
+
+    @Param({"14", "90", "365", "730"})
+    public int horizonDays;
+
+    @Benchmark
+    public Calendar init() {
+        Calendar calendar = new Calendar(BenchmarkCalendars.CLOCK, null, null, horizonDays);
+        calendar.init();
+        return calendar;
+    }
+}
@@ -0,0 +1,48 @@
+package com.demoscheduler.demoscheduler;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-operation cost of {@link MicrometerCalendarMetrics} against
+ * {@link CalendarMetrics#NOOP} on the search and book/cancel paths.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class MetricsOverheadBenchmark {
+
+    @Param({"noop", "micrometer"})
+    public String metrics;
+
+    private Calendar calendar;
+    private String   date;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CalendarMetrics m = metrics.equals("noop")
+                ? CalendarMetrics.NOOP
+                : new MicrometerCalendarMetrics(new SimpleMeterRegistry(), "bench");
+        calendar = new Calendar(BenchmarkCalendars.CLOCK, null, null, 14, m);
+        calendar.init();
+        date = BenchmarkCalendars.TODAY.toString();
+        for (int s = 0; s < BenchmarkCalendars.SLOTS_PER_DAY; s += 2) {
+            calendar.bookEvent(date, BenchmarkCalendars.slotTime(s).toString(), "c", "", "");
+        }
+    }
+
+    @Benchmark
+    public List<Event> search() {
+        return calendar.getClosestAvailable(BenchmarkCalendars.TODAY, LocalTime.of(12, 7), 5);
+    }
+
+    @Benchmark
+    public boolean bookCancel() {
+        return calendar.bookEvent(date, "12:15", "Alice", "Demo", "Bob")
+                && calendar.cancelEvent(date, "12:15", "Alice");
+    }
+}
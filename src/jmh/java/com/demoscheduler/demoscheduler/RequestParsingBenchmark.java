@@ -0,0 +1,35 @@
+package com.demoscheduler.demoscheduler;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The date and time of a booking or slot search, parsed with
+ * {@link LocalDate#parse}/{@link LocalTime#parse} against {@link SlotFormat}.
+ * The point is the garbage, so run it with the GC profiler
+ * ({@code -Pjmh.profilers=gc}) and compare {@code gc.alloc.rate.norm},
+ * the bytes allocated per call.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class RequestParsingBenchmark {
+
+    @Param({"09:15", "09:15:00"})
+    public String time;
+
+    public String date = "2025-03-10";
+
+    @Benchmark
+    public long parseJavaTime() {
+        return LocalDate.parse(date).toEpochDay() + LocalTime.parse(time).toSecondOfDay();
+    }
+
+    @Benchmark
+    public long parseFixedFormat() {
+        return SlotFormat.epochDay(date) + SlotFormat.secondOfDay(time);
+    }
+}
@@ -0,0 +1,52 @@
+package com.demoscheduler.demoscheduler;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Serialization of the {@code List<Event>} returned by
+ * {@code POST /api/scheduler/slots}: Jackson configured like Spring Boot's
+ * mapper, against the pre-encoded {@link SlotJson} the endpoint uses.
+ * With the GC profiler ({@code -Pjmh.profilers=gc}), {@code gc.alloc.rate.norm}
+ * of the pre-encoded writer should stay close to the size of its output.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Benchmark)
+public class SlotsSerializationBenchmark {
+
+    @Param({"14", "365"})
+    public int horizonDays;
+
+    @Param({"5", "32"})
+    public int count;
+
+    private ObjectMapper mapper;
+    private List<Event>  slots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        mapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        Calendar calendar = BenchmarkCalendars.filled(horizonDays, 0.25, 7);
+        slots = calendar.getClosestAvailable(BenchmarkCalendars.TODAY, LocalTime.of(12, 0), count);
+    }
+
+    @Benchmark
+    public byte[] serializeSlots() throws JsonProcessingException {
+        return mapper.writeValueAsBytes(slots);
+    }
+
+    @Benchmark
+    public byte[] serializeSlotsPreEncoded() {
+        return SlotJson.write(slots);
+    }
+}
@@ -0,0 +1,238 @@
+package com.demoscheduler.demoscheduler.loadgen;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Closed-loop load generator for a locally running scheduler.  Each of
+ * {@code --clients} simulated clients (one virtual thread each) sends a
+ * seeded, reproducible mix of {@code /slots}, {@code /book} and
+ * {@code /cancel} requests back to back, and the tool reports throughput
+ * and p50/p99/p99.9 latency per endpoint.
+ * <p>
+ * Compare platform and virtual request threads by starting the service
+ * twice, with and without {@code --spring.threads.virtual.enabled=true}:
+ * <pre>
+ *   ./gradlew bootRun --args='--spring.threads.virtual.enabled=true'
+ *   ./gradlew loadgen -PloadgenArgs='--clients=2000 --duration=60s'
+ * </pre>
+ * Options (all optional): {@code --url=http://localhost:8080},
+ * {@code --clients=200}, {@code --duration=30s}, {@code --warmup=5s},
+ * {@code --mix=70:20:10} (slots:book:cancel), {@code --days=14},
+ * {@code --seed=42}.
+ */
+public final class LoadGenerator {
+
+    enum Op { SLOTS, BOOK, CANCEL }
+
+    record Options(URI url, int clients, Duration duration, Duration warmup,
+                   int[] mix, int days, long seed) {
+
+        static Options parse(String[] args) {
+            Map<String, String> kv = new HashMap<>();
+            for (String a : args) {
+                if (!a.startsWith("--") || !a.contains("=")) {
+                    throw new IllegalArgumentException("expected --name=value, got " + a);
+                }
+                kv.put(a.substring(2, a.indexOf('=')), a.substring(a.indexOf('=') + 1));
+            }
+            String[] mix = kv.getOrDefault("mix", "70:20:10").split(":");
+            if (mix.length != 3) throw new IllegalArgumentException("--mix needs slots:book:cancel");
+            return new Options(
+                    URI.create(kv.getOrDefault("url", "http://localhost:8080")),
+                    Integer.parseInt(kv.getOrDefault("clients", "200")),
+                    duration(kv.getOrDefault("duration", "30s")),
+                    duration(kv.getOrDefault("warmup", "5s")),
+                    new int[] { Integer.parseInt(mix[0]), Integer.parseInt(mix[1]), Integer.parseInt(mix[2]) },
+                    Integer.parseInt(kv.getOrDefault("days", "14")),
+                    Long.parseLong(kv.getOrDefault("seed", "42")));
+        }
+
+        private static Duration duration(String s) {
+            if (s.endsWith("ms")) return Duration.ofMillis(Long.parseLong(s.substring(0, s.length() - 2)));
+            if (s.endsWith("s"))  return Duration.ofSeconds(Long.parseLong(s.substring(0, s.length() - 1)));
+            if (s.endsWith("m"))  return Duration.ofMinutes(Long.parseLong(s.substring(0, s.length() - 1)));
+            return Duration.ofSeconds(Long.parseLong(s));
+        }
+    }
+
+    /** Per-client, per-op latency samples (nanoseconds) and status counts; merged at the end. */
+    static final class Recorder {
+        final long[][] samples = new long[Op.values().length][1024];
+        final int[]    sizes   = new int[Op.values().length];
+        final Map<String, Integer> statuses = new TreeMap<>();
+
+        void record(Op op, long nanos, String status) {
+            int i = op.ordinal();
+            if (sizes[i] == samples[i].length) samples[i] = Arrays.copyOf(samples[i], sizes[i] * 2);
+            samples[i][sizes[i]++] = nanos;
+            statuses.merge(op + " " + status, 1, Integer::sum);
+        }
+    }
+
+    private static final LocalTime FIRST_SLOT    = LocalTime.of(9, 0);
+    private static final int       SLOTS_PER_DAY = 32;
+    private static final int       SLOT_MINUTES  = 15;
+
+    private final Options    opt;
+    private final HttpClient http;
+    private final LocalDate  today = LocalDate.now();
+
+    LoadGenerator(Options opt, ExecutorService executor) {
+        this.opt  = opt;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .executor(executor)
+                .build();
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options opt = Options.parse(args);
+        System.out.printf("target %s, %d clients, warmup %s, measure %s, mix slots:book:cancel=%d:%d:%d, seed %d%n",
+                opt.url(), opt.clients(), opt.warmup(), opt.duration(),
+                opt.mix()[0], opt.mix()[1], opt.mix()[2], opt.seed());
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            LoadGenerator gen = new LoadGenerator(opt, executor);
+            gen.run(executor, opt.warmup(), opt.seed() ^ 0x5DEECE66DL);         // discarded
+            long t0 = System.nanoTime();
+            List<Recorder> recorders = gen.run(executor, opt.duration(), opt.seed());
+            gen.report(recorders, (System.nanoTime() - t0) / 1e9);
+        }
+    }
+
+    /** Run all clients for {@code length}; each client gets its own seed derived from {@code seed}. */
+    List<Recorder> run(ExecutorService executor, Duration length, long seed) throws Exception {
+        if (length.isZero()) return List.of();
+        long deadline = System.nanoTime() + length.toNanos();
+        List<Future<Recorder>> futures = new ArrayList<>(opt.clients());
+        for (int c = 0; c < opt.clients(); c++) {
+            int client = c;
+            futures.add(executor.submit(() -> client(client, new SplittableRandom(seed + client), deadline)));
+        }
+        List<Recorder> out = new ArrayList<>(futures.size());
+        for (Future<Recorder> f : futures) out.add(f.get());
+        return out;
+    }
+
+    private Recorder client(int id, SplittableRandom rnd, long deadline) {
+        Recorder rec = new Recorder();
+        String name = "lg-" + id;
+        Deque<String[]> mine = new ArrayDeque<>();          // (date, time) this client booked
+        int total = opt.mix()[0] + opt.mix()[1] + opt.mix()[2];
+
+        while (System.nanoTime() < deadline) {
+            int pick = rnd.nextInt(total);
+            Op op = pick < opt.mix()[0] ? Op.SLOTS
+                    : pick < opt.mix()[0] + opt.mix()[1] ? Op.BOOK : Op.CANCEL;
+
+            String date = today.plusDays(rnd.nextInt(opt.days())).toString();
+            String time = FIRST_SLOT.plusMinutes((long) SLOT_MINUTES * rnd.nextInt(SLOTS_PER_DAY)).toString();
+            String body = switch (op) {
+                case SLOTS -> """
+                        {"date":"%s","desired":"%s","count":5}""".formatted(date, time);
+                case BOOK -> """
+                        {"date":"%s","startTime":"%s","client":"%s","description":"load test","advisor":"loadgen"}"""
+                        .formatted(date, time, name);
+                case CANCEL -> {
+                    String[] own = mine.pollFirst();            // prefer undoing our own bookings
+                    if (own != null) { date = own[0]; time = own[1]; }
+                    yield """
+                            {"date":"%s","startTime":"%s","client":"%s"}""".formatted(date, time, name);
+                }
+            };
+
+            long start = System.nanoTime();
+            String status;
+            try {
+                HttpResponse<Void> res = http.send(request(op, name, body), HttpResponse.BodyHandlers.discarding());
+                status = Integer.toString(res.statusCode());
+                if (op == Op.BOOK && res.statusCode() == 200) mine.addLast(new String[] { date, time });
+            } catch (IOException e) {
+                status = e.getClass().getSimpleName();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+            rec.record(op, System.nanoTime() - start, status);
+        }
+        return rec;
+    }
+
+    /** Sent as {@code X-Client-Id}, so the service rate-limits each simulated client on its own. */
+    private HttpRequest request(Op op, String client, String body) {
+        return HttpRequest.newBuilder(opt.url().resolve("/api/scheduler/" + op.name().toLowerCase(Locale.ROOT)))
+                .timeout(Duration.ofSeconds(30))
+                .header("Content-Type", "application/json")
+                .header("X-Client-Id", client)
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+    }
+
+    /* ────────────────  Report  ──────────────── */
+
+    void report(List<Recorder> recorders, double seconds) {
+        System.out.printf("%n%-8s %10s %10s %10s %10s %10s %10s%n",
+                "op", "requests", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        long[] all = new long[0];
+        for (Op op : Op.values()) {
+            long[] merged = merge(recorders, op);
+            all = concat(all, merged);
+            printRow(op.name().toLowerCase(Locale.ROOT), merged, seconds);
+        }
+        printRow("total", all, seconds);
+
+        Map<String, Integer> statuses = new TreeMap<>();
+        for (Recorder r : recorders) r.statuses.forEach((k, v) -> statuses.merge(k, v, Integer::sum));
+        System.out.println();
+        statuses.forEach((k, v) -> System.out.printf("  %-24s %d%n", k, v));
+    }
+
+    private static long[] merge(List<Recorder> recorders, Op op) {
+        int n = 0;
+        for (Recorder r : recorders) n += r.sizes[op.ordinal()];
+        long[] out = new long[n];
+        int pos = 0;
+        for (Recorder r : recorders) {
+            System.arraycopy(r.samples[op.ordinal()], 0, out, pos, r.sizes[op.ordinal()]);
+            pos += r.sizes[op.ordinal()];
+        }
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static long[] concat(long[] a, long[] b) {
+        long[] out = Arrays.copyOf(a, a.length + b.length);
+        System.arraycopy(b, 0, out, a.length, b.length);
+        Arrays.sort(out);
+        return out;
+    }
+
+    private static void printRow(String name, long[] sorted, double seconds) {
+        if (sorted.length == 0) {
+            System.out.printf("%-8s %10d%n", name, 0);
+            return;
+        }
+        System.out.printf("%-8s %10d %10.0f %10.2f %10.2f %10.2f %10.2f%n",
+                name, sorted.length, sorted.length / seconds,
+                percentile(sorted, 0.50), percentile(sorted, 0.99), percentile(sorted, 0.999),
+                sorted[sorted.length - 1] / 1e6);
+    }
+
+    /** Nearest-rank percentile of a sorted sample, in milliseconds. */
+    static double percentile(long[] sorted, double p) {
+        int rank = (int) Math.ceil(p * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))] / 1e6;
+    }
+}
@@ -0,0 +1,121 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Limit on requests in flight that adapts to observed latency, so excess
+ * load is turned away at once instead of queueing until everyone times out.
+ * <p>
+ * Latencies are averaged per window.  The baseline is the lowest window
+ * average seen, drifting slowly up so that a permanently slower service
+ * gets a new one.  After each window the limit is scaled by the gradient
+ * {@code tolerance × baseline / latency} (at most 1, at least ½) and then
+ * grows by {@code √limit}: while latency stays within {@code tolerance} of
+ * the baseline the limit climbs, once requests start queueing it shrinks
+ * in proportion.  It only climbs while it is actually used, so an idle
+ * service does not accumulate a limit it never tested.
+ * <p>
+ * Admission is one compare-and-set; samples go to striped adders and the
+ * thread that closes a window recomputes the limit.
+ */
+public final class AdaptiveConcurrencyLimiter {
+
+    /** Windows with fewer samples carry over into the next. */
+    static final int    MIN_SAMPLES    = 10;
+    /** Weight of a new limit against the old one. */
+    static final double SMOOTHING      = 0.2;
+    /** Share of the gap by which the baseline creeps up to a higher window average. */
+    static final double BASELINE_DRIFT = 0.01;
+
+    private final int          minLimit;
+    private final int          maxLimit;
+    private final double       tolerance;
+    private final long         windowNanos;
+    private final LongSupplier nanoTime;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger peak     = new AtomicInteger();      // most in flight this window
+    private final LongAdder     rttSum   = new LongAdder();
+    private final LongAdder     samples  = new LongAdder();
+    private final AtomicLong    windowEnd;
+    private volatile int        limit;
+
+    /* guarded by this; only the thread closing a window touches them */
+    private double estimate;
+    private double baseline = Double.NaN;
+
+    /**
+     * @param tolerance how much slower than the baseline requests may get before the limit backs off
+     * @param window    how long latencies are averaged before the limit moves
+     */
+    public AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                                      Duration window) {
+        this(initialLimit, minLimit, maxLimit, tolerance, window, System::nanoTime);
+    }
+
+    /** @param nanoTime monotonic time source; tests drive it by hand */
+    AdaptiveConcurrencyLimiter(int initialLimit, int minLimit, int maxLimit, double tolerance,
+                               Duration window, LongSupplier nanoTime) {
+        if (minLimit < 1 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("need 1 <= minLimit <= initialLimit <= maxLimit");
+        }
+        if (!(tolerance >= 1)) throw new IllegalArgumentException("tolerance must be at least 1");
+        this.minLimit    = minLimit;
+        this.maxLimit    = maxLimit;
+        this.tolerance   = tolerance;
+        this.windowNanos = window.toNanos();
+        this.nanoTime    = nanoTime;
+        this.limit       = initialLimit;
+        this.estimate    = initialLimit;
+        this.windowEnd   = new AtomicLong(nanoTime.getAsLong() + windowNanos);
+    }
+
+    /** Take a slot; {@code false} if the limit is reached.  Every {@code true} needs one {@link #release}. */
+    public boolean tryAcquire() {
+        for (;;) {
+            int n = inFlight.get();
+            if (n >= limit) return false;
+            if (inFlight.compareAndSet(n, n + 1)) {
+                if (n + 1 > peak.get()) peak.accumulateAndGet(n + 1, Math::max);
+                return true;
+            }
+        }
+    }
+
+    /** Give the slot back, reporting how long the request took. */
+    public void release(long latencyNanos) {
+        inFlight.decrementAndGet();
+        rttSum.add(latencyNanos);
+        samples.increment();
+
+        long now = nanoTime.getAsLong();
+        long end = windowEnd.get();
+        if (now - end >= 0 && windowEnd.compareAndSet(end, now + windowNanos)) update();
+    }
+
+    public int limit() {
+        return limit;
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    private synchronized void update() {
+        long n = samples.sum();
+        if (n < MIN_SAMPLES) return;
+        double rtt = (double) rttSum.sumThenReset() / samples.sumThenReset();
+        int used = peak.getAndSet(inFlight.get());
+
+        baseline = Double.isNaN(baseline) || rtt < baseline ? rtt : baseline + (rtt - baseline) * BASELINE_DRIFT;
+        double gradient = Math.max(0.5, Math.min(1.0, tolerance * baseline / rtt));
+        double next = estimate * gradient + Math.sqrt(estimate);
+        if (next > estimate && used < estimate / 2) next = estimate;        // not using what it has
+        estimate = Math.max(minLimit, Math.min(maxLimit, estimate * (1 - SMOOTHING) + next * SMOOTHING));
+        limit = (int) estimate;
+    }
+}
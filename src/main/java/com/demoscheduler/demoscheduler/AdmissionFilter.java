@@ -0,0 +1,113 @@
+package com.demoscheduler.demoscheduler;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.ServletRequest;
+import jakarta.servlet.ServletResponse;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Admission control in front of the scheduler endpoints: excess requests
+ * are turned away at once, before their body is even read, instead of
+ * queueing behind an overload until they time out.
+ * <ol>
+ *   <li>Per-client {@link ClientRateLimiter token bucket}: 429 with
+ *       {@code Retry-After} once a client spends its budget.</li>
+ *   <li>{@link AdaptiveConcurrencyLimiter Adaptive concurrency limit}:
+ *       503 with {@code Retry-After} while the service is saturated.</li>
+ * </ol>
+ * Reads ({@code GET}s and the {@code /slots} searches) and writes have
+ * separate budgets of both, so cheap searches are not starved by
+ * contended bookings.  Streams ({@code /changes}, {@code …/stream}) are
+ * rate limited but not counted in flight: they are long-lived by design
+ * and their duration says nothing about load.
+ * <p>
+ * Clients are identified by remote address.  A {@code clientHeader} is
+ * believed only where nobody can forge it: when the request comes from one
+ * of the {@code trustedProxies}, which set it, or from an authenticated
+ * caller.  Anyone else could mint a fresh bucket per request with it.
+ */
+public final class AdmissionFilter implements Filter {
+
+    private final ClientRateLimiter          readRate;
+    private final ClientRateLimiter          writeRate;
+    private final AdaptiveConcurrencyLimiter reads;
+    private final AdaptiveConcurrencyLimiter writes;
+    private final String                     clientHeader;
+    private final Set<String>                trustedProxies;
+
+    /**
+     * @param clientHeader   request header naming the client; blank to always use the remote address
+     * @param trustedProxies remote addresses whose {@code clientHeader} is believed
+     */
+    public AdmissionFilter(ClientRateLimiter readRate, ClientRateLimiter writeRate,
+                           AdaptiveConcurrencyLimiter reads, AdaptiveConcurrencyLimiter writes,
+                           String clientHeader, Collection<String> trustedProxies) {
+        this.readRate       = readRate;
+        this.writeRate      = writeRate;
+        this.reads          = reads;
+        this.writes         = writes;
+        this.clientHeader   = clientHeader == null || clientHeader.isBlank() ? null : clientHeader;
+        this.trustedProxies = trustedProxies.stream().map(String::trim).filter(a -> !a.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Override
+    public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain)
+            throws IOException, ServletException {
+        HttpServletRequest  req = (HttpServletRequest) request;
+        HttpServletResponse res = (HttpServletResponse) response;
+        String path  = req.getRequestURI().substring(req.getContextPath().length());
+        boolean read = isRead(req.getMethod(), path);
+
+        long wait = (read ? readRate : writeRate).tryAcquire(client(req));
+        if (wait > 0) {
+            reject(res, 429, TimeUnit.NANOSECONDS.toSeconds(wait) + 1, "Too many requests");
+            return;
+        }
+        if (path.endsWith("/changes") || path.endsWith("/stream")) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        AdaptiveConcurrencyLimiter limiter = read ? reads : writes;
+        if (!limiter.tryAcquire()) {
+            reject(res, 503, 1, "Overloaded, try again shortly");
+            return;
+        }
+        long start = System.nanoTime();
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            limiter.release(System.nanoTime() - start);
+        }
+    }
+
+    /** GETs and the POSTed slot searches read; everything else writes. */
+    static boolean isRead(String method, String path) {
+        return "GET".equals(method) || "HEAD".equals(method) || path.endsWith("/slots");
+    }
+
+    String client(HttpServletRequest req) {
+        String remote = req.getRemoteAddr();
+        if (clientHeader == null || !(trustedProxies.contains(remote) || req.getUserPrincipal() != null)) return remote;
+        String id = req.getHeader(clientHeader);
+        return id == null || id.isBlank() ? remote : id;
+    }
+
+    private static void reject(HttpServletResponse res, int status, long retryAfterSeconds, String message)
+            throws IOException {
+        res.setStatus(status);
+        res.setHeader("Retry-After", Long.toString(retryAfterSeconds));
+        res.setContentType("text/plain");
+        res.getWriter().write(message);
+    }
+}
@@ -0,0 +1,15 @@
+package com.demoscheduler.demoscheduler;
+
+/**
+ * Immutable booking details of one slot.  Days store them column-wise
+ * (see {@link Day}); a {@code Booking} is what a reader gets back, always
+ * the whole booking or none of it.
+ */
+public record Booking(String client, String description, String advisor) {
+
+    public Booking {
+        client      = client      == null ? "" : client;
+        description = description == null ? "" : description;
+        advisor     = advisor     == null ? "" : advisor;
+    }
+}
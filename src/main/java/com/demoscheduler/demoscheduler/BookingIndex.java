@@ -0,0 +1,105 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collections;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Secondary index from a dictionary id (a client or an advisor) to the slots
+ * booked under it, each set sorted by date and time.  Slots are longs,
+ * {@code epochDay << 17 | secondOfDay}, so a date range is a sub-set.
+ * <p>
+ * Kept in step with the slots by {@link Day#syncIndex}, which re-reads the
+ * slot after updating, the way {@link Day#syncBit} keeps the bitmap: an
+ * entry may briefly lag a write, so readers re-check the slot.  Entries of
+ * days that left the window are dropped by readers ({@link #prune}) and on
+ * rollover ({@link #pruneAll}).
+ * <p>
+ * Each id also keeps a count of its slots, moved by whichever update
+ * actually adds or removes an entry, so it always matches the set without
+ * walking it.
+ */
+final class BookingIndex {
+
+    private static final NavigableSet<Long> EMPTY = Collections.emptyNavigableSet();
+
+    private record Entry(NavigableSet<Long> slots, AtomicInteger count) { }
+
+    private final ConcurrentHashMap<Integer, Entry> entries = new ConcurrentHashMap<>();
+
+    static long key(LocalDate date, int secondOfDay) {
+        return date.toEpochDay() << 17 | secondOfDay;
+    }
+
+    static LocalDate date(long key) {
+        return LocalDate.ofEpochDay(key >> 17);
+    }
+
+    static LocalTime time(long key) {
+        return LocalTime.ofSecondOfDay(key & 0x1FFFF);
+    }
+
+    void set(int id, long key, boolean booked) {
+        if (booked) {
+            Entry e = entries.computeIfAbsent(id, i -> new Entry(new ConcurrentSkipListSet<>(), new AtomicInteger()));
+            if (e.slots().add(key)) e.count().incrementAndGet();
+        } else {
+            Entry e = entries.get(id);
+            if (e != null && e.slots().remove(key)) e.count().decrementAndGet();
+        }
+    }
+
+    /** Live view of {@code id}'s slots from {@code from} to {@code to} (inclusive); empty if none. */
+    NavigableSet<Long> slots(int id, LocalDate from, LocalDate to) {
+        Entry e = entries.get(id);
+        NavigableSet<Long> s = e == null ? EMPTY : e.slots();
+        return s.subSet(key(from, 0), true, key(to.plusDays(1), 0), false);
+    }
+
+    /** Number of {@code id}'s slots. */
+    int count(int id) {
+        Entry e = entries.get(id);
+        return e == null ? 0 : e.count().get();
+    }
+
+    /** Pass every id that has slots, with their number, to {@code sink}. */
+    void counts(ObjIntConsumer<Integer> sink) {
+        for (Map.Entry<Integer, Entry> e : entries.entrySet()) {
+            int n = e.getValue().count().get();
+            if (n > 0) sink.accept(e.getKey(), n);
+        }
+    }
+
+    /** Drop {@code id}'s entries before {@code firstDate}. */
+    void prune(int id, LocalDate firstDate) {
+        Entry e = entries.get(id);
+        if (e != null) prune(e, key(firstDate, 0));
+    }
+
+    /** Drop every id's entries before {@code firstDate}; costs the entries dropped plus one step per id. */
+    void pruneAll(LocalDate firstDate) {
+        long first = key(firstDate, 0);
+        for (Entry e : entries.values()) prune(e, first);
+    }
+
+    private static void prune(Entry e, long first) {
+        for (Long k; (k = e.slots().lower(first)) != null; ) {
+            if (e.slots().remove(k)) e.count().decrementAndGet();
+        }
+    }
+
+    /** Forget {@code id}, whose name the dictionary dropped. */
+    void remove(int id) {
+        entries.remove(id);
+    }
+
+    void clear() {
+        entries.clear();
+    }
+}
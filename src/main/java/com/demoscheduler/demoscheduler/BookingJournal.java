@@ -0,0 +1,595 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BooleanSupplier;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Append-only write-ahead journal of booking changes ({@link JournalRecord}
+ * frames in one file).  {@link Calendar} appends every successful book and
+ * cancel and replays the file on {@code init()}.
+ * <p>
+ * The state change and its append happen under one short lock, so the
+ * journal order is exactly the order in which changes took effect.  The
+ * fsync happens outside that lock and, depending on {@link Durability}, is
+ * shared by every write that arrived while the previous fsync was running
+ * (group commit).
+ * <p>
+ * Fail-stop: after the first I/O error every further append throws.
+ * <p>
+ * Offsets are positions in the journal's history and never move.  Once a
+ * snapshot is durable, {@link #compact} rewrites the file to a checkpoint
+ * (records that rebuild the snapshot's state from nothing) followed by the
+ * journal from the snapshot's offset on, so the file, its scan on open and
+ * a full replay stay proportional to the live bookings, not to everything
+ * ever booked.  A compacted file starts with a header:
+ * <pre>
+ *   int   magic (negative, so never the length of a first frame)
+ *   long  offset of the file's first frame (the checkpoint's)
+ *   long  base: offset of the first byte kept verbatim, after the checkpoint
+ *   int   CRC32C of the above
+ * </pre>
+ * A file that was never compacted has no header and starts at offset 0.
+ */
+public final class BookingJournal implements Closeable {
+
+    /** When an append is considered durable. */
+    public enum Durability {
+        /** Each append writes and fsyncs on its own before returning. */
+        PER_WRITE,
+        /** Appends wait for an fsync, but all appends waiting together share one (group commit). */
+        BATCHED,
+        /** Appends return at once; a background task fsyncs every flush interval. */
+        TIME_BASED
+    }
+
+    private static final int INITIAL_BUFFER = 64 * 1024;
+
+    private static final int MAGIC             = 0xC4534A4C;
+    static final int         FILE_HEADER_BYTES = 4 + 8 + 8 + 4;
+
+    private final Path        path;
+    private volatile FileChannel channel;                // replaced by compact(), under lock
+    private final Durability  durability;
+    private final ScheduledExecutorService flusher;     // TIME_BASED only
+
+    private final ReentrantLock lock    = new ReentrantLock();
+    private final Condition     flushed = lock.newCondition();
+
+    /* all guarded by lock */
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER);   // appended, not yet written
+    private ByteBuffer spare   = ByteBuffer.allocate(INITIAL_BUFFER);   // being written by the flusher
+    private boolean    flushing;
+    private long       appendedSeq;
+    private long       durableSeq;
+    private long       durableEnd;                                        // offset up to which all is fsynced
+    private boolean    compacting;
+    private int        headerBytes;                                       // 0 until compacted
+    private long       start;                                             // offset of the file's first frame
+    private long       base;                                              // [start, base) is a checkpoint
+    private volatile long appendedEnd;                                    // file offset after the last append
+    private IOException failure;
+
+    /**
+     * Open (or create) the journal at {@code path}.  A torn or corrupt tail
+     * left by a crash is cut off, so the file always ends on a whole frame.
+     *
+     * @param flushInterval fsync period for {@link Durability#TIME_BASED}; ignored otherwise
+     */
+    public BookingJournal(Path path, Durability durability, Duration flushInterval) throws IOException {
+        this(path, durability, flushInterval, r -> {
+            Thread t = new Thread(r, "journal-flusher");
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /** @param threadFactory creates the {@link Durability#TIME_BASED} flusher thread (platform or virtual) */
+    public BookingJournal(Path path, Durability durability, Duration flushInterval,
+                          ThreadFactory threadFactory) throws IOException {
+        if (path.getParent() != null) Files.createDirectories(path.getParent());
+        this.path       = path;
+        this.channel    = FileChannel.open(path, CREATE, READ, WRITE);
+        this.durability = durability;
+        readHeader();
+
+        long validEnd = scan(start, offset(channel.size()), null);
+        if (filePosition(validEnd) < channel.size()) channel.truncate(filePosition(validEnd));
+        channel.position(filePosition(validEnd));
+        this.durableEnd  = validEnd;
+        this.appendedEnd = validEnd;
+
+        if (durability == Durability.TIME_BASED) {
+            long periodMs = Math.max(1, flushInterval.toMillis());
+            flusher = Executors.newSingleThreadScheduledExecutor(threadFactory);
+            flusher.scheduleWithFixedDelay(this::flushQuietly, periodMs, periodMs, TimeUnit.MILLISECONDS);
+        } else {
+            flusher = null;
+        }
+    }
+
+    public Durability durability() {
+        return durability;
+    }
+
+    /* ────────────────  Append  ──────────────── */
+
+    /**
+     * Run {@code mutation}; if it reports success, append {@code record} in
+     * the same critical section and then wait for durability as configured.
+     *
+     * @return the mutation's result
+     * @throws IllegalArgumentException if the record cannot be encoded (nothing is mutated)
+     * @throws UncheckedIOException     if the journal failed; the mutation may already have applied
+     */
+    public boolean append(JournalRecord record, BooleanSupplier mutation) {
+        byte[] frame = record.encodeFrame();            // encode outside the lock
+
+        lock.lock();
+        try {
+            checkHealthy();
+            if (!mutation.getAsBoolean()) return false;
+
+            ensureCapacity(frame.length);
+            pending.put(frame);
+            appendedEnd += frame.length;
+            long seq = ++appendedSeq;
+
+            switch (durability) {
+                case PER_WRITE  -> flushLocked(false);  // fsync while holding the lock: no sharing
+                case BATCHED    -> awaitDurable(seq);
+                case TIME_BASED -> { }                  // background flusher picks it up
+            }
+            return true;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Write and fsync everything appended so far. */
+    public void flush() {
+        lock.lock();
+        try {
+            awaitDurable(appendedSeq);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Caller holds the lock.  Wait until {@code seq} is durable, leading a group flush if none runs. */
+    private void awaitDurable(long seq) {
+        while (durableSeq < seq) {
+            checkHealthy();
+            if (flushing) {
+                flushed.awaitUninterruptibly();        // somebody else's fsync may cover us
+            } else {
+                flushLocked(true);
+            }
+        }
+    }
+
+    /**
+     * Caller holds the lock and no flush is running.  Swaps out the pending
+     * buffer and writes + fsyncs it; with {@code releaseLock} the I/O runs
+     * without the lock so new appends can queue up for the next group.
+     */
+    private void flushLocked(boolean releaseLock) {
+        if (pending.position() == 0) {
+            durableSeq = appendedSeq;
+            return;
+        }
+        ByteBuffer batch = pending;
+        pending = spare;
+        spare   = batch;
+        long upto = appendedSeq;
+        flushing = true;
+
+        if (releaseLock) lock.unlock();
+        IOException error = null;
+        long written = 0;
+        try {
+            batch.flip();
+            while (batch.hasRemaining()) written += channel.write(batch);
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            if (releaseLock) lock.lock();
+            batch.clear();
+            flushing = false;
+            if (error == null) {
+                durableSeq = upto;
+                durableEnd += written;
+            } else if (failure == null) {
+                failure = error;
+            }
+            flushed.signalAll();
+        }
+        checkHealthy();
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (UncheckedIOException ignored) {
+            // recorded in failure; the next append reports it
+        }
+    }
+
+    private void ensureCapacity(int extra) {
+        if (pending.remaining() >= extra) return;
+        ByteBuffer bigger = ByteBuffer.allocate(Math.max(pending.capacity() * 2, pending.position() + extra));
+        pending.flip();
+        bigger.put(pending);
+        pending = bigger;
+    }
+
+    private void checkHealthy() {
+        if (failure != null) throw new UncheckedIOException("booking journal failed", failure);
+    }
+
+    /**
+     * Offset just past the last appended record (durable or not).
+     * Every state change that precedes this offset in the journal has
+     * already taken effect in memory.
+     */
+    public long appendedEnd() {
+        return appendedEnd;
+    }
+
+    /* ────────────────  Shipping  ──────────────── */
+
+    /**
+     * Offset just past the last fsynced record.  Bytes before it are
+     * whole frames that no crash can take back.
+     */
+    public long durableEnd() {
+        lock.lock();
+        try {
+            return durableEnd;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /** Offset of the first frame in the file: replaying from here rebuilds everything. */
+    public long start() {
+        lock.lock();
+        try {
+            return start;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Whether a copy that applied the journal up to {@code offset} can carry
+     * on from there: the offset is neither past the durable end (the journal
+     * was replaced) nor inside or before a checkpoint (compacted away).  If
+     * not, the copy has to start over, empty, from {@link #start()}.
+     */
+    public boolean canResumeAt(long offset) {
+        lock.lock();
+        try {
+            return offset >= base && offset <= durableEnd;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Copy durable journal bytes from offset {@code from} into {@code dst},
+     * up to its remaining space or {@link #durableEnd()}, whichever comes
+     * first; the bytes are frames verbatim, for shipping to replicas.  A
+     * chunk may end inside a frame; reading on up to an end taken from
+     * {@code durableEnd()} ends on a frame boundary.
+     *
+     * @return bytes copied, or {@code -1} if {@code from} is no longer (or not yet) in the file
+     */
+    public int read(long from, ByteBuffer dst) throws IOException {
+        long end, pos;
+        FileChannel ch;
+        lock.lock();
+        try {
+            if (from < start || from > durableEnd) return -1;
+            end = durableEnd;
+            pos = filePosition(from);
+            ch  = channel;
+        } finally {
+            lock.unlock();
+        }
+        int limit = dst.limit();
+        dst.limit(dst.position() + (int) Math.min(dst.remaining(), end - from));
+        int got = 0;
+        try {
+            while (dst.hasRemaining()) {
+                int r = ch.read(dst, pos + got);
+                if (r < 0) break;
+                got += r;
+            }
+        } finally {
+            dst.limit(limit);
+        }
+        return got;
+    }
+
+    /* ────────────────  Compaction  ──────────────── */
+
+    /**
+     * Replace everything before offset {@code upto} by {@code checkpoint}:
+     * records that rebuild, from nothing, the state the journal had reached
+     * at {@code upto} (a durable snapshot's bookings).  The journal from
+     * {@code upto} on is kept verbatim and every offset stays valid, so the
+     * snapshot and followers past {@code upto} carry on unaffected.
+     * <p>
+     * Appends carry on while the new file is written and fsynced; they only
+     * wait at the end, while the records appended meanwhile are copied over
+     * and the new file is renamed into place.
+     * <p>
+     * Does nothing unless it shrinks the file: {@code upto} must lie past
+     * the current base, and the checkpoint must be smaller than what it
+     * replaces.  One compaction at a time; a concurrent call returns
+     * {@code false}.
+     *
+     * @return whether the journal was compacted
+     * @throws UncheckedIOException if the rewrite failed; the journal is then unchanged,
+     *                              or failed if the new file could not be reopened
+     */
+    public boolean compact(long upto, List<JournalRecord> checkpoint) {
+        List<byte[]> frames = checkpoint.stream().map(JournalRecord::encodeFrame).toList();
+        long size = 0;
+        for (byte[] f : frames) size += f.length;
+
+        long newStart, copied;
+        FileChannel old;
+        lock.lock();
+        try {
+            checkHealthy();
+            newStart = upto - size;
+            if (compacting || upto <= base || upto > durableEnd || newStart <= start) return false;
+            compacting = true;
+            copied = durableEnd;
+            old    = channel;
+        } finally {
+            lock.unlock();
+        }
+
+        Path tmp = path.resolveSibling(path.getFileName() + ".compact");
+        try (FileChannel out = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+            write(out, header(newStart, upto));
+            for (byte[] f : frames) write(out, ByteBuffer.wrap(f));
+            transfer(old, upto, copied, out);            // positional reads: appends go on meanwhile
+            out.force(true);
+
+            lock.lock();
+            try {
+                checkHealthy();
+                while (flushing) flushed.awaitUninterruptibly();
+                flushLocked(false);                      // what was appended meanwhile is in the file
+                transfer(old, copied, durableEnd, out);
+                out.force(true);
+                out.close();
+                Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                reopen(newStart, upto);
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        } catch (IOException e) {
+            try {
+                Files.deleteIfExists(tmp);
+            } catch (IOException ignored) {
+                // overwritten by the next compaction
+            }
+            throw new UncheckedIOException("journal compaction failed: " + path, e);
+        } finally {
+            lock.lock();
+            try {
+                compacting = false;
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static void write(FileChannel out, ByteBuffer b) throws IOException {
+        while (b.hasRemaining()) out.write(b);
+    }
+
+    /** Append journal offsets {@code [from, to)} of the current file to {@code out}. */
+    private void transfer(FileChannel in, long from, long to, FileChannel out) throws IOException {
+        long pos = filePosition(from), end = filePosition(to);
+        while (pos < end) pos += in.transferTo(pos, end - pos, out);
+    }
+
+    /** Caller holds the lock.  Switch to the renamed file; a failure here fails the journal. */
+    private void reopen(long newStart, long upto) {
+        FileChannel old = channel;
+        try {
+            FileChannel ch = FileChannel.open(path, READ, WRITE);
+            ch.position(ch.size());
+            channel = ch;
+        } catch (IOException e) {
+            failure = e;                                 // the file on disk is whole; only this process lost it
+            throw new UncheckedIOException("journal reopen after compaction failed: " + path, e);
+        }
+        headerBytes = FILE_HEADER_BYTES;
+        start       = newStart;
+        base        = upto;
+        try {
+            old.close();
+        } catch (IOException ignored) {
+            // replaced anyway
+        }
+    }
+
+    private static ByteBuffer header(long start, long base) {
+        ByteBuffer h = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        h.putInt(MAGIC).putLong(start).putLong(base);
+        CRC32C crc = new CRC32C();
+        crc.update(h.array(), 0, h.position());
+        return h.putInt((int) crc.getValue()).flip();
+    }
+
+    /** Read the header of a compacted file; a file without one starts at offset 0. */
+    private void readHeader() throws IOException {
+        ByteBuffer h = ByteBuffer.allocate(FILE_HEADER_BYTES);
+        while (h.hasRemaining() && channel.read(h, h.position()) > 0) { }
+        if (h.position() < 4 || h.getInt(0) != MAGIC) return;
+
+        CRC32C crc = new CRC32C();
+        crc.update(h.array(), 0, FILE_HEADER_BYTES - 4);
+        if (h.position() < FILE_HEADER_BYTES || (int) crc.getValue() != h.getInt(FILE_HEADER_BYTES - 4)) {
+            throw new IOException("corrupt journal header: " + path);
+        }
+        headerBytes = FILE_HEADER_BYTES;
+        start       = h.getLong(4);
+        base        = h.getLong(12);
+    }
+
+    /** File position of journal offset {@code offset}. */
+    private long filePosition(long offset) {
+        return offset - start + headerBytes;
+    }
+
+    /** Journal offset of file position {@code position}. */
+    private long offset(long position) {
+        return position - headerBytes + start;
+    }
+
+    /* ────────────────  Replay  ──────────────── */
+
+    /** Feed every durable record in the file, oldest first, to {@code sink}. */
+    public void replay(Consumer<JournalRecord> sink) {
+        replay(Long.MIN_VALUE, sink);
+    }
+
+    /**
+     * Feed every durable record from offset {@code from} (a frame boundary,
+     * e.g. a snapshot's {@link #appendedEnd()}) to {@code sink}.  If
+     * {@code from} is past the end the journal was replaced since that
+     * offset was taken; if it is before the {@link #canResumeAt base} it
+     * was compacted away.  Either way the whole file is replayed instead.
+     */
+    public void replay(long from, Consumer<JournalRecord> sink) {
+        long end;
+        lock.lock();
+        try {
+            end = durableEnd;
+            if (from > end || from < base) from = start;
+        } finally {
+            lock.unlock();
+        }
+        if (from == end) return;
+        try {
+            scan(from, end, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("journal replay failed", e);
+        }
+    }
+
+    /**
+     * Read whole, checksum-valid frames of offsets {@code [from, end)} with
+     * positional reads (the append position is untouched).  Must not
+     * overlap {@link #compact}: it runs on open, and replays run in
+     * {@code Calendar.init()}, which excludes the calendar's snapshots.
+     *
+     * @return offset just past the last valid frame
+     */
+    private long scan(long from, long end, Consumer<JournalRecord> sink) throws IOException {
+        FrameReader in = new FrameReader(channel, filePosition(from), filePosition(end));
+        long valid = from;
+        while (in.fill(JournalRecord.HEADER_BYTES)) {
+            ByteBuffer buf = in.buf;
+            int  length = buf.getInt(buf.position());
+            int  crc    = buf.getInt(buf.position() + 4);
+            if (length <= 0 || length > JournalRecord.MAX_PAYLOAD) break;       // garbage: the log ends here
+            int  frame  = JournalRecord.HEADER_BYTES + length;
+            if (frame > end - valid || !in.fill(frame)) break;                  // torn frame
+
+            buf = in.buf;
+            JournalRecord record = JournalRecord.decodePayload(
+                    buf.slice(buf.position() + JournalRecord.HEADER_BYTES, length), crc);
+            if (record == null) break;                                         // corrupt frame
+
+            if (sink != null) sink.accept(record);
+            buf.position(buf.position() + frame);
+            valid += frame;
+        }
+        return valid;
+    }
+
+    /** Buffered positional reader over {@code [from, end)} of the journal file. */
+    private static final class FrameReader {
+        private final FileChannel channel;
+        private final long        end;
+        private long       readPos;                   // file offset of buf.limit()
+        private ByteBuffer buf = ByteBuffer.allocate(INITIAL_BUFFER).limit(0);
+
+        FrameReader(FileChannel channel, long from, long end) {
+            this.channel = channel;
+            this.readPos = from;
+            this.end     = end;
+        }
+
+        /** Make at least {@code n} unread bytes available; {@code false} at end of data. */
+        boolean fill(int n) throws IOException {
+            while (buf.remaining() < n) {
+                if (readPos >= end) return false;
+                if (buf.capacity() < n) {
+                    buf = ByteBuffer.allocate(Math.max(buf.capacity() * 2, n)).put(buf).flip();
+                }
+                buf.compact();
+                int want = (int) Math.min(buf.remaining(), end - readPos);
+                buf.limit(buf.position() + want);          // never read past end
+                int got  = 0;
+                while (buf.hasRemaining()) {
+                    int r = channel.read(buf, readPos + got);
+                    if (r < 0) break;
+                    got += r;
+                }
+                buf.flip();
+                if (got == 0) return false;
+                readPos += got;
+            }
+            return true;
+        }
+    }
+
+    /* ────────────────  Lifecycle  ──────────────── */
+
+    @Override
+    public void close() throws IOException {
+        if (flusher != null) {
+            flusher.shutdown();                          // an interrupt would close the channel mid-fsync
+            try {
+                flusher.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
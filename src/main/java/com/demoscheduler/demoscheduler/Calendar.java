@@ -1,75 +1,596 @@
 package com.demoscheduler.demoscheduler;
 
+import java.io.UncheckedIOException;
 import java.time.*;
 import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.stream.Collectors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BooleanSupplier;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
- * In-memory calendar that holds 14 days of 15-minute appointment slots,
- * starting with “today”.  Slots are keyed by their exact LocalDateTime.
+ * In-memory calendar that holds a rolling window of (by default) 14 days of
+ * appointment slots on a {@link SlotGrid} (by default 15-minute slots from
+ * 09:00 to 17:00), starting with “today”.  Slots are addressed by
+ * (day offset in the window, slot index within the day); appointments may
+ * span several consecutive slots.
+ * <p>
+ * Thread-safe without a global lock: each slot changes state with a single
+ * compare-and-set on its state word, and the per-day occupancy bitmaps are
+ * updated with atomic word operations afterwards.  Searches never block.
+ * Slots are stored column-wise per {@link Day} with dictionary-encoded
+ * names; {@link Event}s are only created for results.
+ * <p>
+ * The days live in a ring buffer.  {@link #rollover()} drops the days that
+ * fell into the past and appends fresh ones at the far end, publishing the
+ * new window with one volatile write; bookings on the remaining days stay
+ * where they are.
+ * <p>
+ * With a {@link BookingJournal} every successful book/cancel is appended to
+ * it before the call returns, and {@link #init()} rebuilds the bookings by
+ * replaying it.  With a {@link SnapshotStore} as well, {@link #writeSnapshot()}
+ * persists a compact image and {@code init()} restores from it, replaying
+ * only the journal written after it; the journal before a consistent
+ * snapshot is then compacted into a checkpoint of its bookings, so it
+ * stays about as large as the window's bookings plus one snapshot
+ * interval of changes.
  */
 public class Calendar {
 
     /* ────────────────  Constants  ──────────────── */
 
-    private static final LocalTime  START_TIME    = LocalTime.of(9, 0);
-    private static final LocalTime  END_TIME      = LocalTime.of(17, 0);
-    private static final Duration   SLOT_DURATION = Duration.ofMinutes(15);
-    private static final int        DAYS_FORWARD  = 14;        // today + 13
+    static final int DAYS_FORWARD = 14;        // default horizon: today + 13
 
     /* ────────────────  Storage  ──────────────── */
 
-    /** Map key = slot start (date + time) */
-    private final Map<LocalDateTime, Event> events = new ConcurrentHashMap<>();
+    /**
+     * Immutable view of the window: the day {@code firstDate + k} lives at
+     * {@code ring[(head + k) % ring.length]}.  Rollover copies the (small)
+     * reference array, never the days themselves.
+     */
+    private record Window(LocalDate firstDate, int head, Day[] ring) {
+
+        Day day(LocalDate date) {
+            return day(date.toEpochDay());
+        }
+
+        Day day(long epochDay) {
+            long k = epochDay - firstDate.toEpochDay();
+            if (k < 0 || k >= ring.length) return null;  // outside the horizon
+            return ring[(head + (int) k) % ring.length];
+        }
+
+        Day dayAt(int k) {
+            return ring[(head + k) % ring.length];
+        }
+    }
+
+    private final Clock clock;
+
+    private final SlotGrid grid;
+
+    /** Slots per day, from {@link #grid}. */
+    private final int slotsPerDay;
+
+    /** Pre-encoded JSON of each grid position's times, shared by all days; see {@link SlotJson#heads}. */
+    private final byte[][] heads;
+
+    /** Number of days in the window. */
+    private final int daysForward;
+
+    /** Write-ahead journal, or {@code null} for a purely in-memory calendar. */
+    private final BookingJournal journal;
+
+    /** Snapshot file, or {@code null} to always start from the journal alone. */
+    private final SnapshotStore snapshots;
+
+    private final CalendarMetrics metrics;
+
+    /** Told about every slot whose state changed; see {@link ChangeListener}. */
+    private final ChangeListener changes;
+
+    /** Client and advisor names of every booking, as ints in the day columns. */
+    private final StringDictionary names = new StringDictionary();
+
+    /** Booked slots by client and by advisor, for {@link #bookingsOf} and friends. */
+    private final BookingIndex byClient  = new BookingIndex();
+    private final BookingIndex byAdvisor = new BookingIndex();
+
+    /** Outstanding holds by id, and their expiry timers. */
+    private final Map<String, HeldSlots>   holds = new ConcurrentHashMap<>();
+    private final TimingWheel<HeldSlots>   holdTimers;
+
+    /** Resolution of hold expiry. */
+    static final long HOLD_TICK_MILLIS = 100;
+
+    /** Slots per hour of the day, from the hour of the first slot; see {@link #utilization()}. */
+    private final int[] slotsPerHour;
+
+    /** Version of the last snapshot written; guarded by {@code this}. */
+    private long snapshotVersion = -1;
+
+    private volatile Window window;
+
+    /**
+     * Write fences for {@link #snapshot()}: every state change bumps
+     * {@code writesStarted} before and {@code writesDone} after itself.
+     * {@code writesDone} doubles as the calendar's modification version.
+     */
+    private final AtomicLong writesStarted = new AtomicLong();
+    private final AtomicLong writesDone    = new AtomicLong();
+
+    /** Copy attempts before {@link #snapshot()} settles for a slot-wise consistent copy. */
+    private static final int SNAPSHOT_ATTEMPTS = 16;
+
+    public Calendar() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /** @param clock source of “today”; tests inject a fixed or mutable clock */
+    public Calendar(Clock clock) {
+        this(clock, null);
+    }
+
+    /** @param journal durable log of bookings, replayed by {@link #init()}; may be {@code null} */
+    public Calendar(Clock clock, BookingJournal journal) {
+        this(clock, journal, null);
+    }
+
+    /** @param snapshots snapshot file restored by {@link #init()}; may be {@code null} */
+    public Calendar(Clock clock, BookingJournal journal, SnapshotStore snapshots) {
+        this(clock, journal, snapshots, DAYS_FORWARD);
+    }
+
+    /**
+     * @param snapshots   snapshot file restored by {@link #init()}; may be {@code null}
+     * @param daysForward horizon in days, today included
+     */
+    public Calendar(Clock clock, BookingJournal journal, SnapshotStore snapshots, int daysForward) {
+        this(clock, journal, snapshots, daysForward, CalendarMetrics.NOOP);
+    }
+
+    /** @param metrics instrumentation callbacks, {@link CalendarMetrics#NOOP} for none */
+    public Calendar(Clock clock, BookingJournal journal, SnapshotStore snapshots, int daysForward,
+                    CalendarMetrics metrics) {
+        this(clock, journal, snapshots, SlotGrid.DEFAULT, daysForward, metrics);
+    }
+
+    /** @param grid daily slot grid; bookings restored from disk that are off it are dropped */
+    public Calendar(Clock clock, BookingJournal journal, SnapshotStore snapshots, SlotGrid grid,
+                    int daysForward, CalendarMetrics metrics) {
+        this(clock, journal, snapshots, grid, daysForward, metrics, ChangeListener.NONE);
+    }
+
+    /** @param changes told about every booked or cancelled slot, {@link ChangeListener#NONE} for nobody */
+    public Calendar(Clock clock, BookingJournal journal, SnapshotStore snapshots, SlotGrid grid,
+                    int daysForward, CalendarMetrics metrics, ChangeListener changes) {
+        if (daysForward < 1) throw new IllegalArgumentException("daysForward must be positive");
+        this.clock       = clock;
+        this.grid        = grid;
+        this.slotsPerDay = grid.slotsPerDay();
+        this.heads       = SlotJson.heads(grid.start(), (int) grid.slot().toSeconds(), slotsPerDay);
+        this.journal     = journal;
+        this.snapshots   = snapshots;
+        this.daysForward = daysForward;
+        this.metrics     = metrics;
+        this.changes     = changes;
+        this.holdTimers  = new TimingWheel<>(HOLD_TICK_MILLIS, clock.millis());
+
+        Day proto = newDay(LocalDate.EPOCH);
+        this.slotsPerHour = new int[proto.hour(slotsPerDay - 1) + 1];
+        for (int i = 0; i < slotsPerDay; i++) slotsPerHour[proto.hour(i)]++;
+    }
+
+    /** Today according to this calendar's clock. */
+    public LocalDate today() {
+        return LocalDate.now(clock);
+    }
 
     /* ────────────────  Initialise  ──────────────── */
 
-    /** Generates every 15-min slot from 09:00–17:00 for 14 days. */
-    public void init() {
-        events.clear();
-        LocalDate today = LocalDate.now();
+    /**
+     * Generates every slot of the grid for the horizon.  Without
+     * persistence all bookings are dropped; otherwise they are restored from
+     * the latest snapshot plus the journal written after it (bookings outside
+     * the window are skipped).
+     */
+    public synchronized void init() {
+        LocalDate today = today();
+        Window restored = emptyWindow(today);
+        long offset = snapshots == null ? -1
+                : snapshots.load((date, time, booking) -> restore(restored, date, time, booking));
+
+        Window w = restored;
+        if (journal != null) {
+            if (offset >= 0 && !journal.canResumeAt(offset)) {
+                w = emptyWindow(today);                  // journal replaced or compacted past the snapshot
+                offset = -1;
+            }
+            Window target = w;
+            journal.replay(offset < 0 ? journal.start() : offset, r -> apply(target, r));
+        }
+        reindex(w);
+
+        writesStarted.incrementAndGet();
+        window = w;
+        writesDone.incrementAndGet();
+    }
 
-        for (int d = 0; d < DAYS_FORWARD; d++) {
-            LocalDate date = today.plusDays(d);
-            LocalTime t = START_TIME;
-            while (!t.isAfter(END_TIME.minus(SLOT_DURATION))) {
-                LocalDateTime start = LocalDateTime.of(date, t);
-                Event slot = new Event(date, t, t.plus(SLOT_DURATION), "", "", "");
-                events.put(start, slot);
-                t = t.plus(SLOT_DURATION);
+    private Window emptyWindow(LocalDate today) {
+        Day[] ring = new Day[daysForward];
+        for (int d = 0; d < daysForward; d++) {
+            ring[d] = newDay(today.plusDays(d));
+        }
+        return new Window(today, 0, ring);
+    }
+
+    /** Rebuild the client and advisor indexes from the slots of {@code w}. */
+    private void reindex(Window w) {
+        byClient.clear();
+        byAdvisor.clear();
+        for (Day day : w.ring()) {
+            for (int i = 0; i < slotsPerDay; i++) {
+                Booking b = day.booking(i);
+                if (b != null) index(day, i, b);
             }
         }
     }
 
+    private static void restore(Window w, LocalDate date, LocalTime time, Booking booking) {
+        Day day = w.day(date);
+        int idx = day == null ? -1 : day.slotIndex(time);
+        if (idx < 0) return;                             // fell out of the window (or off the grid)
+        day.tryBook(idx, booking);
+        day.syncBit(idx);
+    }
+
+    /**
+     * Replays one journal record onto {@code w}, bypassing the journal.  Each
+     * record re-checks its slot, so replaying from an offset taken before a
+     * (possibly write-overlapped) snapshot converges on the logged state.
+     */
+    private static void apply(Window w, JournalRecord r) {
+        if (r.type() == JournalRecord.Type.BOOK_BATCH) {   // all-or-nothing when logged; slots may have aged out since
+            Booking booking = new Booking(r.client(), r.description(), r.advisor());
+            for (LocalDateTime t : r.batch()) restore(w, t.toLocalDate(), t.toLocalTime(), booking);
+            return;
+        }
+
+        Day day = w.day(r.date());
+        int idx = day == null ? -1 : day.slotIndex(r.startTime());
+        if (idx < 0) return;                             // fell out of the window (or off the grid)
+
+        switch (r.type()) {
+            case BOOK   -> day.tryBook(idx, new Booking(r.client(), r.description(), r.advisor()));
+            case CANCEL -> day.tryCancel(idx, r.client());
+        }
+        day.syncBit(idx);
+    }
+
+    /**
+     * Advance the window to the clock's current date: each day that fell
+     * into the past is replaced in the ring by a fresh day at the far end
+     * (O(slots-per-day) each).  Bookings on the days that stay are kept.
+     * A no-op while the date is unchanged, so it is cheap to call often.
+     * Client and advisor names no booking uses any more are then dropped
+     * from the dictionary, one rollover after their last day left.
+     *
+     * @return number of days rolled over
+     */
+    public synchronized int rollover() {
+        Window w = window;
+        LocalDate today = today();
+        long behind = today.toEpochDay() - w.firstDate().toEpochDay();
+        if (behind <= 0) return 0;                       // up to date (or clock went back)
+
+        int len = w.ring().length;
+        int drop = (int) Math.min(behind, len);
+        Day[] ring = w.ring().clone();
+        for (int k = 0; k < drop; k++) {
+            // the slot of the oldest day becomes the new last day
+            int pos = (w.head() + k) % len;
+            ring[pos] = newDay(today.plusDays(len - drop + k));
+        }
+        writesStarted.incrementAndGet();
+        window = new Window(today, (w.head() + drop) % len, ring);
+        writesDone.incrementAndGet();
+        byClient.pruneAll(today);                        // keeps the per-advisor tallies to the window
+        byAdvisor.pruneAll(today);
+
+        // names only the dropped days still use go at the next rollover, once no reader holds them
+        BitSet unused = names.retainOnly(live -> {
+            for (Day day : w.ring()) day.forEachId(live);
+        });
+        unused.stream().forEach(id -> {
+            byClient.remove(id);
+            byAdvisor.remove(id);
+        });
+        return drop;
+    }
+
+    /** Distinct client and advisor names held in the dictionary. */
+    int distinctNames() {
+        return names.size();
+    }
+
+    private Day newDay(LocalDate date) {
+        return new Day(date, grid.start(), (int) grid.slot().toSeconds(), slotsPerDay, names, heads);
+    }
+
     /* ────────────────  SEARCH  ──────────────── */
 
 
     /** Convenience wrapper: “today” search. */
     public List<Event> getClosestAvailable(LocalTime desired, int count) {
-        return getClosestAvailable(LocalDate.now(), desired, count);
+        return getClosestAvailable(today(), desired, count);
     }
 
     /**
      * Return the {@code count} closest *un-booked* slots on the given date,
-     * no guarantee of ordering.
+     * ordered by distance from {@code desiredTime} (earlier slot wins a tie).
      */
     public List<Event> getClosestAvailable(LocalDate desiredDate,
                                            LocalTime desiredTime,
                                            int count) {
+        return getClosestAvailable(desiredDate, desiredTime, grid.slot(), count);
+    }
 
-        LocalDateTime desired = LocalDateTime.of(desiredDate, desiredTime);
+    /**
+     * Return the {@code count} free appointments of {@code length} on the
+     * given date whose start is closest to {@code desiredTime} (earlier start
+     * wins a tie); each is one {@link Event} spanning its consecutive slots.
+     * <p>
+     * Candidate starts come from the day's occupancy bitmap with word
+     * operations ({@link Day#runStarts}); the search walks outward over them
+     * and stops as soon as {@code count} were found.
+     *
+     * @throws IllegalArgumentException unless {@code length} is a whole number of slots within a day
+     */
+    public List<Event> getClosestAvailable(LocalDate desiredDate,
+                                           LocalTime desiredTime,
+                                           Duration length,
+                                           int count) {
+        int run = grid.slotsFor(length);
+        Day day = window.day(desiredDate);
+        if (day == null) {                               // outside the horizon
+            metrics.searched(0, 0);
+            return List.of();
+        }
+
+        int limit = Math.max(count, 1);
+        SlotCursor cursor = new SlotCursor(day, 0, 0, epochSecond(desiredDate, desiredTime), run);
 
-        return events.values().stream()
-                .filter(e -> !e.isBooked()
-                        && e.getDate().equals(desiredDate))          // ← constrain by day
-                .sorted(Comparator.comparingLong(ev ->
-                        Math.abs(Duration.between(
-                                LocalDateTime.of(ev.getDate(), ev.getStartTime()),
-                                desired).toMinutes())))
-                .limit(Math.max(count, 1))
-                .collect(Collectors.toList());
+        List<Event> result = new ArrayList<>(Math.min(limit, slotsPerDay));
+        while (result.size() < limit && cursor.advance()) {
+            result.add(cursor.candidate);
+        }
+        metrics.searched(cursor.scanned, result.size());
+        return result;
+    }
+
+    /**
+     * Return the {@code count} free slots between {@code from} and {@code to}
+     * (inclusive; {@code null} means the edge of the horizon) closest in
+     * absolute time to {@code desiredDate desiredTime}, nearest first (earlier
+     * slot wins a tie).
+     */
+    public List<Event> getClosestAvailable(LocalDate from,
+                                           LocalDate to,
+                                           LocalDate desiredDate,
+                                           LocalTime desiredTime,
+                                           int count) {
+        return getClosestAvailable(from, to, desiredDate, desiredTime, grid.slot(), count);
+    }
+
+    /**
+     * Cross-day variant of {@link #getClosestAvailable(LocalDate, LocalTime, Duration, int)}:
+     * free appointments of {@code length} between {@code from} and {@code to}
+     * (inclusive; {@code null} means the edge of the horizon), ranked by
+     * absolute time distance from {@code desiredDate desiredTime}.
+     * <p>
+     * A lazy k-way merge over per-day outward walks: days are opened in order
+     * of the nearest time they could offer, so the search stops as soon as the
+     * next unopened day cannot beat the {@code count}-th slot already taken —
+     * a busy desired day spills over into its neighbours without touching the
+     * rest of the range.
+     *
+     * @throws IllegalArgumentException unless {@code length} is a whole number of slots within a day
+     */
+    public List<Event> getClosestAvailable(LocalDate from,
+                                           LocalDate to,
+                                           LocalDate desiredDate,
+                                           LocalTime desiredTime,
+                                           Duration length,
+                                           int count) {
+        int run = grid.slotsFor(length);
+        Window w = window;
+        long firstDay = w.firstDate().toEpochDay();
+        long lo = from == null ? 0 : Math.max(0, from.toEpochDay() - firstDay);
+        long hi = to   == null ? w.ring().length - 1
+                               : Math.min(w.ring().length - 1, to.toEpochDay() - firstDay);
+        if (lo > hi) {                                   // range misses the horizon
+            metrics.searched(0, 0);
+            return List.of();
+        }
+
+        long desired = epochSecond(desiredDate, desiredTime);
+        int  anchor  = (int) Math.clamp(desiredDate.toEpochDay() - firstDay, lo, hi);
+        int  limit   = Math.max(count, 1);
+
+        // unopened cursors sit in the queue keyed by the nearest time their day could offer
+        PriorityQueue<SlotCursor> queue = new PriorityQueue<>(SlotCursor.NEAREST_FIRST);
+        List<SlotCursor> opened = new ArrayList<>();
+        queue.add(new SlotCursor(w.dayAt(anchor), anchor, 0, desired, run));
+        if (anchor > lo) queue.add(new SlotCursor(w.dayAt(anchor - 1), anchor - 1, -1, desired, run));
+        if (anchor < hi) queue.add(new SlotCursor(w.dayAt(anchor + 1), anchor + 1, +1, desired, run));
+
+        List<Event> result = new ArrayList<>(Math.min(limit, slotsPerDay));
+        while (result.size() < limit && !queue.isEmpty()) {
+            SlotCursor c = queue.poll();
+            if (c.opened) {
+                result.add(c.candidate);
+            } else {
+                opened.add(c);
+                int next = c.dayIndex + c.direction;    // the next day further out on this side
+                if (c.direction != 0 && next >= lo && next <= hi) {
+                    queue.add(new SlotCursor(w.dayAt(next), next, c.direction, desired, run));
+                }
+            }
+            if (c.advance()) queue.add(c);
+        }
+
+        int scanned = 0;
+        for (SlotCursor c : opened) scanned += c.scanned;
+        metrics.searched(scanned, result.size());
+        return result;
+    }
+
+    /**
+     * Told after a slot is booked or cancelled, on the writer's thread, so it
+     * must not block.  It carries no state: a listener that needs it reads
+     * the slot back ({@link #getSlot}), which also makes notifications that
+     * race each other harmless — the last one always sees the last write.
+     * Journal replay and rollover do not notify.
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+
+        ChangeListener NONE = (date, startTime) -> { };
+
+        void slotChanged(LocalDate date, LocalTime startTime);
+    }
+
+    /** Receives free slots from {@link #forEachFree}. */
+    @FunctionalInterface
+    public interface FreeSlotVisitor {
+
+        /** @return {@code false} to stop the walk */
+        boolean visit(LocalDate date, LocalTime start, LocalTime end);
+    }
+
+    /**
+     * Walk every free appointment of {@code length} between {@code from} and
+     * {@code to} (inclusive; {@code null} means the edge of the horizon) in
+     * date/time order, without collecting them: memory use does not depend
+     * on the size of the range.  Each day's candidates come from its bitmap
+     * and are re-checked against the slots before they are visited.
+     *
+     * @return {@code false} if the visitor stopped the walk
+     * @throws IllegalArgumentException unless {@code length} is a whole number of slots within a day
+     */
+    public boolean forEachFree(LocalDate from, LocalDate to, Duration length, FreeSlotVisitor visitor) {
+        int run = grid.slotsFor(length);
+        Window w = window;
+        long firstDay = w.firstDate().toEpochDay();
+        long lo = from == null ? 0 : Math.max(0, from.toEpochDay() - firstDay);
+        long hi = to   == null ? w.ring().length - 1
+                               : Math.min(w.ring().length - 1, to.toEpochDay() - firstDay);
+
+        for (long k = lo; k <= hi; k++) {
+            Day day = w.dayAt((int) k);
+            long[] starts = day.runStarts(run);
+            for (int idx = Day.nextSetBit(starts, 0); idx >= 0; idx = Day.nextSetBit(starts, idx + 1)) {
+                if (day.isRunFree(idx, run)
+                        && !visitor.visit(day.date, day.startTime(idx), day.startTime(idx + run))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /** Seconds since the epoch of a local date-time, as a distance scale for the search. */
+    private static long epochSecond(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * 86_400L + time.toSecondOfDay();
+    }
+
+    /**
+     * Outward walk over the starts of one day's free runs of {@code run}
+     * slots, nearest to {@code desired} first, jumping between candidates
+     * with bit scans.  Before its first {@link #advance()} the cursor is
+     * keyed by the closest start time the day has at all — a lower bound
+     * for anything it can yield.
+     */
+    private static final class SlotCursor {
+
+        static final Comparator<SlotCursor> NEAREST_FIRST =
+                Comparator.<SlotCursor>comparingLong(c -> c.distance).thenComparingLong(c -> c.at);
+
+        final Day  day;
+        final int  dayIndex;
+        final int  direction;      // -1 / +1: side of the anchor day it was opened from; 0 = anchor
+        final int  run;            // slots per appointment
+        final long base;           // epoch second of the day's first slot
+        final long desired;
+
+        boolean opened;
+        long[]  starts;            // run starts, computed on opening
+        int     lo, hi;            // next candidates below / above the desired time
+        int     scanned;
+
+        Event candidate;           // current free run, once advanced
+        long  at;                  // its epoch second (lower-bound start before that)
+        long  distance;            // |at - desired|
+
+        SlotCursor(Day day, int dayIndex, int direction, long desired, int run) {
+            this.day       = day;
+            this.dayIndex  = dayIndex;
+            this.direction = direction;
+            this.desired   = desired;
+            this.run       = run;
+            this.base      = day.date.toEpochDay() * 86_400L + day.firstSecond;
+            this.at        = Math.clamp(desired, base, base + (long) (day.slotCount() - run) * day.step);
+            this.distance  = Math.abs(at - desired);
+        }
+
+        /** Move to the next free run; {@code false} once the day is exhausted. */
+        boolean advance() {
+            int n    = day.slotCount();
+            int step = day.step;
+            if (!opened) {
+                opened = true;
+                starts = day.runStarts(run);
+                // lo = last start at/before the desired time, hi = the one after it
+                long off = Math.floorDiv(desired - base, step);
+                if (off < 0) {                            // before opening
+                    lo = -1;
+                    hi = 0;
+                } else if (off >= n) {                    // after closing
+                    lo = n - 1;
+                    hi = n;
+                } else {
+                    lo = (int) off;
+                    hi = lo + 1;
+                }
+            }
+            for (;;) {
+                lo = Day.prevSetBit(starts, lo);
+                hi = hi < n ? Day.nextSetBit(starts, hi) : -1;
+                if (hi < 0) hi = n;
+                if (lo < 0 && hi >= n) return false;
+
+                scanned++;
+                int idx;
+                if (lo < 0) {
+                    idx = hi++;
+                } else if (hi >= n) {
+                    idx = lo--;
+                } else {
+                    long dLo = desired - (base + (long) lo * step);
+                    long dHi = (base + (long) hi * step) - desired;
+                    idx = dLo <= dHi ? lo-- : hi++;
+                }
+                Event ev = day.freeRun(idx, run);         // bitmap may lag a concurrent booking
+                if (ev != null) {
+                    candidate = ev;
+                    at        = base + (long) idx * step;
+                    distance  = Math.abs(at - desired);
+                    return true;
+                }
+            }
+        }
     }
 
     /* ────────────────  BOOK  ──────────────── */
@@ -79,118 +600,738 @@ public class Calendar {
                              String client,
                              String description,
                              String advisor) {
-        return bookEvent(LocalDate.now().toString(),
+        return bookEvent(today().toString(),
                 startTimeStr, client, description, advisor);
     }
 
     /**
      * Book a specific slot identified by {@code dateStr} (yyyy-MM-dd)
-     * and {@code startTimeStr} (HH:mm). Returns {@code true} on success.
+     * and {@code startTimeStr} (HH:mm). Returns {@code true} on success;
+     * of several concurrent callers for the same slot exactly one succeeds.
+     */
+    public boolean bookEvent(String dateStr,
+                             String startTimeStr,
+                             String client,
+                             String description,
+                             String advisor) {
+        return bookEvent(dateStr, startTimeStr, grid.slot(), client, description, advisor);
+    }
+
+    /**
+     * Book an appointment of {@code length} — a whole number of slots —
+     * starting at {@code startTimeStr}.  All of its slots are claimed
+     * together (see {@link #bookBatch}), so it is booked entirely or not at all.
      */
     public boolean bookEvent(String dateStr,
                              String startTimeStr,
+                             Duration length,
                              String client,
                              String description,
                              String advisor) {
 
-        if (startTimeStr == null || startTimeStr.isBlank()) return false;
+        if (startTimeStr == null || startTimeStr.isBlank()) {
+            metrics.book(CalendarMetrics.BookOutcome.INVALID);
+            return false;
+        }
 
-        LocalDate date;
-        LocalTime time;
+        long epochDay;
+        int  second;
+        int  run;
         try {
-            date = LocalDate.parse(dateStr);
-            time = LocalTime.parse(startTimeStr);
+            epochDay = SlotFormat.epochDay(dateStr);     // straight to the slot's coordinates
+            second   = SlotFormat.secondOfDay(startTimeStr);
+            run      = grid.slotsFor(length);
         } catch (Exception e) {
+            metrics.book(CalendarMetrics.BookOutcome.INVALID);
             return false; // bad format
         }
 
-        LocalDateTime key = LocalDateTime.of(date, time);
-        Event slot = events.get(key);
-        if (slot == null || slot.isBooked()) return false;
+        Booking booking = new Booking(client, description, advisor);
+        if (run > 1) {
+            LocalDateTime start = LocalDate.ofEpochDay(epochDay).atTime(LocalTime.ofSecondOfDay(second));
+            List<LocalDateTime> slots = new ArrayList<>(run);
+            for (int i = 0; i < run; i++) slots.add(start.plus(grid.slot().multipliedBy(i)));
+            return bookAll(window, slots, booking);
+        }
+
+        Day day = window.day(epochDay);
+        int idx = day == null ? -1 : day.slotIndex(second);
+        if (idx < 0) {                                   // no such slot
+            metrics.book(CalendarMetrics.BookOutcome.NOT_FOUND);
+            return false;
+        }
+        LocalDate date = day.date;
+        LocalTime time = day.startTime(idx);
+
+        Runnable settle = () -> {
+            day.syncBit(idx);
+            index(day, idx, booking);
+            day.touch();
+            changes.slotChanged(date, time);
+        };
+        writesStarted.incrementAndGet();
+        try {
+            if (!write(() -> JournalRecord.book(date, time, booking), () -> day.tryBook(idx, booking), settle)) {
+                metrics.book(CalendarMetrics.BookOutcome.ALREADY_BOOKED);
+                return false;
+            }
+            settle.run();
+            metrics.book(CalendarMetrics.BookOutcome.BOOKED);
+            metrics.slotsBooked(1);
+            return true;
+        } catch (IllegalArgumentException e) {
+            metrics.book(CalendarMetrics.BookOutcome.INVALID);
+            return false; // too long to journal; nothing was booked
+        } finally {
+            writesDone.incrementAndGet();
+        }
+    }
+
+    /**
+     * Book every slot in {@code slots} for the same client, or none of them.
+     * Returns {@code true} if all were booked.
+     * <p>
+     * Slots are claimed one CAS at a time in date/time order.  A batch that
+     * meets a taken slot releases what it claimed and fails instead of
+     * waiting, so it cannot deadlock and never blocks bookings of other
+     * slots; the fixed order means that of two overlapping batches one gets
+     * through.  Claimed slots read as booked until the batch settles.  With a
+     * journal the whole batch is one record.
+     */
+    public boolean bookBatch(List<LocalDateTime> slots,
+                             String client,
+                             String description,
+                             String advisor) {
+        Window w = window;
+        List<LocalDateTime> ordered = slots == null ? List.of() : new ArrayList<>(slots);
+        if (ordered.isEmpty() || ordered.size() > w.ring().length * slotsPerDay || ordered.contains(null)) {
+            metrics.book(CalendarMetrics.BookOutcome.INVALID);
+            return false;
+        }
+        Collections.sort(ordered);
+        return bookAll(w, ordered, new Booking(client, description, advisor));
+    }
+
+    /** All-or-nothing booking of {@code ordered} (sorted, non-empty) on window {@code w}. */
+    private boolean bookAll(Window w, List<LocalDateTime> ordered, Booking booking) {
+        Day[] days = new Day[ordered.size()];
+        int[] idxs = new int[ordered.size()];
+        for (int i = 0; i < ordered.size(); i++) {
+            LocalDateTime t = ordered.get(i);
+            if (i > 0 && t.equals(ordered.get(i - 1))) {  // same slot twice
+                metrics.book(CalendarMetrics.BookOutcome.INVALID);
+                return false;
+            }
+            days[i] = w.day(t.toLocalDate());
+            idxs[i] = days[i] == null ? -1 : days[i].slotIndex(t.toLocalTime());
+            if (idxs[i] < 0) {                           // no such slot
+                metrics.book(CalendarMetrics.BookOutcome.NOT_FOUND);
+                return false;
+            }
+        }
 
-        slot.setClient(client == null ? "" : client);
-        slot.setDescription(description == null ? "" : description);
-        slot.setAdvisor(advisor == null ? "" : advisor);
-        slot.book();
+        Runnable settle = () -> {
+            for (int i = 0; i < days.length; i++) {
+                days[i].syncBit(idxs[i]);
+                index(days[i], idxs[i], booking);
+                days[i].touch();
+                changes.slotChanged(days[i].date, days[i].startTime(idxs[i]));
+            }
+        };
+        writesStarted.incrementAndGet();
+        try {
+            if (!write(() -> JournalRecord.bookBatch(ordered, booking), () -> claimAll(days, idxs, booking), settle)) {
+                for (Day d : days) d.touch();            // searches may have seen the released claims
+                metrics.book(CalendarMetrics.BookOutcome.ALREADY_BOOKED);
+                return false;
+            }
+            settle.run();
+            metrics.book(CalendarMetrics.BookOutcome.BOOKED);
+            metrics.slotsBooked(days.length);
+            return true;
+        } catch (IllegalArgumentException e) {
+            metrics.book(CalendarMetrics.BookOutcome.INVALID);
+            return false; // too long to journal; nothing was booked
+        } finally {
+            writesDone.incrementAndGet();
+        }
+    }
+
+    /**
+     * Run {@code mutation}, journalled as {@code record} if there is a
+     * journal.  If the journal fails once the mutation has applied, the
+     * change stays (its record may well be on disk) and {@code settle} brings
+     * the bitmap, indexes and listeners in line with it before the exception
+     * propagates.  A failed journal refuses every later write, so from then
+     * on the calendar is read-only and consistent until a restart replays
+     * whatever reached the disk.
+     *
+     * @return the mutation's result
+     * @throws IllegalArgumentException if the record cannot be journalled; nothing changed
+     * @throws UncheckedIOException     if the journal failed
+     */
+    private boolean write(Supplier<JournalRecord> record, BooleanSupplier mutation, Runnable settle) {
+        if (journal == null) return mutation.getAsBoolean();
+        boolean[] applied = new boolean[1];
+        try {
+            return journal.append(record.get(), () -> applied[0] = mutation.getAsBoolean());
+        } catch (UncheckedIOException e) {
+            if (applied[0]) settle.run();
+            throw e;
+        }
+    }
+
+    /** Claim every slot in order, then publish them all; on the first taken slot release the claims. */
+    private static boolean claimAll(Day[] days, int[] idxs, Booking booking) {
+        for (int i = 0; i < days.length; i++) {
+            if (!days[i].tryClaim(idxs[i])) {
+                while (--i >= 0) days[i].release(idxs[i]);
+                return false;
+            }
+        }
+        for (int i = 0; i < days.length; i++) days[i].publish(idxs[i], booking);
         return true;
     }
 
     public boolean cancelEvent(String dateStr,
                                String startTimeStr,
                                String clientName) {
-        LocalDate date;
-        LocalTime time;
+        long epochDay;
+        int  second;
         try {
-            date = LocalDate.parse(dateStr);
-            time = LocalTime.parse(startTimeStr);
+            epochDay = SlotFormat.epochDay(dateStr);
+            second   = SlotFormat.secondOfDay(startTimeStr);
         } catch (DateTimeParseException ex) {
+            metrics.cancel(CalendarMetrics.CancelOutcome.INVALID);
             return false;      // invalid format
         }
+        Day day = window.day(epochDay);
+        return cancel(day, day == null ? -1 : day.slotIndex(second), clientName);
+    }
+
+    private boolean cancel(LocalDate date, LocalTime time, String clientName) {
+        Day day = window.day(date);
+        return cancel(day, day == null ? -1 : day.slotIndex(time), clientName);
+    }
+
+    private boolean cancel(Day day, int idx, String clientName) {
+        if (idx < 0) {                                   // no such slot
+            metrics.cancel(CalendarMetrics.CancelOutcome.NOT_FOUND);
+            return false;
+        }
+        LocalDate date = day.date;
+        LocalTime time = day.startTime(idx);
+
+        Booking before = day.booking(idx);               // its advisor's index entry goes too
+        Runnable settle = () -> {
+            day.syncBit(idx);
+            day.syncIndex(idx, names.find(clientName), before == null ? StringDictionary.NONE : advisorId(before),
+                    byClient, byAdvisor);
+            day.touch();
+            changes.slotChanged(date, time);
+        };
+        writesStarted.incrementAndGet();
+        try {
+            if (!write(() -> JournalRecord.cancel(date, time, clientName), () -> day.tryCancel(idx, clientName), settle)) {
+                metrics.cancel(day.isTaken(idx)       // already free, or booked under someone else
+                        ? CalendarMetrics.CancelOutcome.CLIENT_MISMATCH
+                        : CalendarMetrics.CancelOutcome.NOT_BOOKED);
+                return false;
+            }
+            settle.run();
+            metrics.cancel(CalendarMetrics.CancelOutcome.CANCELLED);
+            return true;
+        } catch (IllegalArgumentException e) {
+            metrics.cancel(CalendarMetrics.CancelOutcome.INVALID);
+            return false;      // client name too long to journal; cannot match a booking anyway
+        } finally {
+            writesDone.incrementAndGet();
+        }
+    }
+
+    /* ────────────────  BY CLIENT / ADVISOR  ──────────────── */
+
+    /**
+     * Slots booked by {@code client} from {@code from} to {@code to}
+     * (inclusive; {@code null} means the edge of the window) in date/time
+     * order, one per slot.  Read from the client index and re-checked
+     * against the slots: O(the client's bookings), not O(slots).
+     */
+    public List<Event> bookingsOf(String client, LocalDate from, LocalDate to) {
+        int id = client == null || client.isEmpty() ? StringDictionary.NONE : names.find(client);
+        return bookings(byClient, id, from, to, e -> e.getClient().equals(client));
+    }
+
+    /** Slots booked with {@code advisor}; see {@link #bookingsOf}. */
+    public List<Event> bookingsWithAdvisor(String advisor, LocalDate from, LocalDate to) {
+        int id = advisor == null || advisor.isEmpty() ? StringDictionary.NONE : names.find(advisor);
+        return bookings(byAdvisor, id, from, to, e -> e.getAdvisor().equals(advisor));
+    }
+
+    /**
+     * Cancel every booking of {@code client} from {@code from} to {@code to}
+     * ({@code null} = edge of the window), each journalled like
+     * {@link #cancelEvent}.
+     *
+     * @return the number of slots cancelled
+     */
+    public int cancelAll(String client, LocalDate from, LocalDate to) {
+        int cancelled = 0;
+        for (Event e : bookingsOf(client, from, to)) {
+            if (cancel(e.getDate(), e.getStartTime(), client)) cancelled++;
+        }
+        return cancelled;
+    }
+
+    private List<Event> bookings(BookingIndex index, int id, LocalDate from, LocalDate to, Predicate<Event> owns) {
+        if (id == StringDictionary.NONE) return List.of();
+        Window    w     = window;
+        LocalDate first = w.firstDate();
+        LocalDate last  = first.plusDays(w.ring().length - 1);
+        LocalDate lo    = from == null || from.isBefore(first) ? first : from;
+        LocalDate hi    = to == null || to.isAfter(last) ? last : to;
+        index.prune(id, first);
+        if (hi.isBefore(lo)) return List.of();
+
+        List<Event> result = new ArrayList<>();
+        for (long key : index.slots(id, lo, hi)) {
+            Day day = w.day(BookingIndex.date(key));
+            int idx = day == null ? -1 : day.slotIndex(BookingIndex.time(key));
+            if (idx < 0) continue;                       // off the current grid
+            Event e = day.event(idx);
+            if (e.isBooked() && owns.test(e)) result.add(e);  // the entry may lag a write
+        }
+        return result;
+    }
+
+    /** Index slot {@code idx} of {@code day} under {@code b}'s client and advisor. */
+    private void index(Day day, int idx, Booking b) {
+        int client = b.client().isEmpty() ? StringDictionary.NONE : names.find(b.client());
+        day.syncIndex(idx, client, advisorId(b), byClient, byAdvisor);
+    }
+
+    /** Dictionary id of {@code b}'s advisor; bookings without one are not indexed by advisor. */
+    private int advisorId(Booking b) {
+        return b.advisor().isEmpty() ? StringDictionary.NONE : names.find(b.advisor());
+    }
+
+    /* ────────────────  REPLICATION  ──────────────── */
+
+    /**
+     * Apply one record of a leader's journal (see {@link ReplicationClient}).
+     * Like the replay in {@link #init()}, each slot is re-checked, but on the
+     * live window and with the indexes, day versions and change listeners
+     * kept up to date.  Nothing goes into this calendar's own journal: a
+     * follower has none and starts over from the leader's.
+     */
+    void replicate(JournalRecord r) {
+        Window w = window;
+        List<LocalDateTime> slots = r.type() == JournalRecord.Type.BOOK_BATCH
+                ? r.batch()
+                : List.of(r.date().atTime(r.startTime()));
+        Booking booking = new Booking(r.client(), r.description(), r.advisor());
+
+        writesStarted.incrementAndGet();
+        try {
+            for (LocalDateTime t : slots) {
+                Day day = w.day(t.toLocalDate());
+                int idx = day == null ? -1 : day.slotIndex(t.toLocalTime());
+                if (idx < 0) continue;                   // fell out of the window (or off the grid)
+
+                if (r.type() == JournalRecord.Type.CANCEL) {
+                    Booking before = day.booking(idx);
+                    if (!day.tryCancel(idx, r.client())) continue;
+                    day.syncBit(idx);
+                    day.syncIndex(idx, names.find(r.client()),
+                            before == null ? StringDictionary.NONE : advisorId(before), byClient, byAdvisor);
+                } else {
+                    if (!day.tryBook(idx, booking)) continue;
+                    day.syncBit(idx);
+                    index(day, idx, booking);
+                }
+                day.touch();
+                changes.slotChanged(day.date, t.toLocalTime());
+            }
+        } finally {
+            writesDone.incrementAndGet();
+        }
+    }
+
+    /* ────────────────  HOLDS  ──────────────── */
+
+    /** Slots {@code startTime}–{@code endTime} on {@code date}, reserved until {@code expiresAt}. */
+    public record Hold(String id, LocalDate date, LocalTime startTime, LocalTime endTime, Instant expiresAt) { }
+
+    /** A hold's slots and the state words that prove it still owns them. */
+    private static final class HeldSlots {
+        final Hold   hold;
+        final Day    day;
+        final int    first;
+        final long[] words;
+        volatile TimingWheel.Timer<HeldSlots> timer;
+
+        HeldSlots(Hold hold, Day day, int first, long[] words) {
+            this.hold  = hold;
+            this.day   = day;
+            this.first = first;
+            this.words = words;
+        }
+    }
+
+    /**
+     * Reserve an appointment of {@code length} at {@code date startTime} for
+     * {@code ttl}, e.g. while a customer confirms.  Held slots are taken for
+     * searches and bookings but are not bookings: they are neither journalled
+     * nor snapshotted, so a restart drops them.  The hold ends with
+     * {@link #confirmHold}, {@link #releaseHold} or, once {@code ttl} has
+     * passed, {@link #expireHolds}.
+     *
+     * @return the hold, or {@code null} if a slot is taken or not in the window
+     * @throws IllegalArgumentException unless {@code length} is a whole number of
+     *         slots within a day and {@code ttl} is positive
+     */
+    public Hold hold(LocalDate date, LocalTime startTime, Duration length, Duration ttl) {
+        int run = grid.slotsFor(length);
+        if (ttl.isNegative() || ttl.isZero()) throw new IllegalArgumentException("ttl must be positive");
+
+        Day day = window.day(date);
+        int first = day == null ? -1 : day.slotIndex(startTime);
+        if (first < 0 || first + run > day.slotCount()) return null;
+
+        long[] words = new long[run];
+        for (int i = 0; i < run; i++) {
+            words[i] = day.tryHold(first + i);
+            if (words[i] == 0) {
+                while (--i >= 0) day.releaseHold(first + i, words[i]);
+                day.touch();                             // searches may have seen them
+                return null;
+            }
+        }
+        for (int i = 0; i < run; i++) {
+            day.syncBit(first + i);
+            changes.slotChanged(date, day.startTime(first + i));
+        }
+        day.touch();
+
+        Hold hold = new Hold(UUID.randomUUID().toString(), date, day.startTime(first),
+                day.startTime(first + run), clock.instant().plus(ttl));
+        HeldSlots h = new HeldSlots(hold, day, first, words);
+        holds.put(hold.id(), h);
+        h.timer = holdTimers.schedule(h, hold.expiresAt().toEpochMilli());
+        return hold;
+    }
+
+    /**
+     * Turn hold {@code holdId} into a booking.  Journalled like
+     * {@link #bookEvent}.  The hold ends either way.
+     *
+     * @return {@code false} if the hold is unknown, expired or released
+     */
+    public boolean confirmHold(String holdId, String client, String description, String advisor) {
+        HeldSlots h = holdId == null ? null : holds.remove(holdId);
+        if (h == null) {
+            metrics.book(CalendarMetrics.BookOutcome.NOT_FOUND);
+            return false;
+        }
+        stopTimer(h);
+        Day day = h.day;
+        if (window.day(day.date) != day) {               // rolled out of the window
+            metrics.book(CalendarMetrics.BookOutcome.NOT_FOUND);
+            return false;
+        }
 
-        LocalDateTime key = LocalDateTime.of(date, time);
-        Event slot = events.get(key);
-        if (slot == null || !slot.isBooked()) {
-            return false;      // no such slot or already free
+        Booking booking = new Booking(client, description, advisor);
+        BooleanSupplier confirm = () -> {
+            for (int i = 0; i < h.words.length; i++) {
+                if (!day.confirmHold(h.first + i, h.words[i])) {
+                    while (--i >= 0) day.release(h.first + i);
+                    return false;
+                }
+            }
+            for (int i = 0; i < h.words.length; i++) day.publish(h.first + i, booking);
+            return true;
+        };
+
+        Runnable settle = () -> {
+            for (int i = 0; i < h.words.length; i++) {
+                day.syncBit(h.first + i);
+                index(day, h.first + i, booking);
+                changes.slotChanged(day.date, day.startTime(h.first + i));
+            }
+            day.touch();
+        };
+        writesStarted.incrementAndGet();
+        try {
+            boolean booked;
+            try {
+                booked = write(() -> holdRecord(h, booking), confirm, settle);
+            } catch (RuntimeException e) {               // do not leak the slots (a no-op for confirmed ones)
+                release(h);
+                if (e instanceof IllegalArgumentException) {
+                    metrics.book(CalendarMetrics.BookOutcome.INVALID);
+                    return false;                        // too long to journal
+                }
+                throw e;
+            }
+            if (!booked) {
+                release(h);
+                metrics.book(CalendarMetrics.BookOutcome.ALREADY_BOOKED);
+                return false;
+            }
+            settle.run();
+            metrics.book(CalendarMetrics.BookOutcome.BOOKED);
+            metrics.slotsBooked(h.words.length);
+            return true;
+        } finally {
+            writesDone.incrementAndGet();
         }
-        if (!slot.getClient().equals(clientName)) {
-            return false;      // booked under someone else
+    }
+
+    private static JournalRecord holdRecord(HeldSlots h, Booking booking) {
+        if (h.words.length == 1) return JournalRecord.book(h.day.date, h.hold.startTime(), booking);
+        List<LocalDateTime> slots = new ArrayList<>(h.words.length);
+        for (int i = 0; i < h.words.length; i++) slots.add(h.day.date.atTime(h.day.startTime(h.first + i)));
+        return JournalRecord.bookBatch(slots, booking);
+    }
+
+    /** Give hold {@code holdId}'s slots back; {@code false} if it is unknown or already ended. */
+    public boolean releaseHold(String holdId) {
+        HeldSlots h = holdId == null ? null : holds.remove(holdId);
+        if (h == null) return false;
+        stopTimer(h);
+        release(h);
+        return true;
+    }
+
+    /**
+     * Release every hold whose time is up.  Driven by a timing wheel, so the
+     * cost is the expired holds plus O(1) per {@value #HOLD_TICK_MILLIS} ms
+     * since the last call, not the number outstanding; call it periodically.
+     *
+     * @return number of holds released
+     */
+    public int expireHolds() {
+        int[] released = {0};
+        holdTimers.advance(clock.millis(), h -> {
+            if (holds.remove(h.hold.id(), h)) {
+                release(h);
+                released[0]++;
+            }
+        });
+        return released[0];
+    }
+
+    /** Outstanding holds. */
+    public int heldCount() {
+        return holds.size();
+    }
+
+    private static void stopTimer(HeldSlots h) {
+        TimingWheel.Timer<HeldSlots> t = h.timer;
+        if (t != null) t.cancel();                       // else it fires later and finds the hold gone
+    }
+
+    private void release(HeldSlots h) {
+        Day day = h.day;
+        for (int i = 0; i < h.words.length; i++) {
+            day.releaseHold(h.first + i, h.words[i]);   // fails only for slots a failed confirm already freed
+            day.syncBit(h.first + i);
+            changes.slotChanged(day.date, day.startTime(h.first + i));
         }
+        day.touch();
+    }
+
+    /* ────────────────  OCCUPANCY  ──────────────── */
+
+    /** Number of days in the window. */
+    public int horizonDays() {
+        return daysForward;
+    }
+
+    public int slotsPerDay() {
+        return slotsPerDay;
+    }
+
+    /** The daily slot grid. */
+    public SlotGrid grid() {
+        return grid;
+    }
+
+    /** Current state of the slot starting at {@code date time}, or {@code null} if the window has none. */
+    public Event getSlot(LocalDate date, LocalTime time) {
+        Day day = window.day(date);
+        int idx = day == null ? -1 : day.slotIndex(time);
+        return idx < 0 ? null : day.event(idx);
+    }
+
+    /** Whether the slot starting at {@code date time} is reserved by a {@link #hold}. */
+    public boolean isHeld(LocalDate date, LocalTime time) {
+        Day day = window.day(date);
+        int idx = day == null ? -1 : day.slotIndex(time);
+        return idx >= 0 && day.isHeld(idx);
+    }
+
+    /** Booked (or held) slots on the {@code dayOffset}-th day of the window (0 = today), from its counters. */
+    public int bookedSlots(int dayOffset) {
+        Window w = window;
+        if (w == null || dayOffset < 0 || dayOffset >= w.ring().length) return 0;
+        return w.dayAt(dayOffset).bookedCount();
+    }
 
-        // reset the slot
-        slot.setClient("");
-        slot.setDescription("");
-        slot.setAdvisor("");
-        // un-book
-        // (we don’t have an explicit unbook(), so toggle the flag via reflection or extend Event:)
-        // Assuming Event had a setter:
-        slot.setBooked(false);
+    /** Occupancy of one day: booked (or held) slots in total and per hour of {@link Utilization#hours()}. */
+    public record DayUtilization(LocalDate date, int booked, int free, int[] bookedByHour) { }
+
+    /**
+     * Occupancy heatmap of the window: a row per day, a column per hour
+     * that has slots ({@code slotsPerHour} of them each), plus the number of
+     * booked slots per advisor.
+     */
+    public record Utilization(List<LocalTime> hours, int[] slotsPerHour, List<DayUtilization> days,
+                              Map<String, Integer> bookingsByAdvisor) { }
+
+    /**
+     * The window's {@link Utilization}, read from counters that bookings,
+     * cancellations and holds keep up to date as they flip slots: one read
+     * per cell, no slots scanned.  Cells are read one by one, so under
+     * concurrent writes they need not all be from the same instant.
+     */
+    public Utilization utilization() {
+        Window w = window;
+        int hours = slotsPerHour.length;
+        List<DayUtilization> days = new ArrayList<>(w.ring().length);
+        for (int k = 0; k < w.ring().length; k++) {
+            Day day = w.dayAt(k);
+            int[] byHour = new int[hours];
+            for (int h = 0; h < hours; h++) byHour[h] = day.bookedCount(h);
+            int booked = day.bookedCount();
+            days.add(new DayUtilization(day.date, booked, slotsPerDay - booked, byHour));
+        }
+        Map<String, Integer> byAdvisorName = new TreeMap<>();
+        byAdvisor.counts((id, n) -> {
+            String name = names.name(id);
+            if (name != null) byAdvisorName.put(name, n);
+        });
+
+        LocalTime first = LocalTime.of(grid.start().getHour(), 0);
+        List<LocalTime> columns = new ArrayList<>(hours);
+        for (int h = 0; h < hours; h++) columns.add(first.plusHours(h));
+        return new Utilization(columns, slotsPerHour.clone(), days, byAdvisorName);
+    }
+
+    /* ────────────────  SNAPSHOT  ──────────────── */
+
+    /** Modification version: grows with every booking, cancellation and rollover. */
+    public long version() {
+        return writesDone.get();
+    }
+
+    /**
+     * Modification version of the days {@code from}..{@code to} (inclusive;
+     * {@code null} means the edge of the window): the first day of the window
+     * in the high bits, the sum of the days' own versions in the low 40.  It
+     * grows whenever one of those days is booked or cancelled and whenever
+     * the window rolls, so a result computed from them is current for as
+     * long as this stays put.  Costs one read per day.
+     */
+    public long version(LocalDate from, LocalDate to) {
+        Window w = window;
+        long first = w.firstDate().toEpochDay();
+        long lo = from == null ? 0 : Math.max(0, from.toEpochDay() - first);
+        long hi = to == null ? w.ring().length - 1 : Math.min(w.ring().length - 1, to.toEpochDay() - first);
+        long sum = 0;
+        for (long k = lo; k <= hi; k++) sum += w.dayAt((int) k).version();
+        return first << 40 | (sum & ((1L << 40) - 1));
+    }
+
+    /**
+     * Point-in-time copy of every slot in date/time order, taken without
+     * blocking writers: the copy is retried until no write overlapped it.
+     * Under a sustained write storm it gives up after a few attempts and
+     * returns a copy that is only consistent per slot
+     * ({@link CalendarSnapshot#consistent()} is then {@code false}).
+     * Builds an {@link Event} per slot, so it is for display, debugging and
+     * tests; snapshot files are written from the day columns instead.
+     */
+    public CalendarSnapshot snapshot() {
+        for (int attempt = 1; ; attempt++) {
+            long done    = writesDone.get();
+            long started = writesStarted.get();      // started == done ⇒ no write in flight
+            long journalOffset = journal == null ? 0 : journal.appendedEnd();
+
+            Window w = window;
+            List<Event> slots = new ArrayList<>(w.ring().length * slotsPerDay);
+            for (int k = 0; k < w.ring().length; k++) {
+                Day day = w.dayAt(k);
+                for (int i = 0; i < slotsPerDay; i++) slots.add(day.event(i));
+            }
+
+            boolean consistent = started == done && writesStarted.get() == started;
+            if (consistent || attempt == SNAPSHOT_ATTEMPTS) {
+                return new CalendarSnapshot(done, consistent, w.firstDate(), w.ring().length,
+                        journalOffset, Collections.unmodifiableList(slots));
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * The window's bookings as {@link SnapshotStore} persists them, copied
+     * from each day's columns with the same retries as {@link #snapshot()}
+     * but without an {@link Event} per slot: only booked slots cost anything
+     * beyond their bitmap bit.
+     */
+    private SnapshotStore.Image image() {
+        int words = (slotsPerDay + 63) >>> 6;
+        for (int attempt = 1; ; attempt++) {
+            long done    = writesDone.get();
+            long started = writesStarted.get();
+            long journalOffset = journal == null ? 0 : journal.appendedEnd();
+
+            Window w = window;
+            long[] bitmaps = new long[w.ring().length * words];
+            List<String> bookings = new ArrayList<>();
+            for (int k = 0; k < w.ring().length; k++) w.dayAt(k).copyBookings(bitmaps, k * words, bookings);
+
+            boolean consistent = started == done && writesStarted.get() == started;
+            if (consistent || attempt == SNAPSHOT_ATTEMPTS) {
+                return new SnapshotStore.Image(done, consistent, journalOffset, w.firstDate(), w.ring().length,
+                        slotsPerDay, grid.start().toSecondOfDay(), (int) grid.slot().toSeconds(), bitmaps, bookings);
+            }
+            Thread.onSpinWait();
+        }
+    }
+
+    /**
+     * Persist a snapshot if anything changed since the last one.  Bookings
+     * carry on while it runs; the journal is flushed first so the snapshot
+     * never points past its durable end.  Once the snapshot is on disk the
+     * journal before it is compacted (see {@link BookingJournal#compact}),
+     * unless the snapshot is only consistent per slot.
+     *
+     * @return {@code true} if a snapshot was written
+     */
+    public synchronized boolean writeSnapshot() {
+        if (snapshots == null || version() == snapshotVersion) return false;
+
+        SnapshotStore.Image image = image();
+        if (journal != null) journal.flush();
+        snapshots.write(image);
+        snapshotVersion = image.version();
+        if (journal != null && image.consistent()) journal.compact(image.journalOffset(), checkpoint(image));
         return true;
     }
 
+    /** Records that book, on an empty calendar, what {@code image} has booked. */
+    private static List<JournalRecord> checkpoint(SnapshotStore.Image image) {
+        List<JournalRecord> records = new ArrayList<>(image.bookings().size() / 3);
+        image.forEachBooking((date, time, booking) -> records.add(JournalRecord.book(date, time, booking)));
+        return records;
+    }
+
     /* ────────────────  DISPLAY  (console helper) ──────────────── */
 
+    /** Render a fresh snapshot to stdout.  Debug helper — keep off request paths. */
     public void showCalendar() {
-        final String RESET = "\u001B[0m",
-                RED   = "\u001B[31m",
-                GREEN = "\u001B[32m",
-                BOLD  = "\u001B[1m";
-
-        String fmt  = "| %-10s | %-13s | %-8s | %-10s | %-8s | %-20s |%n";
-        String line = "+------------+-----------------+----------+------------+----------+----------------------+";
-
-        System.out.println(line);
-        System.out.printf(BOLD +
-                "| Date       | Time Slot       | Booked   | Client     | Advisor  | Description          |%n"
-                + RESET);
-        System.out.println(line);
-
-        events.values().stream()
-                .sorted(Comparator
-                        .comparing(Event::getDate)
-                        .thenComparing(Event::getStartTime))
-                .forEach(ev -> {
-                    String slot   = ev.getStartTime() + " - " + ev.getEndTime();
-                    String status = ev.isBooked()
-                            ? RED + "Yes" + RESET
-                            : GREEN + "No"  + RESET;
-
-                    // Null-safe extraction
-                    String client      = ev.getClient()      == null || ev.getClient().isBlank()
-                            ? "" : ev.getClient().strip();
-                    String advisor     = ev.getAdvisor()     == null || ev.getAdvisor().isBlank()
-                            ? "" : ev.getAdvisor().strip();
-                    String description = ev.getDescription() == null || ev.getDescription().isBlank()
-                            ? "" : ev.getDescription().strip();
-
-                    System.out.printf(fmt,
-                            ev.getDate(),
-                            slot,
-                            status,
-                            client,
-                            advisor,
-                            description
-                    );
-                });
-        System.out.println(line);
-    }
-}
\ No newline at end of file
+        System.out.print(CalendarRenderer.render(snapshot(), true));
+    }
+}
@@ -0,0 +1,34 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.PrintStream;
+
+/**
+ * Prints the calendar table to the console from a background schedule,
+ * at most once per tick and only when the calendar changed since the last
+ * dump.  Request threads never call it, so booking latency does not
+ * depend on stdout.
+ */
+final class CalendarConsoleDumper {
+
+    private final Calendar    calendar;
+    private final PrintStream out;
+
+    /** Version of the last dump; -1 forces the first one. Only touched by the scheduler thread. */
+    private long dumpedVersion = -1;
+
+    CalendarConsoleDumper(Calendar calendar, PrintStream out) {
+        this.calendar = calendar;
+        this.out      = out;
+    }
+
+    /** @return {@code true} if something was printed */
+    boolean dumpIfChanged() {
+        if (calendar.version() == dumpedVersion) return false;
+
+        CalendarSnapshot snapshot = calendar.snapshot();
+        out.print(CalendarRenderer.render(snapshot, true));
+        out.flush();
+        dumpedVersion = snapshot.version();
+        return true;
+    }
+}
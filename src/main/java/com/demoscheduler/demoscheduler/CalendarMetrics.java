@@ -0,0 +1,28 @@
+package com.demoscheduler.demoscheduler;
+
+/**
+ * Instrumentation callbacks from {@link Calendar}'s hot paths.  Keeps the
+ * calendar free of any metrics library; {@link MicrometerCalendarMetrics}
+ * is the production implementation.  Callbacks run on request threads and
+ * must be cheap and non-blocking.
+ */
+public interface CalendarMetrics {
+
+    /** Does nothing; the default for calendars built without metrics. */
+    CalendarMetrics NOOP = new CalendarMetrics() { };
+
+    enum BookOutcome   { BOOKED, ALREADY_BOOKED, NOT_FOUND, INVALID }
+
+    enum CancelOutcome { CANCELLED, CLIENT_MISMATCH, NOT_BOOKED, NOT_FOUND, INVALID }
+
+    /** One closest-slot search examined {@code slotsScanned} slots and returned {@code found}. */
+    default void searched(int slotsScanned, int found) { }
+
+    /** Once per booking call, however many slots it covers. */
+    default void book(BookOutcome outcome) { }
+
+    /** A successful booking took {@code slots} slots. */
+    default void slotsBooked(int slots) { }
+
+    default void cancel(CancelOutcome outcome) { }
+}
@@ -0,0 +1,243 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * One {@link Calendar} per advisor (or any other bookable resource), each
+ * with its own slots, journal and snapshot, so bookings for different
+ * advisors never touch the same memory or lock.
+ * <p>
+ * Cross-advisor searches run the per-advisor searches in parallel — the
+ * advisors are split into at most {@code parallelism} chunks — and combine
+ * the per-advisor results, each already ordered by distance, with a k-way
+ * merge that stops after {@code count} slots.
+ */
+public class CalendarRegistry implements Closeable {
+
+    /** A free slot (or run of slots) of one advisor. */
+    public record AdvisorSlot(String advisor, LocalDate date, LocalTime startTime, LocalTime endTime) { }
+
+    private record Entry(Calendar calendar, BookingJournal journal) { }
+
+    /** Sorted by id, so “all advisors” always iterates (and breaks ties) in the same order. */
+    private final ConcurrentSkipListMap<String, Entry> calendars = new ConcurrentSkipListMap<>();
+
+    private final ExecutorService searchPool;
+    private final int             parallelism;
+
+    /**
+     * @param searchPool  runs the chunks of a cross-advisor search
+     * @param parallelism maximum number of chunks per search
+     */
+    public CalendarRegistry(ExecutorService searchPool, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("parallelism must be positive");
+        this.searchPool  = searchPool;
+        this.parallelism = parallelism;
+    }
+
+    /* ────────────────  Registration  ──────────────── */
+
+    /**
+     * Add {@code advisor}'s calendar and {@link Calendar#init() initialise} it.
+     *
+     * @param journal the calendar's journal, closed by {@link #close()}; may be {@code null}
+     */
+    public void register(String advisor, Calendar calendar, BookingJournal journal) {
+        calendar.init();
+        if (calendars.putIfAbsent(advisor, new Entry(calendar, journal)) != null) {
+            throw new IllegalArgumentException("advisor already registered: " + advisor);
+        }
+    }
+
+    /** The advisor's calendar, or {@code null} if there is none. */
+    public Calendar calendar(String advisor) {
+        Entry e = calendars.get(advisor);
+        return e == null ? null : e.calendar();
+    }
+
+    /** The advisor's journal, or {@code null} if there is none (or no such advisor). */
+    public BookingJournal journal(String advisor) {
+        Entry e = calendars.get(advisor);
+        return e == null ? null : e.journal();
+    }
+
+    /** Registered advisor ids in order. */
+    public List<String> advisors() {
+        return List.copyOf(calendars.keySet());
+    }
+
+    /* ────────────────  Maintenance  ──────────────── */
+
+    /** {@link Calendar#rollover()} every calendar. */
+    public void rollover() {
+        for (Entry e : calendars.values()) e.calendar().rollover();
+    }
+
+    /** {@link Calendar#writeSnapshot()} every calendar that changed. */
+    public void writeSnapshots() {
+        for (Entry e : calendars.values()) e.calendar().writeSnapshot();
+    }
+
+    /** Close every registered journal; the first failure is rethrown after trying all. */
+    @Override
+    public void close() throws IOException {
+        IOException first = null;
+        for (Entry e : calendars.values()) {
+            if (e.journal() == null) continue;
+            try {
+                e.journal().close();
+            } catch (IOException ex) {
+                if (first == null) first = ex;
+                else first.addSuppressed(ex);
+            }
+        }
+        if (first != null) throw first;
+    }
+
+    /* ────────────────  Search  ──────────────── */
+
+    /**
+     * The {@code count} free slots on {@code desiredDate} closest to
+     * {@code desiredTime} across {@code advisors} ({@code null} or empty = all).
+     *
+     * @throws IllegalArgumentException if an advisor is unknown
+     */
+    public List<AdvisorSlot> getClosestAvailable(Collection<String> advisors, LocalDate desiredDate,
+                                                 LocalTime desiredTime, int count) {
+        return search(advisors, desiredDate, desiredTime, count,
+                c -> c.getClosestAvailable(desiredDate, desiredTime, count));
+    }
+
+    /**
+     * Cross-day variant: see {@link Calendar#getClosestAvailable(LocalDate, LocalDate, LocalDate, LocalTime, int)}.
+     *
+     * @throws IllegalArgumentException if an advisor is unknown
+     */
+    public List<AdvisorSlot> getClosestAvailable(Collection<String> advisors, LocalDate from, LocalDate to,
+                                                 LocalDate desiredDate, LocalTime desiredTime, int count) {
+        return search(advisors, desiredDate, desiredTime, count,
+                c -> c.getClosestAvailable(from, to, desiredDate, desiredTime, count));
+    }
+
+    /**
+     * {@link #getClosestAvailable(Collection, LocalDate, LocalTime, int)} for
+     * appointments of {@code length}: see {@link Calendar#getClosestAvailable(LocalDate, LocalTime, Duration, int)}.
+     *
+     * @throws IllegalArgumentException if an advisor is unknown or {@code length} does not fit its grid
+     */
+    public List<AdvisorSlot> getClosestAvailable(Collection<String> advisors, LocalDate desiredDate,
+                                                 LocalTime desiredTime, Duration length, int count) {
+        return search(advisors, desiredDate, desiredTime, count,
+                c -> c.getClosestAvailable(desiredDate, desiredTime, length, count));
+    }
+
+    /**
+     * Cross-day search for appointments of {@code length}.
+     *
+     * @throws IllegalArgumentException if an advisor is unknown or {@code length} does not fit its grid
+     */
+    public List<AdvisorSlot> getClosestAvailable(Collection<String> advisors, LocalDate from, LocalDate to,
+                                                 LocalDate desiredDate, LocalTime desiredTime, Duration length,
+                                                 int count) {
+        return search(advisors, desiredDate, desiredTime, count,
+                c -> c.getClosestAvailable(from, to, desiredDate, desiredTime, length, count));
+    }
+
+    private List<AdvisorSlot> search(Collection<String> advisors, LocalDate desiredDate, LocalTime desiredTime,
+                                     int count, Function<Calendar, List<Event>> perCalendar) {
+        List<String> ids = advisors == null || advisors.isEmpty()
+                ? advisors()
+                : new ArrayList<>(new TreeSet<>(advisors));
+        for (String id : ids) {
+            if (!calendars.containsKey(id)) throw new IllegalArgumentException("unknown advisor: " + id);
+        }
+        if (ids.isEmpty()) return List.of();
+
+        // one ordered result list per advisor, searched in up to `parallelism` chunks
+        List<List<AdvisorSlot>> perAdvisor = new ArrayList<>(ids.size());
+        int chunks = Math.min(ids.size(), parallelism);
+        if (chunks == 1) {
+            perAdvisor.addAll(searchChunk(ids, perCalendar));
+        } else {
+            List<Future<List<List<AdvisorSlot>>>> futures = new ArrayList<>(chunks);
+            int size = (ids.size() + chunks - 1) / chunks;
+            for (int i = 0; i < ids.size(); i += size) {
+                List<String> chunk = ids.subList(i, Math.min(ids.size(), i + size));
+                futures.add(searchPool.submit(() -> searchChunk(chunk, perCalendar)));
+            }
+            for (Future<List<List<AdvisorSlot>>> f : futures) perAdvisor.addAll(await(f));
+        }
+        return merge(perAdvisor, epochSecond(desiredDate, desiredTime), Math.max(count, 1));
+    }
+
+    private List<List<AdvisorSlot>> searchChunk(List<String> ids, Function<Calendar, List<Event>> perCalendar) {
+        List<List<AdvisorSlot>> out = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            List<Event> free = perCalendar.apply(calendars.get(id).calendar());
+            List<AdvisorSlot> slots = new ArrayList<>(free.size());
+            for (Event ev : free) slots.add(new AdvisorSlot(id, ev.getDate(), ev.getStartTime(), ev.getEndTime()));
+            out.add(slots);
+        }
+        return out;
+    }
+
+    private static <T> T await(Future<T> f) {
+        try {
+            return f.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("search interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    /**
+     * k-way merge of per-advisor lists that are each ordered by distance from
+     * {@code desired}; ties go to the earlier slot, then the lower advisor id.
+     */
+    private static List<AdvisorSlot> merge(List<List<AdvisorSlot>> lists, long desired, int count) {
+        PriorityQueue<Head> heads = new PriorityQueue<>(Head.NEAREST_FIRST);
+
+        int total = 0;
+        for (int l = 0; l < lists.size(); l++) {
+            total += lists.get(l).size();
+            if (!lists.get(l).isEmpty()) heads.add(head(lists.get(l).getFirst(), desired, l, 0));
+        }
+        List<AdvisorSlot> out = new ArrayList<>(Math.min(count, total));
+        while (out.size() < count && !heads.isEmpty()) {
+            Head h = heads.poll();
+            List<AdvisorSlot> list = lists.get(h.list());
+            out.add(list.get(h.pos()));
+            if (h.pos() + 1 < list.size()) heads.add(head(list.get(h.pos() + 1), desired, h.list(), h.pos() + 1));
+        }
+        return out;
+    }
+
+    /** Current element {@code pos} of merge input {@code list}. */
+    private record Head(long distance, long at, String advisor, int list, int pos) {
+
+        static final Comparator<Head> NEAREST_FIRST = Comparator.comparingLong(Head::distance)
+                .thenComparingLong(Head::at).thenComparing(Head::advisor);
+    }
+
+    private static Head head(AdvisorSlot s, long desired, int list, int pos) {
+        long at = epochSecond(s.date(), s.startTime());
+        return new Head(Math.abs(at - desired), at, s.advisor(), list, pos);
+    }
+
+    private static long epochSecond(LocalDate date, LocalTime time) {
+        return date.toEpochDay() * 86_400L + time.toSecondOfDay();
+    }
+}
@@ -0,0 +1,51 @@
+package com.demoscheduler.demoscheduler;
+
+/**
+ * Renders a {@link CalendarSnapshot} as the console table formerly printed
+ * by {@code Calendar.showCalendar()}.  Pure string building, no I/O.
+ */
+final class CalendarRenderer {
+
+    private static final String RESET = "\u001B[0m",
+            RED   = "\u001B[31m",
+            GREEN = "\u001B[32m",
+            BOLD  = "\u001B[1m";
+
+    private static final String FMT  = "| %-10s | %-13s | %-8s | %-10s | %-8s | %-20s |%n";
+    private static final String LINE = "+------------+-----------------+----------+------------+----------+----------------------+";
+
+    private CalendarRenderer() { }
+
+    /** @param ansi colour/bold escapes for terminals; off for HTTP responses and log files */
+    static String render(CalendarSnapshot snapshot, boolean ansi) {
+        StringBuilder out = new StringBuilder(128 * (snapshot.slots().size() + 5));
+
+        out.append(LINE).append(System.lineSeparator());
+        out.append(ansi ? BOLD : "")
+                .append(String.format("| Date       | Time Slot       | Booked   | Client     | Advisor  | Description          |%n"))
+                .append(ansi ? RESET : "");
+        out.append(LINE).append(System.lineSeparator());
+
+        for (Event ev : snapshot.slots()) {
+            String slot   = ev.getStartTime() + " - " + ev.getEndTime();
+            String status = ev.isBooked()
+                    ? (ansi ? RED   + "Yes" + RESET : "Yes")
+                    : (ansi ? GREEN + "No"  + RESET : "No");
+
+            out.append(String.format(FMT,
+                    ev.getDate(),
+                    slot,
+                    status,
+                    ev.getClient().strip(),
+                    ev.getAdvisor().strip(),
+                    ev.getDescription().strip()
+            ));
+        }
+        out.append(LINE).append(System.lineSeparator());
+        if (!snapshot.consistent()) {
+            out.append("(snapshot taken under concurrent writes; consistent per slot only)")
+                    .append(System.lineSeparator());
+        }
+        return out.toString();
+    }
+}
@@ -0,0 +1,29 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Point-in-time copy of a {@link Calendar}.
+ *
+ * @param version       calendar version the copy was taken at
+ * @param consistent    {@code false} if writes kept overlapping the copy and it
+ *                      is only consistent per slot
+ * @param firstDate     first day of the window
+ * @param days          number of days in the window
+ * @param journalOffset journal position read before the copy started; replaying
+ *                      the journal from here onto the copy reproduces the calendar
+ *                      (0 without a journal)
+ * @param slots         detached slot copies in date/time order
+ */
+public record CalendarSnapshot(long version,
+                               boolean consistent,
+                               LocalDate firstDate,
+                               int days,
+                               long journalOffset,
+                               List<Event> slots) {
+
+    public int slotsPerDay() {
+        return days == 0 ? 0 : slots.size() / days;
+    }
+}
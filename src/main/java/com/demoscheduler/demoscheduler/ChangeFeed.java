@@ -0,0 +1,89 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * In-process log of slot changes across calendars: a fixed-size ring of
+ * sequence-numbered {@link Change}s, the newest overwriting the oldest.
+ * <p>
+ * Publishing is one {@code getAndIncrement} plus one array store, so
+ * writers never wait for readers.  Readers keep their own cursor (the last
+ * sequence number they saw) and poll with {@link #read}; a reader that falls
+ * more than {@code capacity} changes behind has lost some and must resync.
+ * <p>
+ * Sequence numbers start at 1 and restart with the process; {@link #epoch()}
+ * tells runs apart.
+ */
+public final class ChangeFeed {
+
+    /** The slot of calendar {@code calendar} starting at {@code date startTime} changed. */
+    public record Change(long seq, String calendar, LocalDate date, LocalTime startTime) { }
+
+    private final AtomicReferenceArray<Change> ring;
+    private final int                          mask;
+    private final AtomicLong                   next = new AtomicLong(1);
+    private final long                         epoch;
+
+    /** @param capacity changes retained, a power of two */
+    public ChangeFeed(int capacity) {
+        if (capacity < 1 || Integer.bitCount(capacity) != 1) {
+            throw new IllegalArgumentException("capacity must be a power of two: " + capacity);
+        }
+        this.ring  = new AtomicReferenceArray<>(capacity);
+        this.mask  = capacity - 1;
+        this.epoch = System.currentTimeMillis();
+    }
+
+    /** Publishes the changes of calendar {@code calendar} into this feed. */
+    public Calendar.ChangeListener listener(String calendar) {
+        return (date, startTime) -> publish(calendar, date, startTime);
+    }
+
+    /** Append a change; never blocks. */
+    void publish(String calendar, LocalDate date, LocalTime startTime) {
+        long seq = next.getAndIncrement();
+        ring.set((int) seq & mask, new Change(seq, calendar, date, startTime));
+    }
+
+    /** Sequence number of the newest change, 0 before the first. */
+    public long head() {
+        return next.get() - 1;
+    }
+
+    /** Identifies this feed's run of sequence numbers. */
+    public long epoch() {
+        return epoch;
+    }
+
+    public int capacity() {
+        return mask + 1;
+    }
+
+    /**
+     * Append the changes after {@code after} to {@code out}, oldest first,
+     * at most {@code max} of them.  Stops early at a change that is numbered
+     * but not yet stored, so nothing is ever skipped.
+     *
+     * @return the sequence number of the last change read ({@code after} if
+     *         none), or {@code -1} if some changes after {@code after} were
+     *         already overwritten
+     */
+    public long read(long after, int max, List<Change> out) {
+        long head = head();
+        if (after > head || head - after > capacity()) return -1;
+
+        long seq = after;
+        for (int n = 0; n < max && seq < head; n++) {
+            Change c = ring.get((int) (seq + 1) & mask);
+            if (c == null || c.seq() <= seq) break;  // being published
+            if (c.seq() > seq + 1) return -1;         // lapped while reading
+            out.add(c);
+            seq++;
+        }
+        return seq;
+    }
+}
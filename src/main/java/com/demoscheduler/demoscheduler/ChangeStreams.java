@@ -0,0 +1,205 @@
+package com.demoscheduler.demoscheduler;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Serves a {@link ChangeFeed} as Server-Sent Events.  Each subscriber gets
+ * its own thread that follows the feed with a private cursor, so a slow
+ * client only ever holds up itself, and bookings never wait for anyone.
+ * <p>
+ * Events:
+ * <ul>
+ *   <li>{@code slot} — a slot changed; data is a {@link SlotChange} with
+ *       the slot's state as of sending, not as of the change.  Changes a
+ *       subscriber is behind on are coalesced: one event per slot, for its
+ *       latest change.</li>
+ *   <li>{@code reset} — the subscriber's view can no longer be patched: it
+ *       is new, resumed from an unknown or another run's id, or fell so far
+ *       behind that the feed overwrote changes it had not seen.  Refetch the
+ *       slots, then apply the events that follow.</li>
+ * </ul>
+ * Event ids are {@code <epoch>-<seq>}; a reconnecting client sends the last
+ * one back as {@code Last-Event-ID} and continues where it left off.
+ */
+public final class ChangeStreams implements Closeable {
+
+    /**
+     * Payload of a {@code slot} event; {@code advisor} is the calendar,
+     * {@code sales} for the main one.  The slot is free unless booked or held.
+     */
+    public record SlotChange(long seq, String advisor, LocalDate date, LocalTime startTime,
+                             LocalTime endTime, boolean booked, boolean held) { }
+
+    /** Changes read, and coalesced, per pass. */
+    static final int BATCH = 1024;
+
+    private final ChangeFeed                   feed;
+    private final Function<String, Calendar>   calendars;
+    private final ThreadFactory                threads;
+    private final int                          maxSubscribers;
+    private final long                         timeoutMillis;
+    private final long                         pollNanos;
+    private final long                         heartbeatNanos;
+    private final Set<Subscriber>              subscribers = ConcurrentHashMap.newKeySet();
+    private volatile boolean                   closed;
+
+    /**
+     * @param calendars      calendar by feed name, {@code null} once unknown
+     * @param timeout        connection lifetime; clients reconnect and resume after it
+     * @param poll           how long an idle subscriber waits before looking at the feed again
+     * @param heartbeat      comment sent on an idle connection so dead clients are noticed
+     */
+    public ChangeStreams(ChangeFeed feed, Function<String, Calendar> calendars, ThreadFactory threads,
+                         int maxSubscribers, Duration timeout, Duration poll, Duration heartbeat) {
+        this.feed           = feed;
+        this.calendars      = calendars;
+        this.threads        = threads;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis  = timeout.toMillis();
+        this.pollNanos      = poll.toNanos();
+        this.heartbeatNanos = heartbeat.toNanos();
+    }
+
+    /**
+     * Subscribe, resuming after event id {@code lastEventId} if it is from
+     * this run of the feed and still retained.
+     *
+     * @return the emitter, or {@code null} if there are too many subscribers
+     */
+    public SseEmitter open(String lastEventId) {
+        if (closed || subscribers.size() >= maxSubscribers) return null;
+        Subscriber s = new Subscriber(new SseEmitter(timeoutMillis), cursor(lastEventId));
+        subscribers.add(s);
+        s.emitter.onCompletion(s::stop);
+        s.emitter.onTimeout(s::stop);
+        s.emitter.onError(e -> s.stop());
+        s.thread = threads.newThread(() -> run(s));
+        s.thread.start();
+        return s.emitter;
+    }
+
+    /** Number of open subscriptions. */
+    public int subscribers() {
+        return subscribers.size();
+    }
+
+    /** Sequence number to continue after, or {@code -1} to reset. */
+    private long cursor(String lastEventId) {
+        if (lastEventId == null) return -1;
+        int dash = lastEventId.indexOf('-');
+        try {
+            if (dash < 0 || Long.parseLong(lastEventId.substring(0, dash)) != feed.epoch()) return -1;
+            return Long.parseLong(lastEventId.substring(dash + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private void run(Subscriber s) {
+        List<ChangeFeed.Change> batch = new ArrayList<>(BATCH);
+        Map<SlotKey, ChangeFeed.Change> latest = new LinkedHashMap<>();
+        long cursor = s.cursor;
+        long lastSent = System.nanoTime();
+        try {
+            if (cursor < 0) cursor = reset(s);
+            while (!s.stopped && !closed) {
+                batch.clear();
+                long next = feed.read(cursor, BATCH, batch);
+                if (next < 0) {                          // overwritten before we got to it
+                    cursor = reset(s);
+                    lastSent = System.nanoTime();
+                    continue;
+                }
+                if (batch.isEmpty()) {
+                    if (System.nanoTime() - lastSent >= heartbeatNanos) {
+                        s.emitter.send(SseEmitter.event().comment("keep-alive"));
+                        lastSent = System.nanoTime();
+                    }
+                    LockSupport.parkNanos(pollNanos);
+                    continue;
+                }
+
+                latest.clear();
+                for (ChangeFeed.Change c : batch) {
+                    SlotKey key = new SlotKey(c.calendar(), c.date(), c.startTime());
+                    latest.remove(key);                  // re-insert: keep send order by latest change
+                    latest.put(key, c);
+                }
+                for (ChangeFeed.Change c : latest.values()) send(s, c);
+                cursor = next;
+                lastSent = System.nanoTime();
+            }
+        } catch (IOException | IllegalStateException e) {
+            // client went away or the emitter completed
+        } finally {
+            subscribers.remove(s);
+            s.emitter.complete();
+        }
+    }
+
+    private void send(Subscriber s, ChangeFeed.Change c) throws IOException {
+        Calendar calendar = calendars.apply(c.calendar());
+        Event slot = calendar == null ? null : calendar.getSlot(c.date(), c.startTime());
+        if (slot == null) return;                        // calendar gone or day rolled out of the window
+        s.emitter.send(SseEmitter.event()
+                .id(id(c.seq()))
+                .name("slot")
+                .data(new SlotChange(c.seq(), c.calendar(), slot.getDate(), slot.getStartTime(),
+                        slot.getEndTime(), slot.isBooked(), calendar.isHeld(c.date(), c.startTime())),
+                        MediaType.APPLICATION_JSON));
+    }
+
+    /** Tell the subscriber to resync and continue from the feed's head. */
+    private long reset(Subscriber s) throws IOException {
+        long head = feed.head();
+        s.emitter.send(SseEmitter.event().id(id(head)).name("reset").data(head));
+        return head;
+    }
+
+    private String id(long seq) {
+        return feed.epoch() + "-" + seq;
+    }
+
+    /** End every subscription. */
+    @Override
+    public void close() {
+        closed = true;
+        for (Subscriber s : subscribers) s.stop();
+    }
+
+    private record SlotKey(String calendar, LocalDate date, LocalTime startTime) { }
+
+    private static final class Subscriber {
+        final SseEmitter emitter;
+        final long       cursor;
+        volatile Thread  thread;
+        volatile boolean stopped;
+
+        Subscriber(SseEmitter emitter, long cursor) {
+            this.emitter = emitter;
+            this.cursor  = cursor;
+        }
+
+        void stop() {
+            stopped = true;
+            Thread t = thread;
+            if (t != null) LockSupport.unpark(t);
+        }
+    }
+}
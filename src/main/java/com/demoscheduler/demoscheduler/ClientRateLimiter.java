@@ -0,0 +1,89 @@
+package com.demoscheduler.demoscheduler;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Token bucket per client: {@code ratePerSecond} tokens a second, up to
+ * {@code burst} saved up.
+ * <p>
+ * Each bucket is a single {@link AtomicLong}, the time at which it would be
+ * full again (the generic cell rate algorithm): a request is admitted with
+ * one compare-and-set, and there is no refill task.  A full bucket carries
+ * no information, so buckets found full are swept out once the table holds
+ * {@code maxClients}; clients beyond that share one overflow bucket until
+ * room frees up, which bounds memory however many addresses show up.
+ */
+public final class ClientRateLimiter {
+
+    /** Bucket shared by clients that find the table full. */
+    static final String OVERFLOW = "";
+
+    /** Least time between sweeps, so a table full of busy clients is not rescanned per request. */
+    static final long SWEEP_NANOS = 1_000_000_000L;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private final long         interval;                // nanos per token
+    private final long         tolerance;               // how far ahead of now a bucket may run: burst - 1 tokens
+    private final int          maxClients;
+    private final LongSupplier nanoTime;
+    private final AtomicLong   nextSweep;
+
+    public ClientRateLimiter(double ratePerSecond, int burst, int maxClients) {
+        this(ratePerSecond, burst, maxClients, System::nanoTime);
+    }
+
+    /** @param nanoTime monotonic time source; tests drive it by hand */
+    ClientRateLimiter(double ratePerSecond, int burst, int maxClients, LongSupplier nanoTime) {
+        if (!(ratePerSecond > 0) || burst < 1 || maxClients < 1) {
+            throw new IllegalArgumentException("rate, burst and maxClients must be positive");
+        }
+        this.interval   = Math.max(1, (long) (1e9 / ratePerSecond));
+        this.tolerance  = (burst - 1) * interval;
+        this.maxClients = maxClients;
+        this.nanoTime   = nanoTime;
+        this.nextSweep  = new AtomicLong(nanoTime.getAsLong());
+    }
+
+    /**
+     * Take a token from {@code client}'s bucket.
+     *
+     * @return {@code 0} if admitted, otherwise the nanoseconds until the next token
+     */
+    public long tryAcquire(String client) {
+        long now = nanoTime.getAsLong();
+        AtomicLong bucket = buckets.get(client);
+        if (bucket == null) bucket = bucket(client, now);
+        for (;;) {
+            long full  = bucket.get();
+            long start = full - now > 0 ? full : now;    // a bucket in the past is simply full
+            if (start - now > tolerance) return start - now - tolerance;
+            if (bucket.compareAndSet(full, start + interval)) return 0;
+        }
+    }
+
+    /** Clients with a bucket. */
+    public int clients() {
+        return buckets.size();
+    }
+
+    private AtomicLong bucket(String client, long now) {
+        if (buckets.size() >= maxClients) {
+            sweep(now);
+            if (buckets.size() >= maxClients) client = OVERFLOW;
+        }
+        return buckets.computeIfAbsent(client, c -> new AtomicLong(now));
+    }
+
+    /**
+     * Drop full buckets.  A request racing the sweep may spend a token of a
+     * dropped bucket; its client then starts over with a full one, so at
+     * most one token too many.
+     */
+    private void sweep(long now) {
+        long next = nextSweep.get();
+        if (now - next < 0 || !nextSweep.compareAndSet(next, now + SWEEP_NANOS)) return;
+        buckets.values().removeIf(b -> b.get() - now <= 0);
+    }
+}
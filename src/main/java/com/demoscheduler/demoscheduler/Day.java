@@ -0,0 +1,407 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.IntConsumer;
+
+/**
+ * One business day of the rolling window, stored column-wise: slot
+ * {@code i} is just an index into parallel arrays, and {@link Event}s are
+ * only materialised on reads ({@link #event}).
+ * <ul>
+ *   <li>{@code state[i]} — {@code (generation << 32) | clientId}; client
+ *       {@link StringDictionary#NONE} = free, {@link #CLAIMED} = a booking or batch
+ *       is in progress, {@link #HELD} = reserved by a hold.  Every transition
+ *       bumps the generation, so a state word names one hold exactly.</li>
+ *   <li>{@code advisor[i]} / {@code description[i]} — the rest of the
+ *       booking, valid while {@code state[i]} holds a client.</li>
+ *   <li>{@code booked} — occupancy bitmap (bit {@code i} set ⇔ slot
+ *       {@code i} is booked), synced from {@code state} after each change,
+ *       so it may briefly lag; readers that care re-check the slot.</li>
+ *   <li>{@code bookedCount} / {@code bookedByHour} — population counts of
+ *       the bitmap, for the day and per hour of the day, adjusted by
+ *       whoever flips a bit.</li>
+ *   <li>{@code version} — bumped by the calendar after every change to the
+ *       day, so results computed from it can be reused until it moves.</li>
+ *   <li>{@code heads} — the JSON of each slot's times
+ *       ({@link SlotJson#heads}), shared with every other day of the
+ *       calendar and passed on in the slots' {@link Event}s.</li>
+ * </ul>
+ * Client and advisor names are dictionary-encoded ids; descriptions are
+ * free text and kept by reference.  A slot costs ~16 bytes instead of an
+ * object graph of an {@code Event}, its times and its booking.
+ */
+final class Day {
+
+    private static final int CLAIMED = -1;
+    private static final int HELD    = -2;
+
+    final LocalDate       date;
+    final AtomicLongArray booked;
+    final int             firstSecond;   // second of day of slot 0
+    final int             step;          // slot length in seconds
+
+    private final int                          slotCount;
+    private final StringDictionary             names;
+    private final AtomicLongArray              state;
+    private final AtomicIntegerArray           advisor;
+    private final AtomicReferenceArray<String> description;
+    private final AtomicLong                   version = new AtomicLong();
+    private final AtomicInteger                bookedCount = new AtomicInteger();
+    private final AtomicIntegerArray           bookedByHour;
+    private final byte[][]                     heads;
+
+    /** Builds {@code slotCount} free slots {@code start, start+step, …}. */
+    Day(LocalDate date, LocalTime start, int step, int slotCount, StringDictionary names) {
+        this(date, start, step, slotCount, names, SlotJson.heads(start, step, slotCount));
+    }
+
+    /** @param heads {@link SlotJson#heads} of the same grid, shared by the calendar's days */
+    Day(LocalDate date, LocalTime start, int step, int slotCount, StringDictionary names, byte[][] heads) {
+        this.date        = date;
+        this.firstSecond = start.toSecondOfDay();
+        this.step        = step;
+        this.slotCount   = slotCount;
+        this.names       = names;
+        this.booked      = new AtomicLongArray((slotCount + 63) >>> 6);
+        this.state       = new AtomicLongArray(slotCount);
+        this.advisor     = new AtomicIntegerArray(slotCount);
+        this.description = new AtomicReferenceArray<>(slotCount);
+        this.bookedByHour = new AtomicIntegerArray(hour(slotCount - 1) + 1);
+        this.heads       = heads;
+    }
+
+    int slotCount() {
+        return slotCount;
+    }
+
+    LocalTime startTime(int idx) {
+        return LocalTime.ofSecondOfDay(firstSecond + (long) idx * step);
+    }
+
+    /** Hour of slot {@code idx}'s start, counted from the hour of slot 0. */
+    int hour(int idx) {
+        return (firstSecond + idx * step) / 3600 - firstSecond / 3600;
+    }
+
+    /** Index of the slot starting at {@code t}, or -1 if {@code t} is off the grid. */
+    int slotIndex(LocalTime t) {
+        return slotIndex(t.toSecondOfDay());
+    }
+
+    /** Index of the slot starting at {@code secondOfDay}, or -1 if that is off the grid. */
+    int slotIndex(int secondOfDay) {
+        int offset = secondOfDay - firstSecond;
+        if (offset < 0 || offset % step != 0 || offset / step >= slotCount) return -1;
+        return offset / step;
+    }
+
+    /* ────────────────  State  ──────────────── */
+
+    private static int  client(long s)                 { return (int) s; }
+    private static long generation(long s)             { return s >>> 32; }
+    private static long pack(long generation, int cid) { return generation << 32 | (cid & 0xFFFF_FFFFL); }
+
+    /** Whether the slot is booked, from its state rather than the bitmap. */
+    boolean isTaken(int idx) {
+        return client(state.get(idx)) != StringDictionary.NONE;
+    }
+
+    /**
+     * Current booking, or {@code null} when free.  Reads the columns between
+     * two reads of the state word and retries if a write overlapped them, so
+     * the result is never a mix of two bookings.
+     */
+    Booking booking(int idx) {
+        for (;;) {
+            long s = state.get(idx);
+            int  c = client(s);
+            if (c == StringDictionary.NONE || c == HELD) return null;
+            if (c == CLAIMED) {                        // booker is writing the columns
+                Thread.onSpinWait();
+                continue;
+            }
+            int    a = advisor.get(idx);
+            String d = description.get(idx);
+            String client = names.name(c), adv = names.name(a);   // ids the slot still holds are never dropped
+            if (state.get(idx) == s) return new Booking(client, d, adv);
+        }
+    }
+
+    /**
+     * Copy the day's bookings for a snapshot: bit {@code i} of the words from
+     * {@code words[at]} on is set for each booked slot {@code i}, and its
+     * client, description and advisor are appended to {@code strings}, in
+     * slot order.  Each slot is read as by {@link #booking}, without
+     * building anything for it.
+     */
+    void copyBookings(long[] words, int at, List<String> strings) {
+        for (int i = 0; i < slotCount; i++) {
+            for (;;) {
+                long s = state.get(i);
+                int  c = client(s);
+                if (c == StringDictionary.NONE || c == HELD) break;
+                if (c == CLAIMED) {
+                    Thread.onSpinWait();
+                    continue;
+                }
+                int    a = advisor.get(i);
+                String d = description.get(i);
+                String client = names.name(c), adv = names.name(a);
+                if (state.get(i) == s) {
+                    words[at + (i >>> 6)] |= 1L << i;
+                    strings.add(client);
+                    strings.add(d == null ? "" : d);
+                    strings.add(adv == null ? "" : adv);
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Pass the client and advisor ids of every booked slot to {@code sink}. */
+    void forEachId(IntConsumer sink) {
+        for (int i = 0; i < slotCount; i++) {
+            int c = client(state.get(i));
+            if (c == StringDictionary.NONE || c == CLAIMED || c == HELD) continue;
+            sink.accept(c);
+            sink.accept(advisor.get(i));
+        }
+    }
+
+    /** Detached {@link Event} for slot {@code idx}, safe to hand to serializers. */
+    Event event(int idx) {
+        return new Event(date, startTime(idx), startTime(idx + 1), booking(idx), heads[idx]);
+    }
+
+    /** Free {@link Event} spanning slots {@code idx … idx+k-1}, or {@code null} unless all of them are free. */
+    Event freeRun(int idx, int k) {
+        if (!isRunFree(idx, k)) return null;
+        return new Event(date, startTime(idx), startTime(idx + k), null, k == 1 ? heads[idx] : null);
+    }
+
+    /** Whether slots {@code idx … idx+k-1} are all free, from their state. */
+    boolean isRunFree(int idx, int k) {
+        for (int i = idx; i < idx + k; i++) {
+            if (isTaken(i)) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Free → booked; exactly one concurrent caller wins.  The slot is
+     * claimed with one CAS, so losers never touch the dictionary; then the
+     * names are interned, the columns filled and the client published.
+     */
+    boolean tryBook(int idx, Booking b) {
+        if (!tryClaim(idx)) return false;
+        publish(idx, b);
+        return true;
+    }
+
+    /**
+     * Free → claimed: the slot reads as booked (readers of its booking wait)
+     * until the claimer {@link #publish publishes} or {@link #release releases} it.
+     */
+    boolean tryClaim(int idx) {
+        long s = state.get(idx);
+        return client(s) == StringDictionary.NONE
+                && state.compareAndSet(idx, s, pack(generation(s) + 1, CLAIMED));
+    }
+
+    /** Claimed → booked by {@code b}; only the claimer may call this. */
+    void publish(int idx, Booking b) {
+        long pin = names.pin();
+        try {
+            publish(idx, names.id(b.client()), names.id(b.advisor()), b.description());
+        } finally {
+            names.unpin(pin);
+        }
+    }
+
+    /** Claimed → free; only the claimer may call this. */
+    void release(int idx) {
+        state.set(idx, pack(generation(state.get(idx)) + 1, StringDictionary.NONE));
+    }
+
+    private void publish(int idx, int cid, int aid, String desc) {
+        advisor.set(idx, aid);
+        description.set(idx, desc);
+        state.set(idx, pack(generation(state.get(idx)) + 1, cid));
+    }
+
+    /**
+     * Free → held: taken for searches and bookings, but not a booking — it
+     * reads as free to {@link #booking} and is never journalled or snapshotted.
+     *
+     * @return the held state word, the hold's key for {@link #confirmHold}
+     *         and {@link #releaseHold}; 0 if the slot was not free
+     */
+    long tryHold(int idx) {
+        long s = state.get(idx);
+        if (client(s) != StringDictionary.NONE) return 0;
+        long held = pack(generation(s) + 1, HELD);
+        return state.compareAndSet(idx, s, held) ? held : 0;
+    }
+
+    boolean isHeld(int idx) {
+        return client(state.get(idx)) == HELD;
+    }
+
+    /** Held (still by {@code held}) → claimed; the caller then {@link #publish publishes} it. */
+    boolean confirmHold(int idx, long held) {
+        return state.compareAndSet(idx, held, pack(generation(held) + 1, CLAIMED));
+    }
+
+    /** Held (still by {@code held}) → free. */
+    boolean releaseHold(int idx, long held) {
+        return state.compareAndSet(idx, held, pack(generation(held) + 1, StringDictionary.NONE));
+    }
+
+    /** Booked-by-{@code client} → free; fails if free or booked by someone else. */
+    boolean tryCancel(int idx, String client) {
+        int cid = names.find(client);
+        if (cid == StringDictionary.NONE) return false;  // never booked anything
+        for (;;) {
+            long s = state.get(idx);
+            int  c = client(s);
+            if (c == CLAIMED) {
+                Thread.onSpinWait();
+                continue;
+            }
+            if (c != cid) return false;
+            if (state.compareAndSet(idx, s, pack(generation(s) + 1, StringDictionary.NONE))) return true;
+        }
+    }
+
+    /* ────────────────  Bitmap  ──────────────── */
+
+    boolean isBooked(int idx) {
+        return (booked.get(idx >>> 6) & (1L << idx)) != 0;
+    }
+
+    /**
+     * Bitmap of the slots that start {@code k} consecutive free slots, from
+     * the occupancy bitmap with word operations only: the free mask is
+     * ANDed with itself shifted by doubling distances, O(words · log k).
+     */
+    long[] runStarts(int k) {
+        long[] r = new long[booked.length()];
+        for (int w = 0; w < r.length; w++) r[w] = ~booked.get(w);
+        if ((slotCount & 63) != 0) r[r.length - 1] &= (1L << slotCount) - 1;   // no slots past the end
+
+        // invariant: bit i set ⇔ slots i … i+len-1 are all free
+        for (int len = 1; len < k; ) {
+            int shift = Math.min(len, k - len);
+            andShifted(r, shift);
+            len += shift;
+        }
+        return r;
+    }
+
+    /** {@code r &= r >>> s} over the whole multi-word bitmap (bit {@code i} meets bit {@code i+s}). */
+    private static void andShifted(long[] r, int s) {
+        int ws = s >>> 6, bs = s & 63;
+        for (int w = 0; w < r.length; w++) {                // ascending: only reads words not yet written
+            long lo = w + ws     < r.length ? r[w + ws]     : 0;
+            long hi = w + ws + 1 < r.length ? r[w + ws + 1] : 0;
+            r[w] &= bs == 0 ? lo : lo >>> bs | hi << (64 - bs);
+        }
+    }
+
+    /** Lowest set bit at or above {@code from}, or -1. */
+    static int nextSetBit(long[] bits, int from) {
+        int w = from >>> 6;
+        if (from < 0 || w >= bits.length) return -1;
+        long word = bits[w] & (-1L << from);
+        for (;;) {
+            if (word != 0) return (w << 6) + Long.numberOfTrailingZeros(word);
+            if (++w == bits.length) return -1;
+            word = bits[w];
+        }
+    }
+
+    /** Highest set bit at or below {@code from}, or -1. */
+    static int prevSetBit(long[] bits, int from) {
+        if (from < 0) return -1;
+        from = Math.min(from, (bits.length << 6) - 1);
+        int  w    = from >>> 6;
+        long word = bits[w] & (-1L >>> (63 - (from & 63)));
+        for (;;) {
+            if (word != 0) return (w << 6) + 63 - Long.numberOfLeadingZeros(word);
+            if (w-- == 0) return -1;
+            word = bits[w];
+        }
+    }
+
+    /** Grows with every {@link #touch}; 0 for a fresh day. */
+    long version() {
+        return version.get();
+    }
+
+    /** Record a change to the day; call after the change is visible. */
+    void touch() {
+        version.incrementAndGet();
+    }
+
+    /** Population count of the bitmap. */
+    int bookedCount() {
+        return bookedCount.get();
+    }
+
+    /** Population count of the bitmap over the slots starting in hour {@code h} (see {@link #hour}). */
+    int bookedCount(int h) {
+        return bookedByHour.get(h);
+    }
+
+    /**
+     * Copy slot {@code idx}'s state into its bitmap bit.  Re-reads the state
+     * after the write, so of two racing writers the later one always leaves
+     * the bit right.
+     */
+    void syncBit(int idx) {
+        boolean isBooked;
+        do {
+            isBooked = isTaken(idx);
+            setBit(idx, isBooked);
+        } while (isBooked != isTaken(idx));
+    }
+
+    /**
+     * Bring the index entries of slot {@code idx} for {@code clientId} and
+     * {@code advisorId} ({@link StringDictionary#NONE} to skip either) in line
+     * with the slot.  Like {@link #syncBit}, re-reads the state after the
+     * update, so whichever writer runs last leaves the entries right; call
+     * it after every change to the slot that involves those ids.
+     */
+    void syncIndex(int idx, int clientId, int advisorId, BookingIndex clients, BookingIndex advisors) {
+        long key = BookingIndex.key(date, firstSecond + idx * step);
+        for (;;) {
+            long    s      = state.get(idx);
+            int     c      = client(s);
+            int     a      = advisor.get(idx);
+            boolean booked = c != StringDictionary.NONE && c != CLAIMED && c != HELD;
+            if (clientId  != StringDictionary.NONE) clients.set(clientId, key, booked && c == clientId);
+            if (advisorId != StringDictionary.NONE) advisors.set(advisorId, key, booked && a == advisorId);
+            if (state.get(idx) == s) return;
+        }
+    }
+
+    /** Set or clear bit {@code idx}; the caller whose update flips it adjusts the counts. */
+    private void setBit(int idx, boolean value) {
+        long mask = 1L << idx;
+        long before = value
+                ? booked.getAndAccumulate(idx >>> 6,  mask, (w, m) -> w | m)
+                : booked.getAndAccumulate(idx >>> 6, ~mask, (w, m) -> w & m);
+        if (((before & mask) != 0) == value) return;
+        int delta = value ? 1 : -1;
+        bookedCount.addAndGet(delta);
+        bookedByHour.addAndGet(hour(idx), delta);
+    }
+}
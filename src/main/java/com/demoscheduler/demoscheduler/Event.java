@@ -1,36 +1,50 @@
 package com.demoscheduler.demoscheduler;
 
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+
 import java.time.LocalDate;
 import java.time.LocalTime;
 
+/**
+ * One appointment slot as handed out by the API: an immutable copy of the
+ * slot's times and booking at the moment it was read.  The calendar itself
+ * keeps slots in a compact column store (see {@link Day}) and creates
+ * {@code Event}s only for results.
+ * <p>
+ * The JSON property order is pinned: {@link SlotJson} writes the same.
+ */
+@JsonPropertyOrder({ "startTime", "endTime", "date", "booked", "advisor", "client", "description" })
 public class Event {
     private final LocalTime startTime;
     private final LocalTime endTime;
     private final LocalDate date;
-    private boolean booked;
-    private String client;
-    private String description;
-    private String advisor;
+    private final Booking   booking;    // null = free
+
+    /** Pre-encoded JSON of its times, shared by its calendar's days, or {@code null}; see {@link SlotJson#heads}. */
+    final byte[] head;
 
     public Event(LocalDate date, LocalTime startTime, LocalTime endTime,
                  String client, String description, String advisor) {
+        this(date, startTime, endTime,
+                client == null || client.isEmpty() ? null : new Booking(client, description, advisor));
+    }
+
+    Event(LocalDate date, LocalTime startTime, LocalTime endTime, Booking booking) {
+        this(date, startTime, endTime, booking, null);
+    }
+
+    Event(LocalDate date, LocalTime startTime, LocalTime endTime, Booking booking, byte[] head) {
         this.date = date;
         this.startTime = startTime;
         this.endTime = endTime;
-        this.client = client == null ? "" : client;
-        this.description = description == null ? "" : description;
-        this.advisor = advisor == null ? "" : advisor;
-        this.booked = !this.client.isEmpty(); // safe
+        this.booking = booking;
+        this.head = head;
     }
 
     public LocalDate getDate() {         // NEW
         return date;
     }
 
-    public void setBooked(boolean booked) {
-        this.booked = booked;
-    }
-
     public LocalTime getStartTime() {
         return startTime;
     }
@@ -40,34 +54,18 @@ public class Event {
     }
 
     public boolean isBooked() {
-        return booked;
-    }
-
-    public void book() {
-        this.booked = true;
+        return booking != null;
     }
 
     public String getClient() {
-        return client;
-    }
-
-    public void setClient(String client) {
-        this.client = client;
+        return booking == null ? "" : booking.client();
     }
 
     public String getDescription() {
-        return description;
-    }
-
-    public void setDescription(String description) {
-        this.description = description;
+        return booking == null ? "" : booking.description();
     }
 
     public String getAdvisor() {
-        return advisor;
-    }
-
-    public void setAdvisor(String advisor) {
-        this.advisor = advisor;
+        return booking == null ? "" : booking.advisor();
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,124 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Outcomes of write requests by idempotency key, so a retried request gets
+ * the original answer instead of running again.
+ * <p>
+ * The first request with a key claims it with one {@code putIfAbsent} and
+ * runs; duplicates that arrive while it runs wait for its outcome (up to a
+ * limit), later ones get it at once.  A request that fails with an exception
+ * gives the key up again.  Every entry carries a fingerprint of its request:
+ * reusing a key for a different request is refused rather than answered
+ * with someone else's outcome.
+ * <p>
+ * Entries live for {@code ttl}; at most {@code maxEntries} are kept, oldest
+ * evicted first.  All entries share one ttl, so insertion order is expiry
+ * order and eviction just pops a FIFO queue — no scans.
+ */
+public final class IdempotencyCache {
+
+    /** What the original request answered. */
+    public record Outcome(int status, String body) { }
+
+    public enum Status {
+        /** First request with its key: the action ran. */
+        EXECUTED,
+        /** A retry: the original outcome, the action did not run. */
+        REPLAYED,
+        /** The key was used for a request with another fingerprint. */
+        KEY_REUSED,
+        /** The original request is still running; try again later. */
+        IN_PROGRESS
+    }
+
+    /** {@code outcome} is {@code null} for {@link Status#KEY_REUSED} and {@link Status#IN_PROGRESS}. */
+    public record Result(Status status, Outcome outcome) { }
+
+    private record Entry(String fingerprint, CompletableFuture<Outcome> outcome, long expiresAt) { }
+
+    private final ConcurrentHashMap<String, Entry>              entries = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Map.Entry<String, Entry>> order = new ConcurrentLinkedQueue<>();
+    private final Clock clock;
+    private final int   maxEntries;
+    private final long  ttlMillis;
+    private final long  waitMillis;
+
+    /**
+     * @param ttl  how long outcomes are kept
+     * @param wait how long a duplicate waits for a request that is still running
+     */
+    public IdempotencyCache(Clock clock, int maxEntries, Duration ttl, Duration wait) {
+        if (maxEntries < 1) throw new IllegalArgumentException("maxEntries must be positive");
+        this.clock      = clock;
+        this.maxEntries = maxEntries;
+        this.ttlMillis  = ttl.toMillis();
+        this.waitMillis = wait.toMillis();
+    }
+
+    /**
+     * Run {@code action} unless a request with {@code key} already did.
+     *
+     * @param fingerprint identifies the request; a retry must send the same one
+     */
+    public Result execute(String key, String fingerprint, Supplier<Outcome> action) {
+        long now = clock.millis();
+        evict(now);
+
+        Entry mine = new Entry(fingerprint, new CompletableFuture<>(), now + ttlMillis);
+        for (;;) {
+            Entry e = entries.putIfAbsent(key, mine);
+            if (e == null) break;
+            if (e.expiresAt() <= now) {                  // expired, not evicted yet
+                entries.remove(key, e);
+                continue;
+            }
+            if (!e.fingerprint().equals(fingerprint)) return new Result(Status.KEY_REUSED, null);
+            try {
+                return new Result(Status.REPLAYED, e.outcome().get(waitMillis, TimeUnit.MILLISECONDS));
+            } catch (ExecutionException ex) {            // the original failed and gave the key up
+                continue;
+            } catch (TimeoutException ex) {
+                return new Result(Status.IN_PROGRESS, null);
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                return new Result(Status.IN_PROGRESS, null);
+            }
+        }
+        order.add(Map.entry(key, mine));
+
+        Outcome outcome;
+        try {
+            outcome = action.get();
+        } catch (RuntimeException | Error ex) {
+            entries.remove(key, mine);                   // before waiters wake, so they can claim it
+            mine.outcome().completeExceptionally(ex);
+            throw ex;
+        }
+        mine.outcome().complete(outcome);
+        return new Result(Status.EXECUTED, outcome);
+    }
+
+    /** Number of keys held. */
+    public int size() {
+        return entries.size();
+    }
+
+    /** Drop expired entries, then the oldest while over capacity. */
+    private void evict(long now) {
+        for (Map.Entry<String, Entry> head; (head = order.peek()) != null; ) {
+            if (head.getValue().expiresAt() > now && entries.size() <= maxEntries) return;
+            if (order.remove(head)) entries.remove(head.getKey(), head.getValue());
+        }
+    }
+}
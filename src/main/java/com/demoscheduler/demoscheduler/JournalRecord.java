@@ -0,0 +1,163 @@
+package com.demoscheduler.demoscheduler;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * One booking-state change as it is written to the {@link BookingJournal}.
+ * <p>
+ * Frame layout (big-endian):
+ * <pre>
+ *   int   payload length
+ *   int   CRC32C of payload
+ *   byte  type            (1 = BOOK, 2 = CANCEL, 3 = BOOK_BATCH)
+ *   int   date            (epoch day)
+ *   int   start time      (second of day)
+ *   str   client
+ *   str   description     (BOOK and BOOK_BATCH only)
+ *   str   advisor         (BOOK and BOOK_BATCH only)
+ *   int   slot count      (BOOK_BATCH only) …
+ *   (int epoch day, int second of day) × count
+ * </pre>
+ * where {@code str} is an unsigned-short byte length followed by UTF-8.
+ * A batch is one frame, so a torn tail drops all of it or none.
+ */
+record JournalRecord(Type type,
+                     LocalDate date,
+                     LocalTime startTime,
+                     String client,
+                     String description,
+                     String advisor,
+                     List<LocalDateTime> batch) {
+
+    enum Type {
+        BOOK(1), CANCEL(2), BOOK_BATCH(3);
+
+        final byte code;
+
+        Type(int code) { this.code = (byte) code; }
+
+        static Type of(byte code) {
+            for (Type t : values()) if (t.code == code) return t;
+            throw new IllegalArgumentException("unknown journal record type " + code);
+        }
+    }
+
+    static final int HEADER_BYTES   = 8;
+    static final int MAX_STRING     = 0xFFFF;
+    /** Largest payload a frame may carry; a length beyond it can only be corruption. */
+    static final int MAX_PAYLOAD    = 16 * 1024 * 1024;
+
+    static JournalRecord book(LocalDate date, LocalTime start, Booking b) {
+        return new JournalRecord(Type.BOOK, date, start, b.client(), b.description(), b.advisor(), List.of());
+    }
+
+    static JournalRecord cancel(LocalDate date, LocalTime start, String client) {
+        return new JournalRecord(Type.CANCEL, date, start, client, "", "", List.of());
+    }
+
+    /** All-or-nothing booking of {@code slots} (at least one); date and start time are the first slot's. */
+    static JournalRecord bookBatch(List<LocalDateTime> slots, Booking b) {
+        LocalDateTime first = slots.getFirst();
+        return new JournalRecord(Type.BOOK_BATCH, first.toLocalDate(), first.toLocalTime(),
+                b.client(), b.description(), b.advisor(), List.copyOf(slots));
+    }
+
+    /**
+     * Encode into a complete frame (header + payload).
+     *
+     * @throws IllegalArgumentException if a string exceeds {@value #MAX_STRING} UTF-8 bytes,
+     *                                  or the payload {@value #MAX_PAYLOAD} bytes
+     */
+    byte[] encodeFrame() {
+        byte[] c = utf8(client);
+        byte[] d = type != Type.CANCEL ? utf8(description) : null;
+        byte[] a = type != Type.CANCEL ? utf8(advisor)     : null;
+
+        long size = 1 + 4 + 4 + 2 + c.length + (d == null ? 0 : 2 + d.length + 2 + a.length)
+                + (type == Type.BOOK_BATCH ? 4 + 8L * batch.size() : 0);
+        if (size > MAX_PAYLOAD) {
+            throw new IllegalArgumentException("journal record of " + size + " bytes, max " + MAX_PAYLOAD);
+        }
+        int payload = (int) size;
+        ByteBuffer buf = ByteBuffer.allocate(HEADER_BYTES + payload);
+        buf.putInt(payload).putInt(0);                   // CRC patched below
+        buf.put(type.code)
+                .putInt((int) date.toEpochDay())
+                .putInt(startTime.toSecondOfDay());
+        putString(buf, c);
+        if (d != null) {
+            putString(buf, d);
+            putString(buf, a);
+        }
+        if (type == Type.BOOK_BATCH) {
+            buf.putInt(batch.size());
+            for (LocalDateTime t : batch) {
+                buf.putInt((int) t.toLocalDate().toEpochDay()).putInt(t.toLocalTime().toSecondOfDay());
+            }
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), HEADER_BYTES, payload);
+        buf.putInt(4, (int) crc.getValue());
+        return buf.array();
+    }
+
+    /**
+     * Decode the payload of one frame whose header was already consumed.
+     *
+     * @return the record, or {@code null} if the payload fails its checksum
+     */
+    static JournalRecord decodePayload(ByteBuffer payload, int expectedCrc) {
+        CRC32C crc = new CRC32C();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != expectedCrc) return null;
+
+        try {
+            Type      type  = Type.of(payload.get());
+            LocalDate date  = LocalDate.ofEpochDay(payload.getInt());
+            LocalTime start = LocalTime.ofSecondOfDay(payload.getInt());
+            String    client = getString(payload);
+            if (type == Type.CANCEL) return cancel(date, start, client);
+            String description = getString(payload);
+            String advisor     = getString(payload);
+            if (type == Type.BOOK) return new JournalRecord(type, date, start, client, description, advisor, List.of());
+
+            int n = payload.getInt();
+            if (n < 1 || n > payload.remaining() / 8) return null;
+            List<LocalDateTime> slots = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                slots.add(LocalDate.ofEpochDay(payload.getInt()).atTime(LocalTime.ofSecondOfDay(payload.getInt())));
+            }
+            return bookBatch(slots, new Booking(client, description, advisor));
+        } catch (BufferUnderflowException | IllegalArgumentException | DateTimeException e) {
+            return null;
+        }
+    }
+
+    private static byte[] utf8(String s) {
+        byte[] b = (s == null ? "" : s).getBytes(StandardCharsets.UTF_8);
+        if (b.length > MAX_STRING) {
+            throw new IllegalArgumentException("journal string longer than " + MAX_STRING + " bytes");
+        }
+        return b;
+    }
+
+    private static void putString(ByteBuffer buf, byte[] b) {
+        buf.putShort((short) b.length).put(b);
+    }
+
+    private static String getString(ByteBuffer buf) {
+        byte[] b = new byte[Short.toUnsignedInt(buf.getShort())];
+        buf.get(b);
+        return new String(b, StandardCharsets.UTF_8);
+    }
+}
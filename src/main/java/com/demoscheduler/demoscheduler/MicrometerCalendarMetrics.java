@@ -0,0 +1,97 @@
+package com.demoscheduler.demoscheduler;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.Locale;
+
+/**
+ * {@link CalendarMetrics} backed by Micrometer.  All meters are registered
+ * up front; the callbacks only index into arrays and increment.
+ * <ul>
+ *   <li>{@code scheduler.bookings{outcome}} — booked / already_booked / not_found / invalid</li>
+ *   <li>{@code scheduler.booked.slots} — slots taken by successful bookings</li>
+ *   <li>{@code scheduler.cancellations{outcome}} — cancelled / client_mismatch / not_booked / not_found / invalid</li>
+ *   <li>{@code scheduler.search.slots.scanned} — slots examined per closest-slot search</li>
+ *   <li>{@code scheduler.slots.booked|free{day}} — gauges per day of the window (see {@link #bindGauges})</li>
+ * </ul>
+ * Every meter carries a {@code calendar} tag.
+ */
+public final class MicrometerCalendarMetrics implements CalendarMetrics {
+
+    private final Counter[] bookings      = new Counter[BookOutcome.values().length];
+    private final Counter[] cancellations = new Counter[CancelOutcome.values().length];
+    private final Counter   bookedSlots;
+    private final DistributionSummary scanned;
+
+    public MicrometerCalendarMetrics(MeterRegistry registry, String calendar) {
+        for (BookOutcome o : BookOutcome.values()) {
+            bookings[o.ordinal()] = Counter.builder("scheduler.bookings")
+                    .description("Booking attempts by outcome")
+                    .tag("calendar", calendar)
+                    .tag("outcome", o.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        bookedSlots = Counter.builder("scheduler.booked.slots")
+                .description("Slots taken by successful bookings")
+                .baseUnit("slots")
+                .tag("calendar", calendar)
+                .register(registry);
+        for (CancelOutcome o : CancelOutcome.values()) {
+            cancellations[o.ordinal()] = Counter.builder("scheduler.cancellations")
+                    .description("Cancellation attempts by outcome")
+                    .tag("calendar", calendar)
+                    .tag("outcome", o.name().toLowerCase(Locale.ROOT))
+                    .register(registry);
+        }
+        scanned = DistributionSummary.builder("scheduler.search.slots.scanned")
+                .description("Slots examined per closest-slot search")
+                .baseUnit("slots")
+                .tag("calendar", calendar)
+                .serviceLevelObjectives(1, 2, 4, 8, 16, 32, 64, 128)
+                .register(registry);
+    }
+
+    @Override
+    public void searched(int slotsScanned, int found) {
+        scanned.record(slotsScanned);
+    }
+
+    @Override
+    public void book(BookOutcome outcome) {
+        bookings[outcome.ordinal()].increment();
+    }
+
+    @Override
+    public void slotsBooked(int slots) {
+        bookedSlots.increment(slots);
+    }
+
+    @Override
+    public void cancel(CancelOutcome outcome) {
+        cancellations[outcome.ordinal()].increment();
+    }
+
+    /**
+     * Register booked/free gauges for every day of {@code calendar}'s window,
+     * tagged {@code day="+0"} (today) … {@code "+N"}.  They read the occupancy
+     * bitmaps only when scraped.
+     */
+    public static void bindGauges(MeterRegistry registry, Calendar calendar, String name) {
+        for (int d = 0; d < calendar.horizonDays(); d++) {
+            int offset = d;
+            Gauge.builder("scheduler.slots.booked", calendar, c -> c.bookedSlots(offset))
+                    .description("Booked slots per day of the window")
+                    .tag("calendar", name)
+                    .tag("day", "+" + offset)
+                    .register(registry);
+            Gauge.builder("scheduler.slots.free", calendar, c -> c.slotsPerDay() - c.bookedSlots(offset))
+                    .description("Free slots per day of the window")
+                    .tag("calendar", name)
+                    .tag("day", "+" + offset)
+                    .register(registry);
+        }
+    }
+}
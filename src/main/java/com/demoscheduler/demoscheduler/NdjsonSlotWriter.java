@@ -0,0 +1,78 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Writes free slots as newline-delimited JSON, one object per line:
+ * <pre>
+ *   {"advisor":"sales","date":"2025-03-10","startTime":"09:00:00","endTime":"09:15:00"}
+ * </pre>
+ * (same date/time formats as the JSON endpoints).  Lines go through a
+ * fixed-size buffer; the first line is flushed at once so the client sees
+ * bytes immediately, later ones whenever the buffer fills or
+ * {@code flushIntervalNanos} passed since the last flush.
+ */
+final class NdjsonSlotWriter implements Closeable {
+
+    static final int BUFFER_BYTES = 16 * 1024;
+
+    private final Writer out;
+    private final long   flushIntervalNanos;
+    private long         lastFlush;
+    private long         lines;
+
+    NdjsonSlotWriter(OutputStream out, long flushIntervalNanos) {
+        this.out = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_BYTES);
+        this.flushIntervalNanos = flushIntervalNanos;
+    }
+
+    /** Append one slot; {@code advisor} is written as a JSON string. */
+    void write(String advisor, LocalDate date, LocalTime start, LocalTime end) throws IOException {
+        out.write("{\"advisor\":");
+        writeString(advisor);
+        out.write(",\"date\":\"");
+        out.write(date.toString());
+        out.write("\",\"startTime\":\"");
+        out.write(start.format(DateTimeFormatter.ISO_LOCAL_TIME));
+        out.write("\",\"endTime\":\"");
+        out.write(end.format(DateTimeFormatter.ISO_LOCAL_TIME));
+        out.write("\"}\n");
+
+        long now = System.nanoTime();
+        if (lines++ == 0 || now - lastFlush >= flushIntervalNanos) {
+            out.flush();
+            lastFlush = now;
+        }
+    }
+
+    /** Number of slots written. */
+    long lines() {
+        return lines;
+    }
+
+    private void writeString(String s) throws IOException {
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.write('\\');
+                out.write(c);
+            } else if (c < 0x20) {
+                out.write(String.format("\\u%04x", (int) c));
+            } else {
+                out.write(c);
+            }
+        }
+        out.write('"');
+    }
+
+    /** Flush what is buffered; the underlying stream stays open. */
+    @Override
+    public void close() throws IOException {
+        out.flush();
+    }
+}
@@ -0,0 +1,160 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Follower side of replication: keeps read-only copies of a leader's
+ * calendars by applying the leader's journal ({@link ReplicationServer}
+ * has the protocol) with {@link Calendar#replicate}.
+ * <p>
+ * One connection and thread per calendar.  A follower keeps nothing on
+ * disk: it starts from offset 0 of the leader's journal, and after a lost
+ * connection it reconnects and resumes from the offset it applied up to.
+ * Holds are not journalled, so followers never see them.
+ */
+public final class ReplicationClient implements Closeable {
+
+    /**
+     * How far a calendar's copy is behind: the journal bytes the leader had
+     * made durable at its last position marker but this follower has not
+     * applied, and how long ago that marker arrived ({@code -1}: never).
+     */
+    public record Lag(String calendar, boolean connected, long appliedOffset, long leaderOffset,
+                      long bytesBehind, long millisSinceContact, String lastError) { }
+
+    private final InetSocketAddress leader;
+    private final Clock             clock;
+    private final long              reconnectNanos;
+    private final int               timeoutMillis;
+    private final ThreadFactory     threads;
+    private final List<Replica>     replicas = new ArrayList<>();
+    private volatile boolean        closed;
+
+    /**
+     * @param calendars the follower's calendars by name, without journals; the leader's
+     *                  calendars of the same names are copied into them once {@link #start() started}
+     * @param reconnect pause before reconnecting after a failure
+     * @param timeout   a connection silent for this long is dropped; well above the leader's heartbeat
+     */
+    public ReplicationClient(InetSocketAddress leader, Map<String, Calendar> calendars, Clock clock,
+                             ThreadFactory threads, Duration reconnect, Duration timeout) {
+        this.leader         = leader;
+        this.clock          = clock;
+        this.reconnectNanos = reconnect.toNanos();
+        this.timeoutMillis  = (int) Math.min(Integer.MAX_VALUE, timeout.toMillis());
+        this.threads        = threads;
+        calendars.forEach((name, calendar) -> replicas.add(new Replica(name, calendar)));
+    }
+
+    /** Connect and start copying; the calendars must be {@link Calendar#init() initialised}. */
+    public void start() {
+        for (Replica r : replicas) threads.newThread(() -> run(r)).start();
+    }
+
+    /** Replication lag of every calendar. */
+    public List<Lag> lag() {
+        long now = clock.millis();
+        return replicas.stream()
+                .map(r -> new Lag(r.name, r.socket != null, r.applied, r.leaderEnd,
+                        Math.max(0, r.leaderEnd - r.applied),
+                        r.lastContact < 0 ? -1 : now - r.lastContact, r.lastError))
+                .toList();
+    }
+
+    private void run(Replica r) {
+        while (!closed) {
+            try (Socket socket = new Socket()) {
+                socket.connect(leader, timeoutMillis);
+                socket.setSoTimeout(timeoutMillis);
+                socket.setTcpNoDelay(true);
+                r.socket = socket;
+                if (closed) return;
+                follow(r, socket);
+            } catch (IOException | RuntimeException e) {
+                r.lastError = e.toString();
+            } finally {
+                r.socket = null;
+            }
+            if (!closed) LockSupport.parkNanos(reconnectNanos);
+        }
+    }
+
+    private void follow(Replica r, Socket socket) throws IOException {
+        DataOutputStream out = new DataOutputStream(socket.getOutputStream());
+        DataInputStream  in  = new DataInputStream(
+                new BufferedInputStream(socket.getInputStream(), ReplicationServer.CHUNK));
+        out.writeUTF(r.name);
+        out.writeLong(r.applied);
+        out.flush();
+
+        long start = in.readLong();
+        if (start < 0) throw new IOException("leader has no calendar " + r.name);
+        if (in.readBoolean()) r.calendar.init();         // leader's journal was replaced or compacted: start over
+        r.applied = start;
+        r.lastContact = clock.millis();
+
+        byte[] payload = new byte[1024];
+        for (;;) {
+            int length = in.readInt();
+            if (length == 0) {                           // position marker
+                r.leaderEnd   = in.readLong();
+                r.lastContact = clock.millis();
+                r.lastError   = null;
+                continue;
+            }
+            int crc = in.readInt();
+            if (length < 0 || length > JournalRecord.MAX_PAYLOAD) throw new IOException("bad frame length " + length + " at " + r.applied);
+            if (payload.length < length) payload = new byte[Math.max(length, payload.length * 2)];
+            in.readFully(payload, 0, length);
+            JournalRecord record = JournalRecord.decodePayload(ByteBuffer.wrap(payload, 0, length), crc);
+            if (record == null) throw new IOException("corrupt frame at " + r.applied);
+
+            r.calendar.replicate(record);
+            r.applied += JournalRecord.HEADER_BYTES + length;
+        }
+    }
+
+    /** Disconnect every calendar; their copies stay readable but no longer change. */
+    @Override
+    public void close() {
+        closed = true;
+        for (Replica r : replicas) {
+            Socket s = r.socket;
+            if (s == null) continue;
+            try {
+                s.close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+        }
+    }
+
+    private static final class Replica {
+        final String   name;
+        final Calendar calendar;
+        volatile Socket socket;
+        volatile long   applied;
+        volatile long   leaderEnd;
+        volatile long   lastContact = -1;
+        volatile String lastError;
+
+        Replica(String name, Calendar calendar) {
+            this.name     = name;
+            this.calendar = calendar;
+        }
+    }
+}
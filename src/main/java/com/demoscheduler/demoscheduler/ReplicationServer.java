@@ -0,0 +1,191 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Function;
+
+/**
+ * Leader side of replication: streams calendars' {@link BookingJournal}s
+ * over plain TCP to {@link ReplicationClient}s, which apply them to their
+ * own calendars and serve reads.
+ * <p>
+ * Protocol, all integers big-endian:
+ * <ol>
+ *   <li>The follower sends the calendar name ({@link DataOutputStream#writeUTF})
+ *       and the journal offset it has applied up to.</li>
+ *   <li>The leader answers with the offset it streams from, or {@code -1}
+ *       for an unknown calendar, and a boolean: {@code false} if that is
+ *       the follower's offset, {@code true} if the follower has to start
+ *       over, empty, from the journal's {@link BookingJournal#start() start}
+ *       (the journal was replaced, or compacted past the follower).</li>
+ *   <li>Then journal frames, verbatim and only once durable, interleaved at
+ *       frame boundaries with position markers: an {@code int 0} (never a
+ *       frame's length) and the leader's durable end as a {@code long}.  A
+ *       marker follows every catch-up and, on an idle stream, every
+ *       heartbeat interval.</li>
+ * </ol>
+ * Each follower connection gets its own thread that tails the journal
+ * with positional reads, so a slow follower only holds up itself and
+ * bookings never wait for replication.
+ */
+public final class ReplicationServer implements Closeable {
+
+    /** A connected follower and how far it has been sent. */
+    public record Follower(String calendar, String address, long sentOffset) { }
+
+    /** Bytes read from the journal per socket write. */
+    static final int CHUNK = 64 * 1024;
+
+    private final ServerSocket                       server;
+    private final Function<String, BookingJournal>   journals;
+    private final ThreadFactory                      threads;
+    private final long                               pollNanos;
+    private final long                               heartbeatNanos;
+    private final Set<Connection>                    connections = ConcurrentHashMap.newKeySet();
+    private volatile boolean                         closed;
+
+    /**
+     * Listen on {@code port} ({@code 0} for any free one) of {@code bindAddress}.
+     *
+     * @param journals  journal by calendar name, {@code null} if unknown
+     * @param poll      how long an idle connection waits before looking at the journal again
+     * @param heartbeat position marker interval on an idle connection
+     */
+    public ReplicationServer(InetAddress bindAddress, int port, Function<String, BookingJournal> journals,
+                             ThreadFactory threads, Duration poll, Duration heartbeat) throws IOException {
+        this.server         = new ServerSocket(port, 50, bindAddress);
+        this.journals       = journals;
+        this.threads        = threads;
+        this.pollNanos      = poll.toNanos();
+        this.heartbeatNanos = heartbeat.toNanos();
+        threads.newThread(this::accept).start();
+    }
+
+    /** The port listened on. */
+    public int port() {
+        return server.getLocalPort();
+    }
+
+    /** Connected followers, one entry per replicated calendar. */
+    public List<Follower> followers() {
+        return connections.stream()
+                .map(c -> new Follower(c.calendar, c.address, c.sent))
+                .toList();
+    }
+
+    private void accept() {
+        while (!closed) {
+            Socket socket;
+            try {
+                socket = server.accept();
+            } catch (IOException e) {
+                continue;                                // closed (the loop ends) or a failed handshake
+            }
+            Connection c = new Connection(socket);
+            connections.add(c);
+            if (closed) c.close();
+            threads.newThread(() -> serve(c)).start();
+        }
+    }
+
+    private void serve(Connection c) {
+        try (c) {
+            c.socket.setTcpNoDelay(true);
+            DataInputStream  in  = new DataInputStream(new BufferedInputStream(c.socket.getInputStream()));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(c.socket.getOutputStream(), CHUNK));
+
+            c.calendar = in.readUTF();
+            long pos = in.readLong();
+            BookingJournal journal = journals.apply(c.calendar);
+            if (journal == null) {
+                out.writeLong(-1);
+                out.flush();
+                return;
+            }
+            boolean resume = journal.canResumeAt(pos);
+            if (!resume) pos = journal.start();
+            out.writeLong(pos);
+            out.writeBoolean(!resume);
+            out.flush();
+            stream(c, journal, pos, out);
+        } catch (IOException e) {
+            // follower went away; it reconnects and resumes from what it applied
+        } finally {
+            connections.remove(c);
+        }
+    }
+
+    /** Send frames as they become durable, then a marker; markers alone while idle. */
+    private void stream(Connection c, BookingJournal journal, long pos, DataOutputStream out) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocate(CHUNK);
+        long layout   = journal.start();                 // changes with every compaction
+        long lastSent = 0;
+        while (!closed) {
+            long end = journal.durableEnd();
+            if (end < pos) return;                       // journal replaced under us: the follower restarts
+            if (end == pos && System.nanoTime() - lastSent < heartbeatNanos) {
+                LockSupport.parkNanos(pollNanos);
+                continue;
+            }
+            while (pos < end) {
+                buf.clear().limit((int) Math.min(CHUNK, end - pos));
+                int n = journal.read(pos, buf);
+                if (n <= 0) return;
+                if (journal.start() != layout) {         // compacted meanwhile
+                    if (!journal.canResumeAt(pos)) return;   // those bytes may be the checkpoint's: restart
+                    layout = journal.start();
+                }
+                out.write(buf.array(), 0, n);
+                pos += n;
+                c.sent = pos;
+            }
+            out.writeInt(0);
+            out.writeLong(end);
+            out.flush();
+            lastSent = System.nanoTime();
+        }
+    }
+
+    /** Stop listening and drop every follower. */
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        server.close();
+        for (Connection c : connections) c.close();
+    }
+
+    private static final class Connection implements Closeable {
+        final Socket     socket;
+        final String     address;
+        volatile String  calendar = "";
+        volatile long    sent;
+
+        Connection(Socket socket) {
+            this.socket  = socket;
+            this.address = socket.getRemoteSocketAddress().toString();
+        }
+
+        @Override
+        public void close() {
+            try {
+                socket.close();
+            } catch (IOException ignored) {
+                // closing anyway
+            }
+        }
+    }
+}
@@ -0,0 +1,332 @@
+package com.demoscheduler.demoscheduler;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.regex.Pattern;
+
+/**
+ * Wires the sales {@link Calendar}, the per-advisor calendars and their persistence.
+ * <p>
+ * {@code scheduler.replication.mode} picks the instance's role:
+ * {@code standalone} (default), {@code leader} (also serves its journals to
+ * followers) or {@code follower} (no journals or snapshots of its own;
+ * copies a leader's calendars and serves them read-only).
+ */
+@Configuration
+public class SchedulerConfig {
+
+    /** Beans that only exist on instances with their own persistence. */
+    private static final String NOT_FOLLOWER = "'${scheduler.replication.mode:standalone}' != 'follower'";
+
+    @Bean
+    public Clock schedulerClock() {
+        return Clock.systemDefaultZone();
+    }
+
+    /**
+     * Threads for the scheduler's own background work.  Follows the same
+     * switch as the web layer and {@code @Scheduled} tasks: virtual threads
+     * when {@code spring.threads.virtual.enabled=true}, daemon platform threads otherwise.
+     */
+    @Bean
+    public ThreadFactory schedulerThreadFactory(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        return virtualThreads
+                ? Thread.ofVirtual().name("scheduler-vt-", 0).factory()
+                : Thread.ofPlatform().name("scheduler-", 0).daemon(true).factory();
+    }
+
+    /** Daily slot grid shared by every calendar; bookings restored from disk that are off it are dropped. */
+    @Bean
+    public SlotGrid slotGrid(
+            @Value("${scheduler.grid.start:09:00}") String start,
+            @Value("${scheduler.grid.end:17:00}") String end,
+            @Value("${scheduler.grid.slot-minutes:15}") long slotMinutes) {
+        return new SlotGrid(LocalTime.parse(start), LocalTime.parse(end), Duration.ofMinutes(slotMinutes));
+    }
+
+    /** Write-ahead journal of bookings; closed (and flushed) on shutdown.  Followers have none. */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnExpression(NOT_FOLLOWER)
+    public BookingJournal bookingJournal(
+            @Value("${scheduler.journal.path:data/bookings.journal}") String path,
+            @Value("${scheduler.journal.durability:BATCHED}") BookingJournal.Durability durability,
+            @Value("${scheduler.journal.flush-interval-ms:50}") long flushIntervalMs,
+            ThreadFactory schedulerThreadFactory) throws IOException {
+        return new BookingJournal(Path.of(path), durability, Duration.ofMillis(flushIntervalMs),
+                schedulerThreadFactory);
+    }
+
+    /** Periodic binary image of the calendar; lets startup skip most of the journal. */
+    @Bean
+    @ConditionalOnExpression(NOT_FOLLOWER)
+    public SnapshotStore snapshotStore(
+            @Value("${scheduler.snapshot.path:data/calendar.snapshot}") String path) {
+        return new SnapshotStore(Path.of(path));
+    }
+
+    /** Serialized {@code /slots} responses, reused while the days they cover are unchanged. */
+    @Bean
+    public SlotResponseCache slotResponseCache(
+            @Value("${scheduler.slots.cache.entries:4096}") int entries,
+            @Value("${scheduler.slots.cache.max-body-bytes:65536}") int maxBodyBytes) {
+        return new SlotResponseCache(entries, maxBodyBytes);
+    }
+
+    /** Outcomes of /book and /cancel requests by idempotency key, for retries. */
+    @Bean
+    public IdempotencyCache idempotencyCache(
+            @Value("${scheduler.idempotency.max-entries:100000}") int maxEntries,
+            @Value("${scheduler.idempotency.ttl-seconds:3600}") long ttlSeconds,
+            @Value("${scheduler.idempotency.in-flight-wait-ms:5000}") long waitMs,
+            Clock schedulerClock) {
+        return new IdempotencyCache(schedulerClock, maxEntries, Duration.ofSeconds(ttlSeconds),
+                Duration.ofMillis(waitMs));
+    }
+
+    /* ────────────────  Admission control  ──────────────── */
+
+    /** Per-client token buckets for reads (GETs and slot searches). */
+    @Bean
+    public ClientRateLimiter readRateLimiter(
+            @Value("${scheduler.admission.reads.rate-per-second:50}") double rate,
+            @Value("${scheduler.admission.reads.burst:100}") int burst,
+            @Value("${scheduler.admission.max-clients:100000}") int maxClients) {
+        return new ClientRateLimiter(rate, burst, maxClients);
+    }
+
+    /** Per-client token buckets for bookings, cancellations and holds. */
+    @Bean
+    public ClientRateLimiter writeRateLimiter(
+            @Value("${scheduler.admission.writes.rate-per-second:10}") double rate,
+            @Value("${scheduler.admission.writes.burst:20}") int burst,
+            @Value("${scheduler.admission.max-clients:100000}") int maxClients) {
+        return new ClientRateLimiter(rate, burst, maxClients);
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter readConcurrencyLimiter(
+            @Value("${scheduler.admission.reads.max-concurrency:400}") int max,
+            @Value("${scheduler.admission.min-concurrency:4}") int min,
+            @Value("${scheduler.admission.latency-tolerance:2.0}") double tolerance,
+            @Value("${scheduler.admission.window-ms:100}") long windowMs) {
+        return new AdaptiveConcurrencyLimiter(Math.max(min, max / 4), min, max, tolerance, Duration.ofMillis(windowMs));
+    }
+
+    @Bean
+    public AdaptiveConcurrencyLimiter writeConcurrencyLimiter(
+            @Value("${scheduler.admission.writes.max-concurrency:100}") int max,
+            @Value("${scheduler.admission.min-concurrency:4}") int min,
+            @Value("${scheduler.admission.latency-tolerance:2.0}") double tolerance,
+            @Value("${scheduler.admission.window-ms:100}") long windowMs) {
+        return new AdaptiveConcurrencyLimiter(Math.max(min, max / 4), min, max, tolerance, Duration.ofMillis(windowMs));
+    }
+
+    /** Rate and concurrency limits in front of {@code /api/scheduler/*}; see {@link AdmissionFilter}. */
+    @Bean
+    @ConditionalOnProperty(name = "scheduler.admission.enabled", havingValue = "true", matchIfMissing = true)
+    public FilterRegistrationBean<AdmissionFilter> admissionFilter(
+            @Value("${scheduler.admission.client-header:}") String clientHeader,
+            @Value("${scheduler.admission.trusted-proxies:}") List<String> trustedProxies,
+            ClientRateLimiter readRateLimiter, ClientRateLimiter writeRateLimiter,
+            AdaptiveConcurrencyLimiter readConcurrencyLimiter, AdaptiveConcurrencyLimiter writeConcurrencyLimiter) {
+        FilterRegistrationBean<AdmissionFilter> bean = new FilterRegistrationBean<>(new AdmissionFilter(
+                readRateLimiter, writeRateLimiter, readConcurrencyLimiter, writeConcurrencyLimiter,
+                clientHeader, trustedProxies));
+        bean.addUrlPatterns("/api/scheduler/*");
+        return bean;
+    }
+
+    /** {@code scheduler.admission.limit|in-flight{budget}}: where the adaptive limits stand. */
+    @Bean
+    public MeterBinder admissionGauges(AdaptiveConcurrencyLimiter readConcurrencyLimiter,
+                                       AdaptiveConcurrencyLimiter writeConcurrencyLimiter) {
+        return registry -> {
+            for (var budget : List.of(Map.entry("reads", readConcurrencyLimiter),
+                                      Map.entry("writes", writeConcurrencyLimiter))) {
+                Gauge.builder("scheduler.admission.limit", budget.getValue(), AdaptiveConcurrencyLimiter::limit)
+                        .tag("budget", budget.getKey())
+                        .register(registry);
+                Gauge.builder("scheduler.admission.in-flight", budget.getValue(), AdaptiveConcurrencyLimiter::inFlight)
+                        .tag("budget", budget.getKey())
+                        .register(registry);
+            }
+        };
+    }
+
+    /** Recent slot changes of every calendar, served by {@link #changeStreams}. */
+    @Bean
+    public ChangeFeed changeFeed(@Value("${scheduler.changes.capacity:65536}") int capacity) {
+        return new ChangeFeed(capacity);
+    }
+
+    /** The calendar is initialised (snapshot + journal restored) by {@link SchedulerController#init()}. */
+    @Bean
+    public Calendar salesCalendar(Clock schedulerClock, Optional<BookingJournal> bookingJournal,
+                                  Optional<SnapshotStore> snapshotStore, SlotGrid slotGrid,
+                                  @Value("${scheduler.grid.days-forward:14}") int daysForward,
+                                  MeterRegistry meterRegistry, ChangeFeed changeFeed) {
+        return new Calendar(schedulerClock, bookingJournal.orElse(null), snapshotStore.orElse(null),
+                slotGrid, daysForward,
+                new MicrometerCalendarMetrics(meterRegistry, "sales"), changeFeed.listener("sales"));
+    }
+
+    /** Per-day booked/free gauges, read from the calendar's bitmaps at scrape time. */
+    @Bean
+    public MeterBinder salesCalendarGauges(Calendar salesCalendar) {
+        return registry -> MicrometerCalendarMetrics.bindGauges(registry, salesCalendar, "sales");
+    }
+
+    /* ────────────────  Per-advisor calendars  ──────────────── */
+
+    /**
+     * Advisor ids become file names, so keep them to a safe alphabet.  They
+     * also share one namespace with the sales calendar ({@code "sales"}) in
+     * metrics tags, the change feed, replication and slot streams.
+     */
+    private static final Pattern ADVISOR_ID = Pattern.compile("[A-Za-z0-9._-]{1,64}");
+
+    /**
+     * Runs the chunks of cross-advisor searches: one virtual thread per task,
+     * or a pool of one platform thread per core.
+     */
+    @Bean(destroyMethod = "shutdownNow")
+    public ExecutorService schedulerSearchExecutor(
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+            ThreadFactory schedulerThreadFactory) {
+        return virtualThreads
+                ? Executors.newThreadPerTaskExecutor(schedulerThreadFactory)
+                : Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), schedulerThreadFactory);
+    }
+
+    /**
+     * One calendar per configured advisor, each with its own journal and
+     * snapshot under {@code scheduler.advisors.data-dir}; restored here, at
+     * startup.  A follower's advisor calendars start empty, without either.
+     */
+    @Bean(destroyMethod = "close")
+    public CalendarRegistry advisorCalendars(
+            @Value("${scheduler.advisors:}") List<String> advisors,
+            @Value("${scheduler.advisors.data-dir:data/advisors}") String dataDir,
+            @Value("${scheduler.journal.durability:BATCHED}") BookingJournal.Durability durability,
+            @Value("${scheduler.journal.flush-interval-ms:50}") long flushIntervalMs,
+            @Value("${scheduler.grid.days-forward:14}") int daysForward,
+            @Value("${scheduler.replication.mode:standalone}") String replicationMode,
+            Clock schedulerClock, SlotGrid slotGrid, ThreadFactory schedulerThreadFactory,
+            ExecutorService schedulerSearchExecutor, MeterRegistry meterRegistry,
+            ChangeFeed changeFeed) throws IOException {
+        CalendarRegistry registry = new CalendarRegistry(schedulerSearchExecutor,
+                Runtime.getRuntime().availableProcessors());
+        try {
+            for (String raw : advisors) {
+                String id = raw.trim();
+                if (id.isEmpty()) continue;
+                if (!ADVISOR_ID.matcher(id).matches()) {
+                    throw new IllegalArgumentException("invalid advisor id in scheduler.advisors: " + id);
+                }
+                if ("sales".equalsIgnoreCase(id)) {
+                    throw new IllegalArgumentException("reserved advisor id in scheduler.advisors: " + id);
+                }
+                Path dir = Path.of(dataDir);
+                boolean follower = "follower".equals(replicationMode);
+                BookingJournal journal = follower ? null : new BookingJournal(dir.resolve(id + ".journal"),
+                        durability, Duration.ofMillis(flushIntervalMs), schedulerThreadFactory);
+                try {
+                    registry.register(id, new Calendar(schedulerClock, journal,
+                            follower ? null : new SnapshotStore(dir.resolve(id + ".snapshot")), slotGrid, daysForward,
+                            new MicrometerCalendarMetrics(meterRegistry, id), changeFeed.listener(id)), journal);
+                } catch (RuntimeException e) {
+                    if (journal != null) journal.close();
+                    throw e;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            registry.close();
+            throw e;
+        }
+        return registry;
+    }
+
+    /** SSE subscriptions to {@link #changeFeed}, one scheduler thread each; ended on shutdown. */
+    @Bean(destroyMethod = "close")
+    public ChangeStreams changeStreams(
+            @Value("${scheduler.changes.max-subscribers:256}") int maxSubscribers,
+            @Value("${scheduler.changes.timeout-ms:1800000}") long timeoutMs,
+            @Value("${scheduler.changes.poll-ms:50}") long pollMs,
+            @Value("${scheduler.changes.heartbeat-ms:15000}") long heartbeatMs,
+            ChangeFeed changeFeed, Calendar salesCalendar, CalendarRegistry advisorCalendars,
+            ThreadFactory schedulerThreadFactory) {
+        return new ChangeStreams(changeFeed,
+                name -> "sales".equals(name) ? salesCalendar : advisorCalendars.calendar(name),
+                schedulerThreadFactory, maxSubscribers, Duration.ofMillis(timeoutMs),
+                Duration.ofMillis(pollMs), Duration.ofMillis(heartbeatMs));
+    }
+
+    /* ────────────────  Replication  ──────────────── */
+
+    /**
+     * Leader: serves the sales journal (as {@code sales}) and every
+     * advisor's journal to followers over TCP.  The stream has no
+     * authentication, so it listens on loopback unless
+     * {@code scheduler.replication.bind-address} says otherwise.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "scheduler.replication.mode", havingValue = "leader")
+    public ReplicationServer replicationServer(
+            @Value("${scheduler.replication.bind-address:127.0.0.1}") String bindAddress,
+            @Value("${scheduler.replication.port:7070}") int port,
+            @Value("${scheduler.replication.poll-ms:10}") long pollMs,
+            @Value("${scheduler.replication.heartbeat-ms:1000}") long heartbeatMs,
+            BookingJournal bookingJournal, CalendarRegistry advisorCalendars,
+            ThreadFactory schedulerThreadFactory) throws IOException {
+        return new ReplicationServer(InetAddress.getByName(bindAddress), port,
+                name -> "sales".equals(name) ? bookingJournal : advisorCalendars.journal(name),
+                schedulerThreadFactory, Duration.ofMillis(pollMs), Duration.ofMillis(heartbeatMs));
+    }
+
+    /**
+     * Follower: copies the leader's sales and advisor calendars into this
+     * instance's; started by {@link SchedulerController#init()} once the
+     * sales calendar is initialised.
+     */
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "scheduler.replication.mode", havingValue = "follower")
+    public ReplicationClient replicationClient(
+            @Value("${scheduler.replication.leader:localhost:7070}") String leader,
+            @Value("${scheduler.replication.reconnect-ms:1000}") long reconnectMs,
+            @Value("${scheduler.replication.timeout-ms:10000}") long timeoutMs,
+            Calendar salesCalendar, CalendarRegistry advisorCalendars,
+            Clock schedulerClock, ThreadFactory schedulerThreadFactory) {
+        int colon = leader.lastIndexOf(':');
+        if (colon < 0) throw new IllegalArgumentException("scheduler.replication.leader must be host:port: " + leader);
+        Map<String, Calendar> calendars = new LinkedHashMap<>();
+        calendars.put("sales", salesCalendar);
+        for (String id : advisorCalendars.advisors()) calendars.put(id, advisorCalendars.calendar(id));
+        InetSocketAddress address = new InetSocketAddress(leader.substring(0, colon),
+                Integer.parseInt(leader.substring(colon + 1)));
+        return new ReplicationClient(address, calendars, schedulerClock, schedulerThreadFactory,
+                Duration.ofMillis(reconnectMs), Duration.ofMillis(timeoutMs));
+    }
+}
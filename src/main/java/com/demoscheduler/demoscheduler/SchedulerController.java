@@ -1,14 +1,27 @@
 package com.demoscheduler.demoscheduler;
 
-import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.function.Supplier;
 
 /**
  * REST controller exposing the Calendar service for scheduling (now date-aware).
@@ -17,30 +30,235 @@ import java.util.List;
 @RequestMapping("/api/scheduler")
 public class SchedulerController {
 
-    private final Calendar salesCalendar = new Calendar();
+    private final Calendar salesCalendar;
 
-    /** Initialise 14-day calendar at startup. */
+    private final CalendarRegistry advisorCalendars;
+
+    private final ChangeStreams changeStreams;
+
+    private final SlotResponseCache slotCache;
+
+    private final IdempotencyCache idempotency;
+
+    /** Present on a leader / on a follower; a follower rejects writes. */
+    private final ReplicationServer replicationServer;
+    private final ReplicationClient replicationClient;
+
+    private static final String READ_ONLY = "Read-only follower: send writes to the leader";
+
+    /** Most slots one search may ask for. */
+    static final int MAX_SLOT_COUNT = 1_000;
+
+    /** Longest accepted idempotency key. */
+    private static final int MAX_IDEMPOTENCY_KEY = 255;
+
+    private final CalendarConsoleDumper consoleDumper;
+
+    /** Longest a streamed response holds back written lines. */
+    private static final long STREAM_FLUSH_NANOS = 100_000_000L;
+
+    @Value("${scheduler.console-dump.enabled:true}")
+    private boolean consoleDumpEnabled;
+
+    @Value("${scheduler.holds.default-ttl-seconds:300}")
+    private long defaultHoldSeconds;
+
+    @Value("${scheduler.holds.max-ttl-seconds:1800}")
+    private long maxHoldSeconds;
+
+    public SchedulerController(Calendar salesCalendar, CalendarRegistry advisorCalendars,
+                               ChangeStreams changeStreams, SlotResponseCache slotCache,
+                               IdempotencyCache idempotency,
+                               Optional<ReplicationServer> replicationServer,
+                               Optional<ReplicationClient> replicationClient) {
+        this.salesCalendar     = salesCalendar;
+        this.advisorCalendars  = advisorCalendars;
+        this.changeStreams     = changeStreams;
+        this.slotCache         = slotCache;
+        this.idempotency       = idempotency;
+        this.replicationServer = replicationServer.orElse(null);
+        this.replicationClient = replicationClient.orElse(null);
+        this.consoleDumper     = new CalendarConsoleDumper(salesCalendar, System.out);
+    }
+
+    /**
+     * Initialise the calendar at startup from the latest snapshot plus the
+     * booking journal; a follower's starts empty and copying from the leader begins.
+     */
     @PostConstruct
     public void init() {
         salesCalendar.init();
-        salesCalendar.showCalendar();   // optional console dump
+        if (replicationClient != null) replicationClient.start();
+    }
+
+    /** Persist a snapshot in the background whenever bookings changed; and once more on shutdown. */
+    @Scheduled(fixedDelayString = "${scheduler.snapshot.interval-ms:60000}",
+               initialDelayString = "${scheduler.snapshot.interval-ms:60000}")
+    @PreDestroy
+    public void writeSnapshot() {
+        salesCalendar.writeSnapshot();
+        advisorCalendars.writeSnapshots();
+    }
+
+    /** Optional console dump, off the request path: at most once per interval, only after changes. */
+    @Scheduled(fixedDelayString = "${scheduler.console-dump.interval-ms:5000}")
+    public void dumpCalendar() {
+        if (consoleDumpEnabled) consoleDumper.dumpIfChanged();
+    }
+
+    /** Roll the window forward once the date changes; a no-op otherwise. */
+    @Scheduled(fixedDelayString = "${scheduler.rollover.check-interval-ms:60000}")
+    public void rollover() {
+        salesCalendar.rollover();
+        advisorCalendars.rollover();
     }
 
     /* ─────────────────────────────  /slots  ───────────────────────────── */
 
-    /** Find the N closest available slots for a given date + time. */
+    /**
+     * Find the N closest available slots (N at most {@value #MAX_SLOT_COUNT},
+     * more is a 400) for a given date + time.  With
+     * {@code from}/{@code to} or {@code horizon: true} the search spans
+     * several days and ranks slots by absolute time distance; with
+     * {@code durationMinutes} it finds back-to-back runs of that length.
+     * <p>
+     * Responses carry an ETag derived from the query and the version of the
+     * days it covers; a repeated query answers from {@link SlotResponseCache}
+     * while those days are unchanged.  Fresh bodies are written by
+     * {@link SlotJson} from the slots' pre-encoded JSON, not by Jackson.
+     * <p>
+     * {@code If-None-Match} follows RFC 9110: a POST whose tag still matches
+     * fails with 412, so clients that revalidate use the {@link #getSlots GET}
+     * form, which answers 304.
+     */
     @PostMapping("/slots")
-    public List<Event> getClosestSlots(@RequestBody SlotSearchRequest req) {
+    public ResponseEntity<byte[]> getClosestSlots(
+            @RequestBody SlotSearchRequest req,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return slots(req, ifNoneMatch, HttpStatus.PRECONDITION_FAILED);
+    }
 
-        // default to today if the client omits "date"
-        LocalDate desiredDate = (req.getDate() == null || req.getDate().isBlank())
-                ? LocalDate.now()
-                : LocalDate.parse(req.getDate());
+    /**
+     * {@link #getClosestSlots} with the search as query parameters
+     * ({@code ?desired=09:00&count=5&from=…}), for conditional and cacheable
+     * reads: 304 while the client's {@code If-None-Match} tag is current.
+     */
+    @GetMapping("/slots")
+    public ResponseEntity<byte[]> getSlots(
+            @ModelAttribute SlotSearchRequest req,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        return slots(req, ifNoneMatch, HttpStatus.NOT_MODIFIED);
+    }
+
+    /** @param matched status when {@code If-None-Match} lists the current tag: 304 for GET, 412 otherwise */
+    private ResponseEntity<byte[]> slots(SlotSearchRequest req, String ifNoneMatch, HttpStatus matched) {
+        if (req.getDesired() == null) return ResponseEntity.badRequest().build();
+
+        LocalDate desiredDate, from, to;
+        LocalTime desiredTime;
+        try {
+            // default to today if the client omits "date"
+            desiredDate = (req.getDate() == null || req.getDate().isBlank())
+                    ? salesCalendar.today()
+                    : SlotFormat.date(req.getDate());
+            desiredTime = SlotFormat.time(req.getDesired());
+            from        = parseOptionalDate(req.getFrom());
+            to          = parseOptionalDate(req.getTo());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
 
-        LocalTime desiredTime = LocalTime.parse(req.getDesired());
         int count = req.getCount() > 0 ? req.getCount() : 5;
+        if (count > MAX_SLOT_COUNT) return ResponseEntity.badRequest().build();
+
+        Duration  length = req.getDurationMinutes() == null
+                ? salesCalendar.grid().slot()
+                : Duration.ofMinutes(req.getDurationMinutes());
+        boolean range = req.isHorizon() || from != null || to != null;
+
+        SlotQuery query = new SlotQuery(desiredDate, desiredTime, count, range, from, to, length);
+        long version = range
+                ? salesCalendar.version(from, to)
+                : salesCalendar.version(desiredDate, desiredDate);
+        String etag = slotCache.etag(query, version);
+        if (SlotResponseCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(matched).eTag(etag).build();
+        }
+
+        SlotResponseCache.Response cached = slotCache.get(query, version);
+        if (cached == null) {
+            List<Event> slots;
+            try {
+                slots = range
+                        ? salesCalendar.getClosestAvailable(from, to, desiredDate, desiredTime, length, count)
+                        : salesCalendar.getClosestAvailable(desiredDate, desiredTime, length, count);
+            } catch (IllegalArgumentException e) {          // length off the slot grid
+                return ResponseEntity.badRequest().build();
+            }
+            cached = slotCache.put(query, version, SlotJson.write(slots));
+        }
+        return ResponseEntity.ok().eTag(cached.etag()).contentType(MediaType.APPLICATION_JSON).body(cached.body());
+    }
+
+    /** Everything a {@code /slots} response depends on besides the calendar's state. */
+    private record SlotQuery(LocalDate date, LocalTime desired, int count, boolean range,
+                             LocalDate from, LocalDate to, Duration length) { }
+
+    /**
+     * Every free slot (or run of {@code durationMinutes}) from {@code from} to
+     * {@code to} (default: the whole horizon) as NDJSON, written while the
+     * calendar is walked — memory does not grow with the range.
+     */
+    @GetMapping(value = "/slots/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamSlots(
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer durationMinutes) {
+        return stream(List.of("sales"), List.of(salesCalendar), from, to, durationMinutes);
+    }
+
+    private ResponseEntity<StreamingResponseBody> stream(List<String> names, List<Calendar> calendars,
+                                                         String fromStr, String toStr, Integer durationMinutes) {
+        LocalDate from, to;
+        try {
+            from = parseOptionalDate(fromStr);
+            to   = parseOptionalDate(toStr);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        List<Duration> lengths = new ArrayList<>(calendars.size());
+        for (Calendar c : calendars) {
+            Duration length = durationMinutes == null ? c.grid().slot() : Duration.ofMinutes(durationMinutes);
+            try {
+                c.grid().slotsFor(length);
+            } catch (IllegalArgumentException e) {
+                return ResponseEntity.badRequest().build();
+            }
+            lengths.add(length);
+        }
+
+        StreamingResponseBody body = out -> {
+            try (NdjsonSlotWriter writer = new NdjsonSlotWriter(out, STREAM_FLUSH_NANOS)) {
+                for (int i = 0; i < calendars.size(); i++) {
+                    String name = names.get(i);
+                    calendars.get(i).forEachFree(from, to, lengths.get(i), (date, start, end) -> {
+                        try {
+                            writer.write(name, date, start, end);
+                            return true;
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);  // client went away: stop walking
+                        }
+                    });
+                }
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_NDJSON).body(body);
+    }
 
-        return salesCalendar.getClosestAvailable(desiredDate, desiredTime, count);
+    private static LocalDate parseOptionalDate(String s) {
+        return s == null || s.isBlank() ? null : SlotFormat.date(s);
     }
 
     /* ─────────────────────────────  /book  ────────────────────────────── */
@@ -48,33 +266,159 @@ public class SchedulerController {
     /** Book a specific slot identified by date + startTime. */
     @PostMapping("/book")
     public ResponseEntity<String> bookSlot(@RequestBody BookingRequest req) {
+        return idempotent("sales/book", req.getIdempotencyKey(), req.fingerprint(), () -> book(salesCalendar, req));
+    }
+
+    /** Book several slots for one client, all or nothing. */
+    @PostMapping("/book/batch")
+    public ResponseEntity<String> bookSlots(@RequestBody BatchBookingRequest req) {
+        return bookBatch(salesCalendar, req);
+    }
+
+    @PostMapping("/cancel")
+    public ResponseEntity<String> cancelSlot(@RequestBody CancelRequest req) {
+        return idempotent("sales/cancel", req.getIdempotencyKey(), req.fingerprint(),
+                () -> cancel(salesCalendar, req));
+    }
+
+    /**
+     * Run a write once per idempotency key (per {@code scope}): a retry gets
+     * the original status and body, marked {@code Idempotent-Replayed: true},
+     * without touching the calendar.  Without a key the write just runs.
+     */
+    private ResponseEntity<String> idempotent(String scope, String key, String fingerprint,
+                                              Supplier<ResponseEntity<String>> write) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(READ_ONLY);
+        if (key == null || key.isBlank()) return write.get();
+        if (key.length() > MAX_IDEMPOTENCY_KEY) return ResponseEntity.badRequest().body("idempotencyKey is too long");
+
+        IdempotencyCache.Result r = idempotency.execute(scope + ':' + key, fingerprint, () -> {
+            ResponseEntity<String> response = write.get();
+            return new IdempotencyCache.Outcome(response.getStatusCode().value(), response.getBody());
+        });
+        return switch (r.status()) {
+            case EXECUTED    -> ResponseEntity.status(r.outcome().status()).body(r.outcome().body());
+            case REPLAYED    -> ResponseEntity.status(r.outcome().status())
+                                        .header("Idempotent-Replayed", "true")
+                                        .body(r.outcome().body());
+            case KEY_REUSED  -> ResponseEntity.status(HttpStatus.UNPROCESSABLE_ENTITY)
+                                        .body("idempotencyKey was already used for a different request");
+            case IN_PROGRESS -> ResponseEntity.status(HttpStatus.CONFLICT)
+                                        .body("A request with this idempotencyKey is still in progress");
+        };
+    }
+
+    /**
+     * Slots booked by {@code client}, or with {@code advisor}, optionally
+     * limited to {@code from}..{@code to}, in date/time order; served from
+     * the calendar's index, so the cost follows that client's bookings.
+     */
+    @GetMapping("/bookings")
+    public ResponseEntity<List<Event>> bookings(
+            @RequestParam(required = false) String client,
+            @RequestParam(required = false) String advisor,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        return bookings(salesCalendar, client, advisor, from, to);
+    }
+
+    /** Cancel all of a client's bookings, or those from {@code from} to {@code to}. */
+    @PostMapping("/cancel/all")
+    public ResponseEntity<String> cancelAll(@RequestBody CancelAllRequest req) {
+        return cancelAll(salesCalendar, req);
+    }
+
+    private ResponseEntity<List<Event>> bookings(Calendar calendar, String client, String advisor,
+                                                 String fromStr, String toStr) {
+        if ((client == null || client.isBlank()) == (advisor == null || advisor.isBlank())) {
+            return ResponseEntity.badRequest().build();      // exactly one of them
+        }
+        LocalDate from, to;
+        try {
+            from = parseOptionalDate(fromStr);
+            to   = parseOptionalDate(toStr);
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(client != null && !client.isBlank()
+                ? calendar.bookingsOf(client, from, to)
+                : calendar.bookingsWithAdvisor(advisor, from, to));
+    }
+
+    private ResponseEntity<String> cancelAll(Calendar calendar, CancelAllRequest req) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(READ_ONLY);
+        if (req.getClient() == null || req.getClient().isBlank()) {
+            return ResponseEntity.badRequest().body("client is required");
+        }
+        LocalDate from, to;
+        try {
+            from = parseOptionalDate(req.getFrom());
+            to   = parseOptionalDate(req.getTo());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("from and to must be yyyy-MM-dd");
+        }
+        int cancelled = calendar.cancelAll(req.getClient(), from, to);
+        return ResponseEntity.ok("Cancelled " + cancelled + " slot(s)");
+    }
+
+    private ResponseEntity<String> book(Calendar calendar, BookingRequest req) {
 
         // default to today if "date" omitted
         String dateStr = (req.getDate() == null || req.getDate().isBlank())
-                ? LocalDate.now().toString()
+                ? calendar.today().toString()
                 : req.getDate();
 
-        boolean ok = salesCalendar.bookEvent(
+        // a whole number of back-to-back slots; one slot when omitted
+        Duration length = req.getDurationMinutes() == null
+                ? calendar.grid().slot()
+                : Duration.ofMinutes(req.getDurationMinutes());
+
+        boolean ok = calendar.bookEvent(
                 dateStr,
                 req.getStartTime(),
+                length,
                 req.getClient(),
                 req.getDescription(),
                 req.getAdvisor()
         );
 
         if (ok) {
-            salesCalendar.showCalendar();   // visual feedback
             return ResponseEntity.ok("Booked successfully");
         }
         return ResponseEntity.status(HttpStatus.CONFLICT)
                 .body("Failed to book: slot not found or already booked");
     }
 
-    @PostMapping("/cancel")
-    public ResponseEntity<String> cancelSlot(@RequestBody CancelRequest req) {
+    private ResponseEntity<String> bookBatch(Calendar calendar, BatchBookingRequest req) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(READ_ONLY);
+        if (req.getSlots() == null || req.getSlots().isEmpty()) {
+            return ResponseEntity.badRequest().body("At least one slot is required");
+        }
+
+        List<LocalDateTime> slots = new ArrayList<>(req.getSlots().size());
+        try {
+            for (SlotRef ref : req.getSlots()) {
+                if (ref == null || ref.getStartTime() == null) throw new DateTimeParseException("missing startTime", "", 0);
+                LocalDate date = (ref.getDate() == null || ref.getDate().isBlank())
+                        ? calendar.today()
+                        : SlotFormat.date(ref.getDate());
+                slots.add(date.atTime(SlotFormat.time(ref.getStartTime())));
+            }
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body("Every slot needs a valid startTime (HH:mm) and optional date (yyyy-MM-dd)");
+        }
+
+        if (calendar.bookBatch(slots, req.getClient(), req.getDescription(), req.getAdvisor())) {
+            return ResponseEntity.ok("Booked " + slots.size() + " slots");
+        }
+        return ResponseEntity.status(HttpStatus.CONFLICT)
+                .body("Failed to book batch: a slot was not found, repeated or already booked; nothing was booked");
+    }
+
+    private ResponseEntity<String> cancel(Calendar calendar, CancelRequest req) {
         // default to today if omitted
         String dateStr = (req.getDate() == null || req.getDate().isBlank())
-                ? LocalDate.now().toString()
+                ? calendar.today().toString()
                 : req.getDate();
 
         String timeStr = req.getStartTime();
@@ -85,9 +429,8 @@ public class SchedulerController {
                     .body("Both startTime and client are required");
         }
 
-        boolean cancelled = salesCalendar.cancelEvent(dateStr, timeStr, client);
+        boolean cancelled = calendar.cancelEvent(dateStr, timeStr, client);
         if (cancelled) {
-            salesCalendar.showCalendar();
             return ResponseEntity.ok("Cancellation successful");
         } else {
             return ResponseEntity.status(HttpStatus.CONFLICT)
@@ -95,14 +438,251 @@ public class SchedulerController {
         }
     }
 
+    /* ─────────────────────────────  /holds  ──────────────────────────── */
+
+    /**
+     * Reserve a slot (or {@code durationMinutes} of them) for
+     * {@code ttlSeconds} while the customer confirms; 409 if it is taken,
+     * 400 for a bad time, length or ttl.
+     */
+    @PostMapping("/holds")
+    public ResponseEntity<Calendar.Hold> hold(@RequestBody HoldRequest req) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        if (req.getStartTime() == null || req.getStartTime().isBlank()) return ResponseEntity.badRequest().build();
+        Calendar.Hold hold;
+        try {
+            LocalDate date = (req.getDate() == null || req.getDate().isBlank())
+                    ? salesCalendar.today()
+                    : SlotFormat.date(req.getDate());
+            Duration length = req.getDurationMinutes() == null
+                    ? salesCalendar.grid().slot()
+                    : Duration.ofMinutes(req.getDurationMinutes());
+            long ttlSeconds = req.getTtlSeconds() == null ? defaultHoldSeconds : req.getTtlSeconds();
+            if (ttlSeconds > maxHoldSeconds) return ResponseEntity.badRequest().build();
+            hold = salesCalendar.hold(date, SlotFormat.time(req.getStartTime()), length,
+                    Duration.ofSeconds(ttlSeconds));
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        return hold == null
+                ? ResponseEntity.status(HttpStatus.CONFLICT).build()
+                : ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    /** Book the held slots for the client; 404 once the hold expired or was released. */
+    @PostMapping("/holds/{holdId}/confirm")
+    public ResponseEntity<String> confirmHold(@PathVariable String holdId, @RequestBody ConfirmHoldRequest req) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(READ_ONLY);
+        if (req.getClient() == null || req.getClient().isBlank()) {
+            return ResponseEntity.badRequest().body("client is required");
+        }
+        if (salesCalendar.confirmHold(holdId, req.getClient(), req.getDescription(), req.getAdvisor())) {
+            return ResponseEntity.ok("Booked successfully");
+        }
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Hold not found, expired or released");
+    }
+
+    /** Give the held slots back before the hold expires. */
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId) {
+        if (replicationClient != null) return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        return salesCalendar.releaseHold(holdId)
+                ? ResponseEntity.noContent().build()
+                : ResponseEntity.notFound().build();
+    }
+
+    /** Release holds whose time is up; cheap however many are outstanding. */
+    @Scheduled(fixedDelayString = "${scheduler.holds.expiry-interval-ms:1000}")
+    public void expireHolds() {
+        salesCalendar.expireHolds();
+    }
+
+    /* ─────────────────────────────  /utilization  ─────────────────────── */
+
+    /**
+     * Occupancy heatmap of the whole horizon — booked and free slots per
+     * day and per hour, bookings per advisor — from the calendar's
+     * counters, without scanning slots; for dashboards instead of paging
+     * through {@code /slots}.
+     */
+    @GetMapping("/utilization")
+    public Calendar.Utilization utilization() {
+        return salesCalendar.utilization();
+    }
+
+    /* ─────────────────────────────  /advisors  ────────────────────────── */
+
+    /** Ids of the per-advisor calendars. */
+    @GetMapping("/advisors")
+    public List<String> advisors() {
+        return advisorCalendars.advisors();
+    }
+
+    /**
+     * The N closest free slots across {@code advisors} (all when omitted),
+     * searched per advisor in parallel.  Same date/range options as /slots.
+     */
+    @PostMapping("/advisors/slots")
+    public ResponseEntity<List<CalendarRegistry.AdvisorSlot>> getClosestAdvisorSlots(
+            @RequestBody SlotSearchRequest req) {
+        if (req.getDesired() == null) return ResponseEntity.badRequest().build();
+
+        LocalDate desiredDate, from, to;
+        LocalTime desiredTime;
+        try {
+            desiredDate = (req.getDate() == null || req.getDate().isBlank())
+                    ? salesCalendar.today()
+                    : SlotFormat.date(req.getDate());
+            desiredTime = SlotFormat.time(req.getDesired());
+            from        = parseOptionalDate(req.getFrom());
+            to          = parseOptionalDate(req.getTo());
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        int count = req.getCount() > 0 ? req.getCount() : 5;
+        if (count > MAX_SLOT_COUNT) return ResponseEntity.badRequest().build();
+
+        for (String advisor : req.getAdvisors() == null ? advisorCalendars.advisors() : req.getAdvisors()) {
+            if (advisorCalendars.calendar(advisor) == null) return ResponseEntity.notFound().build();
+        }
+        try {
+            if (req.getDurationMinutes() != null) {
+                Duration length = Duration.ofMinutes(req.getDurationMinutes());
+                return ResponseEntity.ok(req.isHorizon() || from != null || to != null
+                        ? advisorCalendars.getClosestAvailable(req.getAdvisors(), from, to, desiredDate, desiredTime, length, count)
+                        : advisorCalendars.getClosestAvailable(req.getAdvisors(), desiredDate, desiredTime, length, count));
+            }
+            return ResponseEntity.ok(req.isHorizon() || from != null || to != null
+                    ? advisorCalendars.getClosestAvailable(req.getAdvisors(), from, to, desiredDate, desiredTime, count)
+                    : advisorCalendars.getClosestAvailable(req.getAdvisors(), desiredDate, desiredTime, count));
+        } catch (IllegalArgumentException e) {              // length off an advisor's slot grid
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /** NDJSON stream of free slots for {@code advisors} (all when omitted); see {@link #streamSlots}. */
+    @GetMapping(value = "/advisors/slots/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamAdvisorSlots(
+            @RequestParam(required = false) List<String> advisors,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(required = false) Integer durationMinutes) {
+        List<String> ids = advisors == null || advisors.isEmpty() ? advisorCalendars.advisors() : advisors;
+        List<Calendar> calendars = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            Calendar c = advisorCalendars.calendar(id);
+            if (c == null) return ResponseEntity.notFound().build();
+            calendars.add(c);
+        }
+        return stream(ids, calendars, from, to, durationMinutes);
+    }
+
+    /** Book a slot in {@code advisor}'s calendar; the booking's advisor is the path's. */
+    @PostMapping("/advisors/{advisor}/book")
+    public ResponseEntity<String> bookAdvisorSlot(@PathVariable String advisor, @RequestBody BookingRequest req) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        if (calendar == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown advisor");
+        req.setAdvisor(advisor);
+        return idempotent("advisors/" + advisor + "/book", req.getIdempotencyKey(), req.fingerprint(),
+                () -> book(calendar, req));
+    }
+
+    @PostMapping("/advisors/{advisor}/book/batch")
+    public ResponseEntity<String> bookAdvisorSlots(@PathVariable String advisor, @RequestBody BatchBookingRequest req) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        if (calendar == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown advisor");
+        req.setAdvisor(advisor);
+        return bookBatch(calendar, req);
+    }
+
+    @PostMapping("/advisors/{advisor}/cancel")
+    public ResponseEntity<String> cancelAdvisorSlot(@PathVariable String advisor, @RequestBody CancelRequest req) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        if (calendar == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown advisor");
+        return idempotent("advisors/" + advisor + "/cancel", req.getIdempotencyKey(), req.fingerprint(),
+                () -> cancel(calendar, req));
+    }
+
+    @GetMapping("/advisors/{advisor}/bookings")
+    public ResponseEntity<List<Event>> advisorBookings(
+            @PathVariable String advisor,
+            @RequestParam String client,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        if (calendar == null) return ResponseEntity.notFound().build();
+        return bookings(calendar, client, null, from, to);
+    }
+
+    @PostMapping("/advisors/{advisor}/cancel/all")
+    public ResponseEntity<String> cancelAllAdvisorSlots(@PathVariable String advisor,
+                                                        @RequestBody CancelAllRequest req) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        if (calendar == null) return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Unknown advisor");
+        return cancelAll(calendar, req);
+    }
+
+    /** {@link #utilization()} of {@code advisor}'s calendar. */
+    @GetMapping("/advisors/{advisor}/utilization")
+    public ResponseEntity<Calendar.Utilization> advisorUtilization(@PathVariable String advisor) {
+        Calendar calendar = advisorCalendars.calendar(advisor);
+        return calendar == null ? ResponseEntity.notFound().build() : ResponseEntity.ok(calendar.utilization());
+    }
+
+    /* ─────────────────────────────  /changes  ─────────────────────────── */
+
+    /**
+     * Server-Sent Events feed of booked and cancelled slots across all
+     * calendars, so clients can keep a local copy instead of polling
+     * {@code /slots}; see {@link ChangeStreams} for the events.  Resumes
+     * after {@code Last-Event-ID} (or {@code since}, for clients that cannot
+     * set headers).  503 when the subscriber limit is reached.
+     */
+    @GetMapping(value = "/changes", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> changes(
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId,
+            @RequestParam(required = false) String since) {
+        SseEmitter emitter = changeStreams.open(lastEventId != null ? lastEventId : since);
+        return emitter == null
+                ? ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build()
+                : ResponseEntity.ok(emitter);
+    }
+
+    /* ─────────────────────────────  /replication  ────────────────────── */
+
+    /** This instance's role; on a leader its followers, on a follower its lag per calendar. */
+    public record ReplicationStatus(String role, List<ReplicationServer.Follower> followers,
+                                    List<ReplicationClient.Lag> lag) { }
+
+    @GetMapping("/replication")
+    public ReplicationStatus replication() {
+        if (replicationClient != null) return new ReplicationStatus("follower", List.of(), replicationClient.lag());
+        if (replicationServer != null) return new ReplicationStatus("leader", replicationServer.followers(), List.of());
+        return new ReplicationStatus("standalone", List.of(), List.of());
+    }
+
+    /* ─────────────────────────────  /debug  ───────────────────────────── */
+
+    /** Plain-text calendar table rendered from a point-in-time snapshot. */
+    @GetMapping(value = "/debug/calendar", produces = MediaType.TEXT_PLAIN_VALUE)
+    public String debugCalendar() {
+        return CalendarRenderer.render(salesCalendar.snapshot(), false);
+    }
+
     /* ───────────────────────────── DTOs ──────────────────────────────── */
 
-    /** JSON body for POST /slots */
+    /** JSON body for POST /slots, query parameters of GET /slots */
     @SuppressWarnings("unused") // Suppressed since methods are used reflectively
     public static class SlotSearchRequest {
         private String date;     // yyyy-MM-dd, optional (defaults to today)
         private String desired;  // HH:mm   (required)
         private int    count = 5;
+        private String from;     // yyyy-MM-dd, optional: search across days from here …
+        private String to;       // yyyy-MM-dd, optional: … up to here (inclusive)
+        private boolean horizon; // search the whole horizon
+        private List<String> advisors; // /advisors/slots only: subset to search, all when omitted
+        private Integer durationMinutes; // optional: appointment length, a multiple of the slot length
 
         public String getDate()        { return date; }
         public void   setDate(String d){ this.date = d; }
@@ -112,18 +692,34 @@ public class SchedulerController {
 
         public int    getCount()       { return count; }
         public void   setCount(int c)  { this.count = c; }
+
+        public String getFrom()        { return from; }
+        public void   setFrom(String f){ this.from = f; }
+
+        public String getTo()          { return to; }
+        public void   setTo(String t)  { this.to = t; }
+
+        public boolean isHorizon()          { return horizon; }
+        public void    setHorizon(boolean h){ this.horizon = h; }
+
+        public List<String> getAdvisors()            { return advisors; }
+        public void         setAdvisors(List<String> a){ this.advisors = a; }
+
+        public Integer getDurationMinutes()          { return durationMinutes; }
+        public void    setDurationMinutes(Integer m) { this.durationMinutes = m; }
     }
 
 
     /** JSON body for POST /book */
     @SuppressWarnings("unused")
     public static class BookingRequest {
-        @JsonProperty("client")
         private String date;      // yyyy-MM-dd, optional
         private String startTime; // HH:mm, required
         private String client;
         private String description;
         private String advisor;
+        private Integer durationMinutes; // optional: books that many minutes of back-to-back slots
+        private String idempotencyKey;   // optional: a retry with the same key gets the first outcome
 
         public String getDate() { return date; }
         public void   setDate(String d) { this.date = d; }
@@ -139,6 +735,52 @@ public class SchedulerController {
 
         public String getAdvisor() { return advisor; }
         public void   setAdvisor(String a) { this.advisor = a; }
+
+        public Integer getDurationMinutes() { return durationMinutes; }
+        public void    setDurationMinutes(Integer m) { this.durationMinutes = m; }
+
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void   setIdempotencyKey(String k) { this.idempotencyKey = k; }
+
+        /** Everything but the key, to tell a retry from another request reusing it. */
+        String fingerprint() {
+            return String.join("\u0000", String.valueOf(date), String.valueOf(startTime), String.valueOf(client),
+                    String.valueOf(description), String.valueOf(advisor), String.valueOf(durationMinutes));
+        }
+    }
+
+    /** JSON body for POST /book/batch */
+    @SuppressWarnings("unused")
+    public static class BatchBookingRequest {
+        private List<SlotRef> slots;  // required, at least one
+        private String client;
+        private String description;
+        private String advisor;
+
+        public List<SlotRef> getSlots() { return slots; }
+        public void setSlots(List<SlotRef> s) { this.slots = s; }
+
+        public String getClient() { return client; }
+        public void   setClient(String c) { this.client = c; }
+
+        public String getDescription() { return description; }
+        public void   setDescription(String d) { this.description = d; }
+
+        public String getAdvisor() { return advisor; }
+        public void   setAdvisor(String a) { this.advisor = a; }
+    }
+
+    /** One slot of a batch. */
+    @SuppressWarnings("unused")
+    public static class SlotRef {
+        private String date;      // yyyy-MM-dd, optional
+        private String startTime; // HH:mm, required
+
+        public String getDate() { return date; }
+        public void   setDate(String d) { this.date = d; }
+
+        public String getStartTime() { return startTime; }
+        public void   setStartTime(String t) { this.startTime = t; }
     }
 
     @SuppressWarnings("unused")
@@ -146,6 +788,7 @@ public class SchedulerController {
         private String date;       // yyyy-MM-dd, optional
         private String startTime;  // HH:mm, required
         private String client;     // required
+        private String idempotencyKey; // optional: a retry with the same key gets the first outcome
 
         public String getDate() { return date; }
         public void setDate(String date) { this.date = date; }
@@ -153,5 +796,65 @@ public class SchedulerController {
         public void setStartTime(String t) { this.startTime = t; }
         public String getClient() { return client; }
         public void setClient(String c) { this.client = c; }
+        public String getIdempotencyKey() { return idempotencyKey; }
+        public void setIdempotencyKey(String k) { this.idempotencyKey = k; }
+
+        /** Everything but the key, to tell a retry from another request reusing it. */
+        String fingerprint() {
+            return String.join("\u0000", String.valueOf(date), String.valueOf(startTime), String.valueOf(client));
+        }
+    }
+
+    /** JSON body for POST /cancel/all */
+    @SuppressWarnings("unused")
+    public static class CancelAllRequest {
+        private String client;  // required
+        private String from;    // yyyy-MM-dd, optional: first day to cancel on …
+        private String to;      // yyyy-MM-dd, optional: … last day (inclusive)
+
+        public String getClient() { return client; }
+        public void setClient(String c) { this.client = c; }
+        public String getFrom() { return from; }
+        public void setFrom(String f) { this.from = f; }
+        public String getTo() { return to; }
+        public void setTo(String t) { this.to = t; }
+    }
+
+    /** JSON body for POST /holds */
+    @SuppressWarnings("unused")
+    public static class HoldRequest {
+        private String  date;            // yyyy-MM-dd, optional
+        private String  startTime;       // HH:mm, required
+        private Integer durationMinutes; // optional: holds that many minutes of back-to-back slots
+        private Long    ttlSeconds;      // optional: scheduler.holds.default-ttl-seconds when omitted
+
+        public String getDate() { return date; }
+        public void   setDate(String d) { this.date = d; }
+
+        public String getStartTime() { return startTime; }
+        public void   setStartTime(String t) { this.startTime = t; }
+
+        public Integer getDurationMinutes() { return durationMinutes; }
+        public void    setDurationMinutes(Integer m) { this.durationMinutes = m; }
+
+        public Long getTtlSeconds() { return ttlSeconds; }
+        public void setTtlSeconds(Long s) { this.ttlSeconds = s; }
+    }
+
+    /** JSON body for POST /holds/{holdId}/confirm */
+    @SuppressWarnings("unused")
+    public static class ConfirmHoldRequest {
+        private String client;      // required
+        private String description;
+        private String advisor;
+
+        public String getClient() { return client; }
+        public void   setClient(String c) { this.client = c; }
+
+        public String getDescription() { return description; }
+        public void   setDescription(String d) { this.description = d; }
+
+        public String getAdvisor() { return advisor; }
+        public void   setAdvisor(String a) { this.advisor = a; }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,120 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+
+/**
+ * The API's fixed date and time formats — {@code yyyy-MM-dd} and
+ * {@code HH:mm[:ss]} — parsed straight into the primitive coordinates
+ * slots are addressed by (epoch day, second of day) and printed back
+ * into byte arrays, without the formatter machinery and garbage of
+ * {@link LocalDate#parse} and {@link LocalTime#parse}.
+ * <p>
+ * Any other input goes to {@code java.time}, so what is accepted and the
+ * {@link DateTimeParseException} for what is not stay exactly as before —
+ * except a time with a fraction of a second, which matches no slot and
+ * is refused rather than silently truncated onto one.
+ */
+final class SlotFormat {
+
+    /** Longest output of {@link #putDate} or {@link #putTime}. */
+    static final int MAX_CHARS = 18;
+
+    private static final long DAYS_0000_TO_1970 = 719_528;
+
+    private SlotFormat() {
+    }
+
+    /* ────────────────  Parsing  ──────────────── */
+
+    /** Epoch day of an ISO date. */
+    static long epochDay(String s) {
+        if (s.length() == 10 && s.charAt(4) == '-' && s.charAt(7) == '-') {
+            int y = digits(s, 0, 4), m = digits(s, 5, 2), d = digits(s, 8, 2);
+            if (y >= 0 && m >= 1 && m <= 12 && d >= 1 && d <= lengthOfMonth(y, m)) return epochDay(y, m, d);
+        }
+        return LocalDate.parse(s).toEpochDay();        // other forms, or the right exception
+    }
+
+    /** Second of day of an ISO time; a non-zero fraction of a second is rejected, not rounded off. */
+    static int secondOfDay(String s) {
+        int n = s.length();
+        if ((n == 5 || n == 8) && s.charAt(2) == ':' && (n == 5 || s.charAt(5) == ':')) {
+            int h = digits(s, 0, 2), m = digits(s, 3, 2), sec = n == 5 ? 0 : digits(s, 6, 2);
+            if (h >= 0 && h < 24 && m >= 0 && m < 60 && sec >= 0 && sec < 60) return h * 3600 + m * 60 + sec;
+        }
+        LocalTime t = LocalTime.parse(s);
+        if (t.getNano() != 0) throw new DateTimeParseException("Text '" + s + "' is not a whole second", s, 8);
+        return t.toSecondOfDay();
+    }
+
+    static LocalDate date(String s) {
+        return LocalDate.ofEpochDay(epochDay(s));
+    }
+
+    static LocalTime time(String s) {
+        return LocalTime.ofSecondOfDay(secondOfDay(s));
+    }
+
+    /** Value of the {@code n} decimal digits at {@code from}, or -1 if any of them is not one. */
+    private static int digits(String s, int from, int n) {
+        int v = 0;
+        for (int i = from; i < from + n; i++) {
+            int c = s.charAt(i) - '0';
+            if (c < 0 || c > 9) return -1;
+            v = v * 10 + c;
+        }
+        return v;
+    }
+
+    private static boolean isLeap(long y) {
+        return (y & 3) == 0 && (y % 100 != 0 || y % 400 == 0);
+    }
+
+    private static int lengthOfMonth(int y, int m) {
+        return m == 2 ? (isLeap(y) ? 29 : 28) : m == 4 || m == 6 || m == 9 || m == 11 ? 30 : 31;
+    }
+
+    /** Same arithmetic as {@link LocalDate#toEpochDay()}, for years 0 and up. */
+    private static long epochDay(int y, int m, int d) {
+        long total = 365L * y + (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        total += (367 * m - 362) / 12 + d - 1;
+        if (m > 2) total -= isLeap(y) ? 1 : 2;
+        return total - DAYS_0000_TO_1970;
+    }
+
+    /* ────────────────  Printing  ──────────────── */
+
+    /** Write {@code date} as {@code yyyy-MM-dd} at {@code at}; returns the position after it. */
+    static int putDate(byte[] b, int at, LocalDate date) {
+        int y = date.getYear();
+        if (y < 0 || y > 9999) return putAscii(b, at, date.toString());   // ISO's signed wide years
+        at = put(b, at, y, 4);
+        b[at++] = '-';
+        at = put(b, at, date.getMonthValue(), 2);
+        b[at++] = '-';
+        return put(b, at, date.getDayOfMonth(), 2);
+    }
+
+    /** Write {@code time} as {@code HH:mm:ss} (ISO_LOCAL_TIME of a whole second); returns the position after it. */
+    static int putTime(byte[] b, int at, LocalTime time) {
+        if (time.getNano() != 0) return putAscii(b, at, DateTimeFormatter.ISO_LOCAL_TIME.format(time));
+        at = put(b, at, time.getHour(), 2);
+        b[at++] = ':';
+        at = put(b, at, time.getMinute(), 2);
+        b[at++] = ':';
+        return put(b, at, time.getSecond(), 2);
+    }
+
+    private static int put(byte[] b, int at, int v, int width) {
+        for (int i = at + width - 1; i >= at; i--, v /= 10) b[i] = (byte) ('0' + v % 10);
+        return at + width;
+    }
+
+    private static int putAscii(byte[] b, int at, String s) {
+        for (int i = 0; i < s.length(); i++) b[at++] = (byte) s.charAt(i);
+        return at;
+    }
+}
@@ -0,0 +1,45 @@
+package com.demoscheduler.demoscheduler;
+
+import java.time.Duration;
+import java.time.LocalTime;
+
+/**
+ * The daily slot grid of a {@link Calendar}: slots of {@code slot} length
+ * from {@code start} (first slot) up to {@code end} (end of the last slot).
+ */
+public record SlotGrid(LocalTime start, LocalTime end, Duration slot) {
+
+    /** 15-minute slots from 09:00 to 17:00 — 32 per day. */
+    public static final SlotGrid DEFAULT = new SlotGrid(LocalTime.of(9, 0), LocalTime.of(17, 0), Duration.ofMinutes(15));
+
+    public SlotGrid {
+        if (slot.isNegative() || slot.isZero() || slot.getNano() != 0) {
+            throw new IllegalArgumentException("slot length must be a positive number of seconds: " + slot);
+        }
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("grid start " + start + " must be before end " + end);
+        }
+        if ((end.toSecondOfDay() - start.toSecondOfDay()) % slot.toSeconds() != 0) {
+            throw new IllegalArgumentException("grid " + start + "–" + end + " is not a whole number of " + slot + " slots");
+        }
+    }
+
+    public int slotsPerDay() {
+        return (int) ((end.toSecondOfDay() - start.toSecondOfDay()) / slot.toSeconds());
+    }
+
+    /**
+     * Number of consecutive slots making up {@code length}.
+     *
+     * @throws IllegalArgumentException unless {@code length} is a positive multiple of the slot
+     *                                  length that fits into one day
+     */
+    public int slotsFor(Duration length) {
+        long secs = length.toSeconds();
+        if (secs <= 0 || length.getNano() != 0 || secs % slot.toSeconds() != 0
+                || secs / slot.toSeconds() > slotsPerDay()) {
+            throw new IllegalArgumentException("length must be a multiple of " + slot + " within one day: " + length);
+        }
+        return (int) (secs / slot.toSeconds());
+    }
+}
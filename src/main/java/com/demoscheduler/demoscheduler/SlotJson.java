@@ -0,0 +1,203 @@
+package com.demoscheduler.demoscheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * JSON for lists of {@link Event}s, the document Spring Boot's Jackson
+ * mapper writes for them (same properties in the same order, date/time
+ * formats and escaping):
+ * <pre>
+ *   {"startTime":"09:00:00","endTime":"09:15:00","date":"2025-03-10","booked":false,"advisor":"","client":"","description":""}
+ * </pre>
+ * The times are the same for a grid position on every day, so a calendar
+ * encodes them once per time of day ({@link #heads}) and its {@link Day}s
+ * hand them out with their events; the date goes in behind them, and a
+ * free slot's tail is a constant: a response of free slots is a row of
+ * array copies.  Events without a head (runs of several slots) are encoded
+ * straight into the output buffer.
+ */
+final class SlotJson {
+
+    private static final byte[] START  = ascii("{\"startTime\":\"");
+    private static final byte[] END    = ascii("\",\"endTime\":\"");
+    private static final byte[] DATE   = ascii("\",\"date\":\"");
+    private static final byte[] FREE   = ascii("\"booked\":false,\"advisor\":\"\",\"client\":\"\",\"description\":\"\"}");
+    private static final byte[] BOOKED = ascii("\"booked\":true,\"advisor\":");
+    private static final byte[] CLIENT = ascii(",\"client\":");
+    private static final byte[] DESC   = ascii(",\"description\":");
+    private static final byte[] NULL   = ascii("null");
+    private static final byte[] HEX    = ascii("0123456789ABCDEF");
+
+    /** Bytes of a free slot's object with the usual date and time widths. */
+    static final int FREE_SLOT_BYTES = START.length + END.length + DATE.length + 2 + 8 + 8 + 10 + FREE.length;
+
+    private SlotJson() {
+    }
+
+    /**
+     * Start of the object of each of {@code count} slots of {@code step}
+     * seconds from {@code start}, through the quote opening {@code "date"}'s
+     * value: one array per time of day, shared by all days.
+     */
+    static byte[][] heads(LocalTime start, int step, int count) {
+        byte[][] heads = new byte[count][];
+        for (int i = 0; i < count; i++) {
+            LocalTime from = start.plusSeconds((long) i * step);
+            byte[] b = new byte[START.length + END.length + DATE.length + 2 * SlotFormat.MAX_CHARS];
+            heads[i] = Arrays.copyOf(b, putTimes(b, 0, from, from.plusSeconds(step)));
+        }
+        return heads;
+    }
+
+    /** {@code events} as a JSON array. */
+    static byte[] write(List<Event> events) {
+        Buffer out = new Buffer(events.size() * (FREE_SLOT_BYTES + 1) + 1);   // brackets and commas: n + 1
+        out.put((byte) '[');
+        for (int i = 0; i < events.size(); i++) {
+            if (i > 0) out.put((byte) ',');
+            write(out, events.get(i));
+        }
+        out.put((byte) ']');
+        return out.toByteArray();
+    }
+
+    private static void write(Buffer out, Event e) {
+        byte[] head = e.head;
+        if (head != null) {
+            out.put(head);
+            out.ensure(SlotFormat.MAX_CHARS + 2);
+            out.pos = putDate(out.bytes, out.pos, e.getDate());
+        } else {
+            out.ensure(START.length + END.length + DATE.length + 2 + 3 * SlotFormat.MAX_CHARS);
+            out.pos = putDate(out.bytes, putTimes(out.bytes, out.pos, e.getStartTime(), e.getEndTime()), e.getDate());
+        }
+        if (!e.isBooked()) {
+            out.put(FREE);
+            return;
+        }
+        out.put(BOOKED);
+        string(out, e.getAdvisor());
+        out.put(CLIENT);
+        string(out, e.getClient());
+        out.put(DESC);
+        string(out, e.getDescription());
+        out.put((byte) '}');
+    }
+
+    private static int putTimes(byte[] b, int at, LocalTime start, LocalTime end) {
+        at = put(b, at, START);
+        at = SlotFormat.putTime(b, at, start);
+        at = put(b, at, END);
+        at = SlotFormat.putTime(b, at, end);
+        return put(b, at, DATE);
+    }
+
+    /** The date's value and the comma after it. */
+    private static int putDate(byte[] b, int at, LocalDate date) {
+        at = SlotFormat.putDate(b, at, date);
+        b[at++] = '"';
+        b[at++] = ',';
+        return at;
+    }
+
+    /** A JSON string in UTF-8, escaped like Jackson does; {@code null} as {@code null}. */
+    private static void string(Buffer out, String s) {
+        if (s == null) {
+            out.put(NULL);
+            return;
+        }
+        out.ensure(2 + 6 * s.length());                  // worst case: six bytes a char
+        byte[] b = out.bytes;
+        int at = out.pos;
+        b[at++] = '"';
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (Character.isSurrogate(c)) {
+                at = unicodeEscape(b, at, c);
+            } else if (c >= 0x80) {
+                at = utf8(b, at, c);
+            } else if (c == '"' || c == '\\') {
+                b[at++] = '\\';
+                b[at++] = (byte) c;
+            } else if (c < 0x20) {
+                b[at++] = '\\';
+                switch (c) {
+                    case '\b' -> b[at++] = 'b';
+                    case '\t' -> b[at++] = 't';
+                    case '\n' -> b[at++] = 'n';
+                    case '\f' -> b[at++] = 'f';
+                    case '\r' -> b[at++] = 'r';
+                    default -> at = unicodeEscape(b, at - 1, c);
+                }
+            } else {
+                b[at++] = (byte) c;
+            }
+        }
+        b[at++] = '"';
+        out.pos = at;
+    }
+
+    /** UTF-8 of a non-ASCII char outside the surrogate range. */
+    private static int utf8(byte[] b, int at, char c) {
+        if (c < 0x800) {
+            b[at++] = (byte) (0xC0 | c >> 6);
+        } else {
+            b[at++] = (byte) (0xE0 | c >> 12);
+            b[at++] = (byte) (0x80 | c >> 6 & 0x3F);
+        }
+        b[at++] = (byte) (0x80 | c & 0x3F);
+        return at;
+    }
+
+    /** {@code c} as a JSON unicode escape; Jackson writes surrogates (so characters beyond the BMP) this way too. */
+    private static int unicodeEscape(byte[] b, int at, char c) {
+        b[at++] = '\\';
+        b[at++] = 'u';
+        b[at++] = HEX[c >> 12];
+        b[at++] = HEX[c >> 8 & 0xF];
+        b[at++] = HEX[c >> 4 & 0xF];
+        b[at++] = HEX[c & 0xF];
+        return at;
+    }
+
+    private static int put(byte[] b, int at, byte[] src) {
+        System.arraycopy(src, 0, b, at, src.length);
+        return at + src.length;
+    }
+
+    private static byte[] ascii(String s) {
+        return s.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    /** Growable output array; sized up front for an all-free response so it normally never grows. */
+    private static final class Buffer {
+        byte[] bytes;
+        int    pos;
+
+        Buffer(int capacity) {
+            bytes = new byte[capacity];
+        }
+
+        void ensure(int n) {
+            if (pos + n > bytes.length) bytes = Arrays.copyOf(bytes, Math.max(pos + n, bytes.length * 2));
+        }
+
+        void put(byte b) {
+            ensure(1);
+            bytes[pos++] = b;
+        }
+
+        void put(byte[] src) {
+            ensure(src.length);
+            pos = SlotJson.put(bytes, pos, src);
+        }
+
+        byte[] toByteArray() {
+            return pos == bytes.length ? bytes : Arrays.copyOf(bytes, pos);
+        }
+    }
+}
@@ -0,0 +1,92 @@
+package com.demoscheduler.demoscheduler;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Serialized search responses, keyed by the query and the version of the
+ * days it reads ({@link Calendar#version(java.time.LocalDate, java.time.LocalDate)}).
+ * <p>
+ * A fixed array of entries indexed by the query's hash: lookups and stores
+ * are one array access each, with no locks and no eviction bookkeeping; a
+ * query whose slot holds another query, or an older version, is a miss and
+ * simply replaces it.  Memory is bounded by {@code entries × maxBodyBytes}.
+ * <p>
+ * ETags depend only on the query, the version and this cache's epoch (so
+ * tags from before a restart never match), which lets a conditional request
+ * be answered without touching the cache.  The query part is 128 bits of
+ * a SHA-256 of the query's {@code toString()}, which must spell out every
+ * component (a record's does), so two queries never share a tag.
+ */
+public final class SlotResponseCache {
+
+    /** A cached response body and its ETag. */
+    public record Response(String etag, byte[] body) { }
+
+    private record Entry(Object query, long version, Response response) { }
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final int                         mask;
+    private final int                         maxBodyBytes;
+    private final long                        epoch = System.currentTimeMillis();
+
+    /**
+     * @param entries      number of cached responses, a power of two
+     * @param maxBodyBytes larger responses are not kept
+     */
+    public SlotResponseCache(int entries, int maxBodyBytes) {
+        if (entries < 1 || Integer.bitCount(entries) != 1) {
+            throw new IllegalArgumentException("entries must be a power of two: " + entries);
+        }
+        this.entries      = new AtomicReferenceArray<>(entries);
+        this.mask         = entries - 1;
+        this.maxBodyBytes = maxBodyBytes;
+    }
+
+    /** Quoted ETag of {@code query}'s response at {@code version}. */
+    public String etag(Object query, long version) {
+        return "\"" + Long.toHexString(epoch) + "-" + Long.toHexString(version)
+                + "-" + digest(query.toString()) + "\"";
+    }
+
+    private static String digest(String canonical) {
+        try {
+            byte[] sha = MessageDigest.getInstance("SHA-256").digest(canonical.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(sha, 0, 16);         // 128 bits are plenty against collisions
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);          // every JVM has SHA-256
+        }
+    }
+
+    /** Does an {@code If-None-Match} header list {@code etag} (or {@code *})? */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            String t = tag.trim();
+            if (t.startsWith("W/")) t = t.substring(2);
+            if (t.equals("*") || t.equals(etag)) return true;
+        }
+        return false;
+    }
+
+    /** The cached response of {@code query} at {@code version}, or {@code null}. */
+    public Response get(Object query, long version) {
+        Entry e = entries.get(index(query));
+        return e != null && e.version() == version && e.query().equals(query) ? e.response() : null;
+    }
+
+    /** Cache {@code body} as {@code query}'s response at {@code version}. */
+    public Response put(Object query, long version, byte[] body) {
+        Response r = new Response(etag(query, version), body);
+        if (body.length <= maxBodyBytes) entries.set(index(query), new Entry(query, version, r));
+        return r;
+    }
+
+    private int index(Object query) {
+        int h = query.hashCode();
+        return (h ^ (h >>> 16)) & mask;
+    }
+}
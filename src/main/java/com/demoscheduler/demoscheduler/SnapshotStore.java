@@ -0,0 +1,222 @@
+package com.demoscheduler.demoscheduler;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32C;
+
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Compact binary snapshots of a {@link Calendar}, so a restart restores in
+ * one pass over a memory-mapped file and only replays the journal tail.
+ * <p>
+ * File layout (big-endian):
+ * <pre>
+ *   int    magic "DSNP", int format
+ *   long   journal offset the snapshot is valid up to
+ *   long   first day (epoch day), int days, int slots per day
+ *   int    first slot start (second of day), int slot length (seconds)
+ *   int    string count, then each string: unsigned short length + UTF-8
+ *   long[] occupancy bitmap words, day by day
+ *   int[3] (client, description, advisor) string ids per booked slot, in bitmap order
+ *   int    CRC32C of everything above
+ * </pre>
+ * Each write goes to a temp file that is fsynced and atomically renamed over
+ * the previous snapshot, so the file on disk is always a complete one.
+ * Strings are limited to {@link JournalRecord#MAX_STRING} UTF-8 bytes, as in
+ * the journal; a calendar holding a longer one cannot be snapshotted.
+ */
+public final class SnapshotStore {
+
+    private static final int MAGIC  = 0x44534E50;   // "DSNP"
+    private static final int FORMAT = 1;
+
+    /** Receives each booking of a loaded snapshot. */
+    @FunctionalInterface
+    public interface BookingSink {
+        void accept(LocalDate date, LocalTime startTime, Booking booking);
+    }
+
+    private final Path file;
+
+    public SnapshotStore(Path file) {
+        this.file = file;
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    /* ────────────────  Write  ──────────────── */
+
+    /**
+     * What a snapshot file holds, copied straight from the calendar's day
+     * columns (see {@link Calendar#writeSnapshot}): the occupancy bitmap
+     * words day by day, and the client, description and advisor of each
+     * booked slot in bitmap order.
+     *
+     * @param version    calendar version the copy was taken at
+     * @param consistent whether no write overlapped the copy
+     */
+    public record Image(long version, boolean consistent, long journalOffset, LocalDate firstDate, int days,
+                        int slotsPerDay, int startSecond, int stepSeconds, long[] bitmaps, List<String> bookings) {
+
+        /** Pass every booking to {@code sink}, in date/time order. */
+        public void forEachBooking(BookingSink sink) {
+            int words = (slotsPerDay + 63) >>> 6;
+            int at = 0;
+            for (int d = 0; d < days; d++) {
+                LocalDate date = firstDate.plusDays(d);
+                for (int w = 0; w < words; w++) {
+                    long word = bitmaps[d * words + w];
+                    while (word != 0) {
+                        int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                        word &= word - 1;
+                        sink.accept(date, LocalTime.ofSecondOfDay(startSecond + (long) i * stepSeconds),
+                                new Booking(bookings.get(at), bookings.get(at + 1), bookings.get(at + 2)));
+                        at += 3;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Persist {@code image}, replacing the previous snapshot.
+     *
+     * @throws IllegalArgumentException if a booking has a string too long to encode;
+     *                                  the previous snapshot is kept
+     */
+    public void write(Image image) {
+        try {
+            if (file.getParent() != null) Files.createDirectories(file.getParent());
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            try (FileChannel ch = FileChannel.open(tmp, CREATE, WRITE, TRUNCATE_EXISTING)) {
+                ByteBuffer buf = encode(image);
+                while (buf.hasRemaining()) ch.write(buf);
+                ch.force(true);
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("snapshot write failed: " + file, e);
+        }
+    }
+
+    private static ByteBuffer encode(Image image) {
+        List<String> bookings = image.bookings();
+
+        // string table (deduplicated) + each booking's string ids
+        Map<String, Integer> ids = new HashMap<>();
+        List<byte[]> strings = new ArrayList<>();
+        int[] refs = new int[bookings.size()];
+        int stringBytes = 0;
+        for (int i = 0; i < refs.length; i++) {
+            String s = bookings.get(i);
+            Integer id = ids.putIfAbsent(s, strings.size());
+            if (id == null) {
+                byte[] b = s.getBytes(StandardCharsets.UTF_8);
+                if (b.length > JournalRecord.MAX_STRING) {
+                    throw new IllegalArgumentException("string of " + b.length + " bytes in snapshot, max "
+                            + JournalRecord.MAX_STRING);
+                }
+                id = strings.size();
+                strings.add(b);
+                stringBytes += 2 + b.length;
+            }
+            refs[i] = id;
+        }
+
+        int size = 4 + 4 + 8 + 8 + 4 + 4 + 4 + 4 + 4 + stringBytes
+                + image.bitmaps().length * 8 + refs.length * 4 + 4;
+        ByteBuffer buf = ByteBuffer.allocate(size);
+
+        buf.putInt(MAGIC).putInt(FORMAT)
+                .putLong(image.journalOffset())
+                .putLong(image.firstDate().toEpochDay()).putInt(image.days()).putInt(image.slotsPerDay())
+                .putInt(image.startSecond()).putInt(image.stepSeconds())
+                .putInt(strings.size());
+        for (byte[] b : strings) buf.putShort((short) b.length).put(b);
+        for (long word : image.bitmaps()) buf.putLong(word);
+        for (int ref : refs) buf.putInt(ref);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buf.array(), 0, buf.position());
+        buf.putInt((int) crc.getValue());
+        return buf.flip();
+    }
+
+    /* ────────────────  Load  ──────────────── */
+
+    /**
+     * Memory-map the snapshot and stream its bookings into {@code sink}.
+     *
+     * @return the journal offset the snapshot is valid up to, or -1 if there
+     *         is no usable snapshot (missing, truncated or failing its checksum)
+     */
+    public long load(BookingSink sink) {
+        if (!Files.isRegularFile(file)) return -1;
+        try (FileChannel ch = FileChannel.open(file, READ)) {
+            long size = ch.size();
+            if (size < 48 || size > Integer.MAX_VALUE) return -1;
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            return decode(map, sink);
+        } catch (IOException e) {
+            throw new UncheckedIOException("snapshot load failed: " + file, e);
+        }
+    }
+
+    private static long decode(ByteBuffer map, BookingSink sink) {
+        int body = map.limit() - 4;
+        CRC32C crc = new CRC32C();
+        crc.update(map.slice(0, body));
+        if ((int) crc.getValue() != map.getInt(body)) return -1;
+        if (map.getInt() != MAGIC || map.getInt() != FORMAT) return -1;
+
+        long journalOffset = map.getLong();
+        LocalDate first    = LocalDate.ofEpochDay(map.getLong());
+        int days           = map.getInt();
+        int perDay         = map.getInt();
+        int startSecond    = map.getInt();
+        int stepSeconds    = map.getInt();
+        int words          = (perDay + 63) >>> 6;
+
+        String[] strings = new String[map.getInt()];
+        for (int i = 0; i < strings.length; i++) {
+            int len = Short.toUnsignedInt(map.getShort());
+            strings[i] = StandardCharsets.UTF_8.decode(map.slice(map.position(), len)).toString();
+            map.position(map.position() + len);
+        }
+
+        // bookings follow the bitmaps; walk both in step
+        int bookings = map.position() + days * words * 8;
+        for (int d = 0; d < days; d++) {
+            LocalDate date = first.plusDays(d);
+            for (int w = 0; w < words; w++) {
+                long word = map.getLong();
+                while (word != 0) {
+                    int i = (w << 6) + Long.numberOfTrailingZeros(word);
+                    word &= word - 1;
+                    Booking b = new Booking(strings[map.getInt(bookings)],
+                            strings[map.getInt(bookings + 4)],
+                            strings[map.getInt(bookings + 8)]);
+                    bookings += 12;
+                    sink.accept(date, LocalTime.ofSecondOfDay(startSecond + (long) i * stepSeconds), b);
+                }
+            }
+        }
+        return journalOffset;
+    }
+}
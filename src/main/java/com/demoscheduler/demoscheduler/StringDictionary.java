@@ -0,0 +1,107 @@
+package com.demoscheduler.demoscheduler;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+
+/**
+ * Dictionary mapping strings to dense int ids {@code 1, 2, …}
+ * ({@link #NONE} = no string).  Used to store client and advisor names of
+ * bookings as ints.  Strings no slot refers to any more are dropped by
+ * {@link #retainOnly} on rollover; their ids are never handed out again,
+ * so a stale reader can miss a name but never get someone else's, and
+ * what stays behind per name ever seen is one array slot.
+ * <p>
+ * {@link #name} is a lock-free array read; only adding a new string locks.
+ */
+final class StringDictionary {
+
+    static final int NONE = 0;
+
+    private final ConcurrentHashMap<String, Integer> ids = new ConcurrentHashMap<>();
+
+    /** {@code names[id]}; republished on every insert so readers see the new entry. */
+    private volatile String[] names = new String[64];
+
+    /** Next id to hand out; guarded by {@code this}. */
+    private int next = 1;
+
+    /**
+     * Read-held by writers from looking up a slot's ids until the slot is
+     * published, write-held by {@link #retainOnly}: a sweep never misses an
+     * id that is about to be stored.
+     */
+    private final StampedLock pins = new StampedLock();
+
+    /** Id of {@code s}, adding it if it is new. */
+    int id(String s) {
+        Integer id = ids.get(s);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ids.get(s);
+            if (id != null) return id;
+            String[] n = names;
+            if (next == n.length) n = Arrays.copyOf(n, n.length * 2);
+            n[next] = s;
+            names = n;
+            ids.put(s, next);
+            return next++;
+        }
+    }
+
+    /** Id of {@code s}, or {@link #NONE} if it was never added. */
+    int find(String s) {
+        Integer id = ids.get(s);
+        return id == null ? NONE : id;
+    }
+
+    /** The string behind an id handed out by {@link #id}; {@code null} once dropped. */
+    String name(int id) {
+        return names[id];
+    }
+
+    /** Number of distinct strings. */
+    int size() {
+        return ids.size();
+    }
+
+    /** Pin the ids about to be looked up until {@link #unpin}; see {@link #retainOnly}. */
+    long pin() {
+        return pins.readLock();
+    }
+
+    void unpin(long stamp) {
+        pins.unlockRead(stamp);
+    }
+
+    /**
+     * Drop every string whose id {@code live} does not report.  Waits for
+     * pinned writers and holds off new ones while {@code live} runs.
+     *
+     * @param live passes every id still in use to the consumer it is given
+     * @return the dropped ids
+     */
+    BitSet retainOnly(Consumer<IntConsumer> live) {
+        long stamp = pins.writeLock();
+        try {
+            BitSet keep = new BitSet();
+            live.accept(keep::set);
+            BitSet dropped = new BitSet();
+            synchronized (this) {
+                String[] n = names;
+                for (int id = NONE + 1; id < next; id++) {
+                    if (n[id] == null || keep.get(id)) continue;
+                    ids.remove(n[id]);
+                    n[id] = null;
+                    dropped.set(id);
+                }
+            }
+            return dropped;
+        } finally {
+            pins.unlockWrite(stamp);
+        }
+    }
+}
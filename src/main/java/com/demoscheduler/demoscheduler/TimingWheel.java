@@ -0,0 +1,155 @@
+package com.demoscheduler.demoscheduler;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel: {@value #LEVELS} wheels of {@value #SLOTS}
+ * buckets, each level's bucket spanning a whole turn of the level below
+ * ({@code tick}, 64·tick, 4096·tick, …).  A timer goes into the coarsest
+ * level that still resolves its deadline and moves down a level each time
+ * the wheel reaches its bucket ("cascading"), so
+ * <ul>
+ *   <li>{@link #schedule} and {@link Timer#cancel} are O(1) — buckets are
+ *       doubly-linked lists;</li>
+ *   <li>{@link #advance} costs O(1) per elapsed tick plus the timers that
+ *       fire or cascade, however many are outstanding — no scans.</li>
+ * </ul>
+ * Timers never fire early; they fire on the first {@code advance} at or
+ * after their deadline, rounded up to a tick.  Deadlines beyond the wheel's
+ * range ({@code 64^4} ticks) are parked at its far end and cascade from
+ * there.  Thread-safe: every operation holds the wheel's monitor briefly,
+ * and expired items are handed out after it is released.
+ */
+final class TimingWheel<T> {
+
+    static final int LEVELS = 4;
+    static final int SLOTS  = 64;
+    private static final int  BITS  = 6;
+    private static final long RANGE = 1L << (BITS * LEVELS);
+
+    /** A scheduled item; unlinked when it fires or is cancelled. */
+    static final class Timer<T> {
+        final T    item;
+        final long tick;
+        private final TimingWheel<T> wheel;
+        private Timer<T> prev, next;
+
+        private Timer(TimingWheel<T> wheel, T item, long tick) {
+            this.wheel = wheel;
+            this.item  = item;
+            this.tick  = tick;
+        }
+
+        /** @return {@code false} if the timer already fired or was cancelled */
+        boolean cancel() {
+            synchronized (wheel) {
+                if (prev == null) return false;
+                wheel.unlink(this);
+                return true;
+            }
+        }
+    }
+
+    private final long         tickMillis;
+    private final Timer<T>[][] buckets;   // sentinels of circular lists
+    private long               currentTick;
+    private int                size;
+
+    @SuppressWarnings("unchecked")
+    TimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis < 1) throw new IllegalArgumentException("tickMillis must be positive");
+        this.tickMillis  = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.buckets     = new Timer[LEVELS][SLOTS];
+        for (Timer<T>[] level : buckets) {
+            for (int i = 0; i < SLOTS; i++) {
+                Timer<T> sentinel = new Timer<>(this, null, -1);
+                sentinel.prev = sentinel.next = sentinel;
+                level[i] = sentinel;
+            }
+        }
+    }
+
+    /** Fire {@code item} at {@code deadlineMillis}; already-due deadlines fire on the next {@link #advance}. */
+    synchronized Timer<T> schedule(T item, long deadlineMillis) {
+        long tick = Math.floorDiv(deadlineMillis + tickMillis - 1, tickMillis);
+        Timer<T> t = new Timer<>(this, item, Math.max(tick, currentTick));
+        insert(t);
+        size++;
+        return t;
+    }
+
+    /** Outstanding timers. */
+    synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Run the wheel up to {@code nowMillis} and pass every timer that came
+     * due to {@code expired}, in deadline order, outside the monitor.
+     *
+     * @return the number of timers fired
+     */
+    int advance(long nowMillis, Consumer<? super T> expired) {
+        Timer<T> fired = null, last = null;
+        int n = 0;
+        synchronized (this) {
+            long nowTick = nowMillis / tickMillis;
+            if (size == 0 && currentTick <= nowTick) currentTick = nowTick + 1;
+            for (; currentTick <= nowTick; currentTick++) {
+                int idx = (int) (currentTick & (SLOTS - 1));
+                if (idx == 0) cascade();
+                Timer<T> head = buckets[0][idx];
+                while (head.next != head) {
+                    Timer<T> t = head.next;
+                    unlink(t);
+                    if (last == null) fired = t; else last.next = t;  // reuse next as a plain list
+                    last = t;
+                    n++;
+                }
+            }
+        }
+        for (Timer<T> t = fired; t != null; ) {
+            Timer<T> following = t == last ? null : t.next;
+            t.next = null;
+            expired.accept(t.item);
+            t = following;
+        }
+        return n;
+    }
+
+    /** Entering a new turn of level 0: pull the next bucket of each level that also turned over. */
+    private void cascade() {
+        for (int level = 1; level < LEVELS; level++) {
+            int idx = (int) ((currentTick >>> (BITS * level)) & (SLOTS - 1));
+            Timer<T> head = buckets[level][idx];
+            Timer<T> t = head.next;
+            head.prev = head.next = head;
+            while (t != head) {
+                Timer<T> following = t.next;
+                insert(t);
+                t = following;
+            }
+            if (idx != 0) return;
+        }
+    }
+
+    private void insert(Timer<T> t) {
+        long delta = Math.min(t.tick - currentTick, RANGE - 1);
+        long tick  = currentTick + delta;               // far deadlines park at the end of the range
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= 1L << (BITS * (level + 1))) level++;
+        Timer<T> head = buckets[level][(int) ((tick >>> (BITS * level)) & (SLOTS - 1))];
+        t.prev = head.prev;
+        t.next = head;
+        head.prev.next = t;
+        head.prev = t;
+    }
+
+    private void unlink(Timer<T> t) {
+        t.prev.next = t.next;
+        t.next.prev = t.prev;
+        t.prev = t.next = null;
+        size--;
+    }
+}
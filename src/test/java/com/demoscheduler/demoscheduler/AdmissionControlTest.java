@@ -0,0 +1,109 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Token buckets and the adaptive concurrency limit, on a hand-driven clock.
+ */
+class AdmissionControlTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final AtomicLong now = new AtomicLong(123 * MS);
+
+    @Test
+    void bucketAllowsItsBurstThenItsRatePerClient() {
+        ClientRateLimiter rate = new ClientRateLimiter(10, 3, 100, now::get);   // a token every 100 ms
+
+        for (int i = 0; i < 3; i++) assertEquals(0, rate.tryAcquire("alice"), "burst");
+        long wait = rate.tryAcquire("alice");
+        assertEquals(100 * MS, wait, "next token in 100 ms");
+        assertEquals(0, rate.tryAcquire("bob"), "buckets are per client");
+
+        now.addAndGet(wait);
+        assertEquals(0, rate.tryAcquire("alice"));
+        assertTrue(rate.tryAcquire("alice") > 0);
+
+        now.addAndGet(10_000 * MS);                                           // long idle: full again, not more
+        for (int i = 0; i < 3; i++) assertEquals(0, rate.tryAcquire("alice"));
+        assertTrue(rate.tryAcquire("alice") > 0);
+    }
+
+    @Test
+    void clientsBeyondTheTableShareOneBucketUntilIdleOnesAreSwept() {
+        ClientRateLimiter rate = new ClientRateLimiter(1, 1, 2, now::get);
+        assertEquals(0, rate.tryAcquire("a"));
+        assertEquals(0, rate.tryAcquire("b"));
+        assertEquals(0, rate.tryAcquire("c"), "overflow bucket");
+        assertTrue(rate.tryAcquire("d") > 0, "shares c's bucket");
+        assertEquals(3, rate.clients());
+
+        now.addAndGet(2_000 * MS);                                            // every bucket full again
+        assertEquals(0, rate.tryAcquire("e"));
+        assertEquals(1, rate.clients(), "full buckets swept, e has its own");
+    }
+
+    @Test
+    void limitRejectsBeyondItAndBacksOffWhenLatencyClimbs() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 2.0,
+                Duration.ofMillis(100), now::get);
+        for (int i = 0; i < 20; i++) assertTrue(limiter.tryAcquire());
+        assertFalse(limiter.tryAcquire(), "fails fast at the limit");
+        assertEquals(20, limiter.inFlight());
+
+        for (int i = 0; i < 20; i++) limiter.release(MS);
+
+        // windows at 1 ms set the baseline and use the whole limit: it grows
+        for (int w = 0; w < 5; w++) fullWindow(limiter, MS);
+        int grown = limiter.limit();
+        assertTrue(grown > 20, "grew to " + grown);
+
+        // requests now take 10 ms: well past twice the baseline, the limit shrinks
+        int limit = grown;
+        for (int w = 0; w < 10; w++) {
+            fullWindow(limiter, 10 * MS);
+            assertTrue(limiter.limit() <= limit, "never grows while slow");
+            limit = limiter.limit();
+        }
+        assertTrue(limit < grown * 2 / 3, "backed off from " + grown + " to " + limit);
+        assertTrue(limit >= 2);
+        assertEquals(0, limiter.inFlight());
+    }
+
+    /** Fill the limit, then complete every request with {@code latency}; the last one closes the window. */
+    private void fullWindow(AdaptiveConcurrencyLimiter limiter, long latency) {
+        int n = limiter.limit();
+        for (int i = 0; i < n; i++) assertTrue(limiter.tryAcquire());
+        for (int i = 0; i < n - 1; i++) limiter.release(latency);
+        now.addAndGet(100 * MS);
+        limiter.release(latency);
+    }
+
+    @Test
+    void unusedLimitDoesNotGrow() {
+        AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(20, 2, 100, 2.0,
+                Duration.ofMillis(100), now::get);
+        for (int w = 0; w < 5; w++) {
+            for (int i = 0; i < 50; i++) {                                    // one at a time
+                assertTrue(limiter.tryAcquire());
+                if (i == 49) now.addAndGet(100 * MS);
+                limiter.release(MS);
+            }
+        }
+        assertEquals(20, limiter.limit());
+    }
+
+    @Test
+    void searchesAreReadsAndEverythingElsePostedIsAWrite() {
+        assertTrue(AdmissionFilter.isRead("GET", "/api/scheduler/bookings"));
+        assertTrue(AdmissionFilter.isRead("POST", "/api/scheduler/slots"));
+        assertTrue(AdmissionFilter.isRead("POST", "/api/scheduler/advisors/slots"));
+        assertFalse(AdmissionFilter.isRead("POST", "/api/scheduler/book"));
+        assertFalse(AdmissionFilter.isRead("DELETE", "/api/scheduler/holds/x"));
+    }
+}
@@ -0,0 +1,121 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.RequestPostProcessor;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Which bucket a request is charged to: its remote address, unless a
+ * trusted proxy or an authenticated caller names the client; and the 429s
+ * and 503s the filter answers in front of stand-in endpoints.
+ */
+class AdmissionFilterTest {
+
+    private final ClientRateLimiter          rate    = new ClientRateLimiter(10, 10, 100);
+    private final AdaptiveConcurrencyLimiter limiter = new AdaptiveConcurrencyLimiter(10, 1, 10, 2.0, Duration.ofMillis(100));
+
+    private static MockHttpServletRequest request(String remote, String clientId) {
+        MockHttpServletRequest req = new MockHttpServletRequest("POST", "/api/scheduler/book");
+        req.setRemoteAddr(remote);
+        if (clientId != null) req.addHeader("X-Client-Id", clientId);
+        return req;
+    }
+
+    @Test
+    void clientHeaderIsBelievedOnlyFromTrustedProxiesAndAuthenticatedCallers() {
+        AdmissionFilter filter = new AdmissionFilter(rate, rate, limiter, limiter, "X-Client-Id", List.of(" 10.0.0.1 "));
+
+        assertEquals("10.0.0.9", filter.client(request("10.0.0.9", "alice")), "anyone can send the header");
+        assertEquals("alice", filter.client(request("10.0.0.1", "alice")), "the proxy sets it");
+        assertEquals("10.0.0.1", filter.client(request("10.0.0.1", null)));
+
+        MockHttpServletRequest signedIn = request("10.0.0.9", "alice");
+        signedIn.setUserPrincipal(() -> "alice");
+        assertEquals("alice", filter.client(signedIn));
+    }
+
+    @Test
+    void withoutAClientHeaderEveryoneIsTheirRemoteAddress() {
+        AdmissionFilter filter = new AdmissionFilter(rate, rate, limiter, limiter, "", List.of("10.0.0.1"));
+
+        assertEquals("10.0.0.1", filter.client(request("10.0.0.1", "alice")));
+        assertEquals("10.0.0.9", filter.client(request("10.0.0.9", null)));
+    }
+
+    @Test
+    void spentBucketAnswers429WithRetryAfterAndSearchesSpendTheReadBudget() throws Exception {
+        long[] now = { 0 };
+        ClientRateLimiter readRate  = new ClientRateLimiter(1, 10, 100, () -> now[0]);
+        ClientRateLimiter writeRate = new ClientRateLimiter(1, 1, 100, () -> now[0]);
+        MockMvc mvc = mvc(new AdmissionFilter(readRate, writeRate, limiter, limiter, "", List.of()));
+
+        mvc.perform(post("/api/scheduler/book")).andExpect(status().isOk());
+        now[0] = 100_000_000;                            // the next token is 0.9 s away
+        mvc.perform(post("/api/scheduler/book"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
+        mvc.perform(post("/api/scheduler/slots")).andExpect(status().isOk());
+        mvc.perform(get("/api/scheduler/slots")).andExpect(status().isOk());
+        mvc.perform(post("/api/scheduler/book").with(remote("10.0.0.9"))).andExpect(status().isOk());
+
+        now[0] = 1_000_000_000;
+        mvc.perform(post("/api/scheduler/book")).andExpect(status().isOk());
+    }
+
+    @Test
+    void saturatedBudgetAnswers503WithRetryAfterButStreamsStillOpen() throws Exception {
+        AdaptiveConcurrencyLimiter reads  = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, Duration.ofMinutes(1));
+        AdaptiveConcurrencyLimiter writes = new AdaptiveConcurrencyLimiter(1, 1, 1, 2.0, Duration.ofMinutes(1));
+        MockMvc mvc = mvc(new AdmissionFilter(rate, rate, reads, writes, "", List.of()));
+
+        assertTrue(reads.tryAcquire());                  // a read in flight takes the only slot
+        mvc.perform(post("/api/scheduler/slots"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(header().string("Retry-After", "1"));
+        mvc.perform(get("/api/scheduler/changes")).andExpect(status().isOk());
+        mvc.perform(post("/api/scheduler/book")).andExpect(status().isOk());
+        assertEquals(0, writes.inFlight(), "the booking gave its slot back");
+
+        reads.release(0);
+        mvc.perform(post("/api/scheduler/slots")).andExpect(status().isOk());
+        assertEquals(0, reads.inFlight());
+    }
+
+    private static MockMvc mvc(AdmissionFilter filter) {
+        return MockMvcBuilders.standaloneSetup(new Endpoints()).addFilter(filter, "/api/scheduler/*").build();
+    }
+
+    private static RequestPostProcessor remote(String address) {
+        return req -> {
+            req.setRemoteAddr(address);
+            return req;
+        };
+    }
+
+    @RestController
+    static class Endpoints {
+        @PostMapping({ "/api/scheduler/book", "/api/scheduler/slots" })
+        String write() {
+            return "ok";
+        }
+
+        @GetMapping({ "/api/scheduler/slots", "/api/scheduler/changes" })
+        String read() {
+            return "ok";
+        }
+    }
+}
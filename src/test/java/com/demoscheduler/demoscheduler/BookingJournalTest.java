@@ -0,0 +1,283 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the booking journal survives restarts, torn tails and concurrent group commits.
+ */
+class BookingJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private final LocalDate today = LocalDate.of(2025, 3, 10);
+    private final Clock clock = Clock.fixed(today.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private Calendar open(BookingJournal journal) {
+        Calendar calendar = new Calendar(clock, journal);
+        calendar.init();
+        return calendar;
+    }
+
+    private BookingJournal journal(BookingJournal.Durability durability) throws IOException {
+        return new BookingJournal(dir.resolve("bookings.journal"), durability, Duration.ofMillis(5));
+    }
+
+    @Test
+    void replayRestoresBookingsAndCancellations() throws IOException {
+        for (BookingJournal.Durability durability : BookingJournal.Durability.values()) {
+            Files.deleteIfExists(dir.resolve("bookings.journal"));
+            try (BookingJournal journal = journal(durability)) {
+                Calendar calendar = open(journal);
+                assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "Demo", "Bob"));
+                assertTrue(calendar.bookEvent(today.plusDays(3).toString(), "16:45", "Carol", "Ünïcödé", ""));
+                assertTrue(calendar.bookEvent(today.toString(), "10:00", "Dave", "", ""));
+                assertTrue(calendar.cancelEvent(today.toString(), "10:00", "Dave"));
+                assertFalse(calendar.cancelEvent(today.toString(), "09:00", "Mallory"));
+            }
+
+            try (BookingJournal journal = journal(durability)) {
+                Calendar restored = open(journal);
+                assertFalse(restored.bookEvent(today.toString(), "09:00", "Eve", "", ""), durability + ": 09:00 stays booked");
+                assertFalse(restored.bookEvent(today.plusDays(3).toString(), "16:45", "Eve", "", ""));
+                assertTrue(restored.bookEvent(today.toString(), "10:00", "Eve", "", ""), durability + ": 10:00 was cancelled");
+
+                Event carol = restored.snapshot().slots().stream()
+                        .filter(e -> e.getDate().equals(today.plusDays(3)) && e.getStartTime().equals(LocalTime.of(16, 45)))
+                        .findFirst().orElseThrow();
+                assertEquals("Ünïcödé", carol.getDescription());
+            }
+        }
+    }
+
+    @Test
+    void batchReplaysAsOneRecord() throws IOException {
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar calendar = open(journal);
+            assertTrue(calendar.bookBatch(List.of(today.atTime(9, 0), today.plusDays(1).atTime(9, 0)), "Alice", "Series", "Bob"));
+            assertFalse(calendar.bookBatch(List.of(today.atTime(9, 30), today.atTime(9, 0)), "Carol", "", ""));
+        }
+        assertEquals(1, countRecords());
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar restored = open(journal);
+            assertFalse(restored.bookEvent(today.plusDays(1).toString(), "09:00", "Eve", "", ""));
+            assertTrue(restored.bookEvent(today.toString(), "09:30", "Eve", "", ""), "failed batch left nothing behind");
+        }
+    }
+
+    private int countRecords() throws IOException {
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            int[] n = { 0 };
+            journal.replay(r -> n[0]++);
+            return n[0];
+        }
+    }
+
+    @Test
+    void tornTailIsCutOffOnOpen() throws IOException {
+        Path file = dir.resolve("bookings.journal");
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar calendar = open(journal);
+            calendar.bookEvent(today.toString(), "09:00", "Alice", "", "");
+            calendar.bookEvent(today.toString(), "09:15", "Bob", "", "");
+        }
+        long whole = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            ch.truncate(whole - 3);                                  // crash mid-write of the last frame
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar restored = open(journal);
+            assertFalse(restored.bookEvent(today.toString(), "09:00", "Eve", "", ""));
+            assertTrue(restored.bookEvent(today.toString(), "09:15", "Eve", "", ""),
+                    "The torn booking must be dropped and the slot free again");
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar restored = open(journal);
+            assertFalse(restored.bookEvent(today.toString(), "09:15", "Bob", "", ""),
+                    "Appends after the cut must replay cleanly");
+        }
+    }
+
+    @Test
+    void absurdFrameLengthEndsTheLog() throws IOException {
+        Path file = dir.resolve("bookings.journal");
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            assertTrue(open(journal).bookEvent(today.toString(), "09:00", "Alice", "", ""));
+        }
+        long whole = Files.size(file);
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            ch.write(ByteBuffer.allocate(16).putInt(Integer.MAX_VALUE).putInt(0).flip());
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            assertEquals(whole, Files.size(file), "cut back to the last whole frame");
+            Calendar restored = open(journal);
+            assertTrue(restored.getSlot(today, LocalTime.of(9, 0)).isBooked());
+            assertTrue(restored.bookEvent(today.toString(), "09:15", "Bob", "", ""));
+        }
+    }
+
+    @Test
+    void compactionKeepsTheTailAndEveryOffset() throws IOException {
+        Path file = dir.resolve("bookings.journal");
+        long upto, end;
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar calendar = open(journal);
+            for (int i = 0; i < 20; i++) {
+                assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "", ""));
+                assertTrue(calendar.cancelEvent(today.toString(), "09:00", "Alice"));
+            }
+            assertTrue(calendar.bookEvent(today.toString(), "09:00", "Bob", "", ""));
+            assertTrue(calendar.bookEvent(today.toString(), "10:00", "Carol", "Demo", "Dan"));
+            upto = journal.appendedEnd();
+            assertTrue(calendar.bookEvent(today.toString(), "11:00", "Dave", "", ""));
+
+            long size = Files.size(file);
+            end = journal.appendedEnd();
+            assertTrue(journal.compact(upto, List.of(
+                    JournalRecord.book(today, LocalTime.of(9, 0), new Booking("Bob", "", "")),
+                    JournalRecord.book(today, LocalTime.of(10, 0), new Booking("Carol", "Demo", "Dan")))));
+            assertTrue(Files.size(file) < size / 4, "the churn is gone");
+            assertEquals(end, journal.appendedEnd(), "offsets do not move");
+            assertTrue(journal.canResumeAt(upto));
+            assertFalse(journal.canResumeAt(journal.start()), "inside the checkpoint");
+            assertFalse(journal.compact(upto, List.of()), "nothing left to compact");
+
+            List<JournalRecord> tail = new ArrayList<>();
+            journal.replay(upto, tail::add);
+            assertEquals(List.of("Dave"), tail.stream().map(JournalRecord::client).toList());
+
+            assertTrue(calendar.bookEvent(today.toString(), "12:00", "Erin", "", ""), "appends carry on");
+            end = journal.appendedEnd();
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            assertEquals(end, journal.appendedEnd(), "the header keeps the offsets across restarts");
+            assertTrue(journal.canResumeAt(upto));
+            Calendar restored = open(journal);
+            assertEquals("Bob", restored.getSlot(today, LocalTime.of(9, 0)).getClient());
+            assertEquals("Dan", restored.getSlot(today, LocalTime.of(10, 0)).getAdvisor());
+            assertTrue(restored.getSlot(today, LocalTime.of(11, 0)).isBooked());
+            assertTrue(restored.getSlot(today, LocalTime.of(12, 0)).isBooked());
+        }
+    }
+
+    @Test
+    void bookingsAppendedDuringCompactionSurviveIt() throws Exception {
+        long upto;
+        try (BookingJournal journal = journal(BookingJournal.Durability.BATCHED)) {
+            Calendar calendar = open(journal);
+            for (int i = 0; i < 5_000; i++) {
+                assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "", ""));
+                assertTrue(calendar.cancelEvent(today.toString(), "09:00", "Alice"));
+            }
+            assertTrue(calendar.bookEvent(today.toString(), "09:00", "Bob", "", ""));
+            upto = journal.appendedEnd();
+
+            ExecutorService pool = Executors.newFixedThreadPool(4);
+            List<Future<?>> bookers = new ArrayList<>();
+            for (int d = 1; d <= 4; d++) {
+                String date = today.plusDays(d).toString();
+                bookers.add(pool.submit(() -> {
+                    for (int i = 0; i < 32; i++) {
+                        assertTrue(calendar.bookEvent(date, LocalTime.of(9, 0).plusMinutes(15L * i).toString(), "Carol", "", ""));
+                    }
+                }));
+            }
+            assertTrue(journal.compact(upto, List.of(JournalRecord.book(today, LocalTime.of(9, 0), new Booking("Bob", "", "")))));
+            for (Future<?> f : bookers) f.get(10, TimeUnit.SECONDS);
+            pool.shutdown();
+            assertTrue(calendar.bookEvent(today.toString(), "09:15", "Dave", "", ""));
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.BATCHED)) {
+            assertTrue(journal.canResumeAt(upto));
+            Calendar restored = open(journal);
+            assertEquals("Bob", restored.getSlot(today, LocalTime.of(9, 0)).getClient());
+            assertEquals("Dave", restored.getSlot(today, LocalTime.of(9, 15)).getClient());
+            assertEquals(128, restored.bookingsOf("Carol", null, null).size(), "none lost to the swap");
+        }
+    }
+
+    @Test
+    void journalFailureLeavesTheCalendarConsistentAndReadOnly() throws IOException {
+        BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE);
+        Calendar calendar = open(journal);
+        assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "", "Bob"));
+        journal.close();                                             // the disk goes away under the calendar
+
+        assertThrows(UncheckedIOException.class, () -> calendar.bookEvent(today.toString(), "10:00", "Carol", "", "Bob"));
+        assertTrue(calendar.getSlot(today, LocalTime.of(10, 0)).isBooked(), "applied before the fsync failed");
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(10, 0)),
+                calendar.bookingsWithAdvisor("Bob", null, null).stream().map(Event::getStartTime).toList(),
+                "the index agrees with the slots");
+        assertEquals(List.of(LocalTime.of(9, 45), LocalTime.of(10, 15)),
+                calendar.getClosestAvailable(today, LocalTime.of(10, 0), 2).stream().map(Event::getStartTime).toList(),
+                "and so does the bitmap");
+
+        assertThrows(UncheckedIOException.class, () -> calendar.cancelEvent(today.toString(), "09:00", "Alice"));
+        assertTrue(calendar.getSlot(today, LocalTime.of(9, 0)).isBooked(), "read-only from then on");
+    }
+
+    @Test
+    void concurrentBookingsShareGroupCommitAndAllReplay() throws Exception {
+        int threads = 8;
+        List<String> slots = new ArrayList<>();
+        for (int d = 0; d < 14; d++) {
+            for (int s = 0; s < 32; s++) {
+                slots.add(today.plusDays(d) + " " + LocalTime.of(9, 0).plusMinutes(15L * s));
+            }
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.BATCHED)) {
+            Calendar calendar = open(journal);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (String slot : slots) {
+                    String[] p = slot.split(" ");
+                    results.add(pool.submit(() -> calendar.bookEvent(p[0], p[1], "client-" + slot, "", "")));
+                }
+                for (Future<Boolean> f : results) assertTrue(f.get(30, TimeUnit.SECONDS));
+            } finally {
+                pool.shutdownNow();
+            }
+        }
+
+        try (BookingJournal journal = journal(BookingJournal.Durability.BATCHED)) {
+            Calendar restored = open(journal);
+            for (int d = 0; d < 14; d++) {
+                assertTrue(restored.getClosestAvailable(today.plusDays(d), LocalTime.of(12, 0), 5).isEmpty(),
+                        "Every booking must have been replayed");
+            }
+            assertTrue(restored.cancelEvent(today.toString(), "09:00", "client-" + today + " 09:00"));
+        }
+    }
+
+    @Test
+    void oversizedFieldsAreRejectedWithoutBooking() throws IOException {
+        try (BookingJournal journal = journal(BookingJournal.Durability.PER_WRITE)) {
+            Calendar calendar = open(journal);
+            assertFalse(calendar.bookEvent(today.toString(), "09:00", "Alice", "x".repeat(70_000), ""));
+            assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "short", ""));
+        }
+    }
+}
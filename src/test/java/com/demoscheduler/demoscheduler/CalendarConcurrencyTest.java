@@ -0,0 +1,241 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Multi-threaded stress tests for Calendar's lock-free booking state.
+ */
+class CalendarConcurrencyTest {
+
+    private static final int THREADS = 8;
+
+    private Calendar calendar;
+    private final LocalDate today = LocalDate.now();
+
+    @BeforeEach
+    void setUp() {
+        calendar = new Calendar();
+        calendar.init();
+    }
+
+    /* ────────────── EXACTLY ONE WINNER ────────────── */
+
+    @Test
+    void exactlyOneWinnerPerSlotUnderContention() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 200; round++) {
+                String time = LocalTime.of(9, 0).plusMinutes(15L * (round % 32)).toString();
+                LocalDate date = today.plusDays(round / 32);
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<Boolean>> results = new ArrayList<>();
+
+                for (int t = 0; t < THREADS; t++) {
+                    String client = "client-" + t;
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return calendar.bookEvent(date.toString(), time, client, "race", "adv-" + client);
+                    }));
+                }
+
+                int winners = 0;
+                for (Future<Boolean> f : results) {
+                    if (f.get(10, TimeUnit.SECONDS)) winners++;
+                }
+                assertEquals(1, winners, "Exactly one booking may win slot " + date + " " + time);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void overlappingBatchesNeverInterleave() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 100; round++) {
+                LocalDate date = today.plusDays(round % 14);
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<Boolean>> results = new ArrayList<>();
+
+                // every batch wants 4 slots of the same 6, in its own (shuffled) order
+                for (int t = 0; t < THREADS; t++) {
+                    String client = "client-" + t;
+                    List<LocalDateTime> slots = new ArrayList<>();
+                    for (int k = 0; k < 4; k++) slots.add(date.atTime(9, 0).plusMinutes(15L * ((t + k) % 6)));
+                    Collections.shuffle(slots);
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return calendar.bookBatch(slots, client, "", "");
+                    }));
+                }
+
+                int winners = 0;
+                for (Future<Boolean> f : results) {
+                    if (f.get(10, TimeUnit.SECONDS)) winners++;
+                }
+                long booked = calendar.snapshot().slots().stream()
+                        .filter(e -> e.getDate().equals(date) && e.isBooked()).count();
+                assertTrue(winners >= 1, "Ordered claiming lets at least one batch through");
+                assertEquals(4L * winners, booked, "No partial batch may remain");
+
+                for (Event ev : calendar.snapshot().slots()) {
+                    if (ev.getDate().equals(date) && ev.isBooked()) {
+                        calendar.cancelEvent(date.toString(), ev.getStartTime().toString(), ev.getClient());
+                    }
+                }
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void clientIndexMatchesTheSlotsAfterRacingBooksAndCancels() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            List<Future<?>> done = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                String client = "client-" + (t % 3);             // several threads per client
+                long seed = t;
+                done.add(pool.submit(() -> {
+                    SplittableRandom rnd = new SplittableRandom(seed);
+                    for (int i = 0; i < 5_000; i++) {
+                        String date = today.plusDays(rnd.nextInt(2)).toString();
+                        String time = LocalTime.of(9, 0).plusMinutes(15L * rnd.nextInt(8)).toString();
+                        if (rnd.nextBoolean()) calendar.bookEvent(date, time, client, "", "adv-" + (i % 2));
+                        else                   calendar.cancelEvent(date, time, client);
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> f : done) f.get(30, TimeUnit.SECONDS);
+        } finally {
+            pool.shutdownNow();
+        }
+
+        List<Event> all = calendar.snapshot().slots();
+        for (int c = 0; c < 3; c++) {
+            String client = "client-" + c;
+            assertEquals(all.stream().filter(e -> e.getClient().equals(client)).map(this::slot).toList(),
+                    calendar.bookingsOf(client, null, null).stream().map(this::slot).toList(), client);
+        }
+        for (String advisor : List.of("adv-0", "adv-1")) {
+            assertEquals(all.stream().filter(e -> e.getAdvisor().equals(advisor)).map(this::slot).toList(),
+                    calendar.bookingsWithAdvisor(advisor, null, null).stream().map(this::slot).toList(), advisor);
+            assertEquals((int) all.stream().filter(e -> e.getAdvisor().equals(advisor)).count(),
+                    (int) calendar.utilization().bookingsByAdvisor().getOrDefault(advisor, 0), "tally of " + advisor);
+        }
+        Calendar.Utilization u = calendar.utilization();
+        for (int d = 0; d < 2; d++) {
+            LocalDate date = today.plusDays(d);
+            assertEquals((int) all.stream().filter(e -> e.isBooked() && e.getDate().equals(date)).count(),
+                    u.days().get(d).booked(), "counters of " + date);
+        }
+    }
+
+    private LocalDateTime slot(Event e) {
+        return e.getDate().atTime(e.getStartTime());
+    }
+
+    @Test
+    void concurrentCancelsReleaseSlotOnce() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int round = 0; round < 100; round++) {
+                String time = LocalTime.of(9, 0).plusMinutes(15L * (round % 32)).toString();
+                assertTrue(calendar.bookEvent(today.toString(), time, "Alice", "", ""));
+
+                CyclicBarrier start = new CyclicBarrier(THREADS);
+                List<Future<Boolean>> results = new ArrayList<>();
+                for (int t = 0; t < THREADS; t++) {
+                    results.add(pool.submit(() -> {
+                        start.await();
+                        return calendar.cancelEvent(today.toString(), time, "Alice");
+                    }));
+                }
+
+                int cancelled = 0;
+                for (Future<Boolean> f : results) {
+                    if (f.get(10, TimeUnit.SECONDS)) cancelled++;
+                }
+                assertEquals(1, cancelled, "Exactly one cancel may succeed");
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    /* ────────────── NON-BLOCKING, CONSISTENT READS ────────────── */
+
+    @Test
+    void searchesNeverBlockOrSeeHalfWrittenSlots() throws Exception {
+        int writers = THREADS / 2;
+        int readers = THREADS - writers;
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicInteger violations = new AtomicInteger();
+        AtomicLong searches = new AtomicLong();
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+
+        try {
+            // writers churn book/cancel on today's slots; each booking's fields share the client id
+            for (int w = 0; w < writers; w++) {
+                String client = "c" + w;
+                pool.submit(() -> {
+                    ThreadLocalRandom rnd = ThreadLocalRandom.current();
+                    while (!stop.get()) {
+                        String time = LocalTime.of(9, 0).plusMinutes(15L * rnd.nextInt(32)).toString();
+                        if (calendar.bookEvent(today.toString(), time, client, "d-" + client, "a-" + client)) {
+                            calendar.cancelEvent(today.toString(), time, client);
+                        }
+                    }
+                });
+            }
+
+            CountDownLatch readersDone = new CountDownLatch(readers);
+            for (int r = 0; r < readers; r++) {
+                pool.submit(() -> {
+                    try {
+                        for (int i = 0; i < 20_000; i++) {
+                            for (Event ev : calendar.getClosestAvailable(today, LocalTime.of(12, 0), 32)) {
+                                if (ev.isBooked() || !ev.getClient().isEmpty() || !ev.getAdvisor().isEmpty()) {
+                                    violations.incrementAndGet();
+                                }
+                            }
+                            searches.incrementAndGet();
+                        }
+                    } finally {
+                        readersDone.countDown();
+                    }
+                });
+            }
+
+            assertTrue(readersDone.await(60, TimeUnit.SECONDS), "Searches must keep making progress");
+        } finally {
+            stop.set(true);
+            pool.shutdown();
+            assertTrue(pool.awaitTermination(10, TimeUnit.SECONDS));
+        }
+
+        assertEquals(0, violations.get(), "Search results must only contain whole, free slots");
+        assertEquals(20_000L * readers, searches.get());
+
+        // once the churn stops, every slot must be free again and visible to search
+        assertEquals(32, calendar.getClosestAvailable(today, LocalTime.of(12, 0), 1000).size());
+    }
+}
@@ -0,0 +1,126 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Slot holds: reservation, confirm, release and expiry with an injected clock.
+ */
+class CalendarHoldTest {
+
+    private final LocalDate date = LocalDate.of(2025, 3, 10);
+    private final Duration  slot = Duration.ofMinutes(15);
+    private CalendarRolloverTest.MutableClock clock;
+    private Calendar calendar;
+
+    @TempDir
+    Path dir;
+
+    @BeforeEach
+    void setUp() {
+        clock = new CalendarRolloverTest.MutableClock(date.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        calendar = new Calendar(clock);
+        calendar.init();
+    }
+
+    @Test
+    void heldSlotsAreTakenButNotBooked() {
+        Calendar.Hold hold = calendar.hold(date, LocalTime.of(9, 0), Duration.ofMinutes(30), Duration.ofMinutes(5));
+        assertNotNull(hold);
+        assertEquals(LocalTime.of(9, 30), hold.endTime());
+        assertEquals(clock.instant().plus(Duration.ofMinutes(5)), hold.expiresAt());
+
+        assertTrue(calendar.isHeld(date, LocalTime.of(9, 15)));
+        assertFalse(calendar.getSlot(date, LocalTime.of(9, 15)).isBooked());
+        assertFalse(calendar.bookEvent(date.toString(), "09:15", "Eve", "", ""));
+        assertNull(calendar.hold(date, LocalTime.of(8, 45).plusMinutes(30), slot, Duration.ofMinutes(5)));
+        assertEquals(LocalTime.of(9, 30),
+                calendar.getClosestAvailable(date, LocalTime.of(9, 0), 1).get(0).getStartTime());
+        assertTrue(calendar.snapshot().slots().stream().noneMatch(Event::isBooked), "holds are not persisted");
+    }
+
+    @Test
+    void confirmBooksAndEndsTheHold() {
+        Calendar.Hold hold = calendar.hold(date, LocalTime.of(9, 0), Duration.ofMinutes(30), Duration.ofMinutes(5));
+        assertTrue(calendar.confirmHold(hold.id(), "Alice", "Demo", "Bob"));
+        assertFalse(calendar.confirmHold(hold.id(), "Alice", "Demo", "Bob"), "only once");
+        assertFalse(calendar.releaseHold(hold.id()));
+
+        assertEquals("Alice", calendar.getSlot(date, LocalTime.of(9, 15)).getClient());
+        assertFalse(calendar.isHeld(date, LocalTime.of(9, 15)));
+        assertEquals(0, calendar.heldCount());
+
+        clock.advance(Duration.ofHours(1));
+        assertEquals(0, calendar.expireHolds(), "the timer was cancelled");
+        assertTrue(calendar.getSlot(date, LocalTime.of(9, 0)).isBooked());
+    }
+
+    @Test
+    void confirmCountsOneBookingOfAllTheHeldSlots() {
+        List<Object> seen = new ArrayList<>();
+        Calendar cal = new Calendar(clock, null, null, Calendar.DAYS_FORWARD, new CalendarMetrics() {
+            @Override public void book(BookOutcome outcome) { seen.add(outcome); }
+            @Override public void slotsBooked(int slots)    { seen.add("slots:" + slots); }
+        });
+        cal.init();
+
+        Calendar.Hold hold = cal.hold(date, LocalTime.of(9, 0), Duration.ofMinutes(45), Duration.ofMinutes(5));
+        assertTrue(cal.confirmHold(hold.id(), "Alice", "", ""));
+        assertFalse(cal.confirmHold(hold.id(), "Alice", "", ""));
+
+        assertEquals(List.of(CalendarMetrics.BookOutcome.BOOKED, "slots:3", CalendarMetrics.BookOutcome.NOT_FOUND), seen);
+    }
+
+    @Test
+    void releaseAndExpiryFreeTheSlots() {
+        Calendar.Hold released = calendar.hold(date, LocalTime.of(9, 0), slot, Duration.ofMinutes(5));
+        Calendar.Hold expiring = calendar.hold(date, LocalTime.of(10, 0), slot, Duration.ofMinutes(5));
+        Calendar.Hold later    = calendar.hold(date, LocalTime.of(11, 0), slot, Duration.ofMinutes(20));
+        assertEquals(3, calendar.heldCount());
+
+        assertTrue(calendar.releaseHold(released.id()));
+        assertFalse(calendar.isHeld(date, LocalTime.of(9, 0)));
+
+        clock.advance(Duration.ofMinutes(4));
+        assertEquals(0, calendar.expireHolds());
+        clock.advance(Duration.ofMinutes(1));
+        assertEquals(1, calendar.expireHolds());
+        assertFalse(calendar.isHeld(date, LocalTime.of(10, 0)));
+        assertFalse(calendar.confirmHold(expiring.id(), "Alice", "", ""), "expired");
+        assertTrue(calendar.isHeld(date, LocalTime.of(11, 0)));
+        assertTrue(calendar.bookEvent(date.toString(), "10:00", "Eve", "", ""));
+
+        assertTrue(calendar.confirmHold(later.id(), "Carol", "", ""));
+        assertEquals(2, calendar.bookedSlots(0));
+    }
+
+    @Test
+    void confirmedHoldsSurviveARestart() throws IOException {
+        try (BookingJournal journal = new BookingJournal(dir.resolve("j"), BookingJournal.Durability.PER_WRITE,
+                Duration.ofMillis(50))) {
+            Calendar cal = new Calendar(clock, journal);
+            cal.init();
+            Calendar.Hold hold = cal.hold(date, LocalTime.of(9, 0), Duration.ofMinutes(45), Duration.ofMinutes(5));
+            cal.hold(date, LocalTime.of(13, 0), slot, Duration.ofMinutes(5));  // never confirmed
+            assertTrue(cal.confirmHold(hold.id(), "Alice", "", ""));
+        }
+        try (BookingJournal journal = new BookingJournal(dir.resolve("j"), BookingJournal.Durability.PER_WRITE,
+                Duration.ofMillis(50))) {
+            Calendar cal = new Calendar(clock, journal);
+            cal.init();
+            assertEquals(3, cal.bookedSlots(0));
+            assertEquals("Alice", cal.getSlot(date, LocalTime.of(9, 30)).getClient());
+            assertEquals(3, cal.bookingsOf("Alice", null, null).size(), "the client index is rebuilt");
+            assertFalse(cal.getSlot(date, LocalTime.of(13, 0)).isBooked());
+        }
+    }
+}
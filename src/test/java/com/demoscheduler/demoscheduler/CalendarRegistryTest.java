@@ -0,0 +1,95 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Per-advisor calendars: isolation and merged cross-advisor search.
+ */
+class CalendarRegistryTest {
+
+    private final LocalDate today = LocalDate.now();
+
+    private ExecutorService pool;
+    private CalendarRegistry registry;
+
+    @BeforeEach
+    void setUp() {
+        pool = Executors.newFixedThreadPool(4);
+        registry = new CalendarRegistry(pool, 4);
+        for (String advisor : List.of("dave", "bob", "carol", "alice", "erin")) {
+            registry.register(advisor, new Calendar(), null);
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        registry.close();
+        pool.shutdownNow();
+    }
+
+    @Test
+    void bookingsStayInTheirAdvisorsCalendar() {
+        assertTrue(registry.calendar("alice").bookEvent(today.toString(), "10:00", "Zoe", "Demo", "alice"));
+        assertTrue(registry.calendar("bob").bookEvent(today.toString(), "10:00", "Zoe", "Demo", "bob"));
+        assertFalse(registry.calendar("alice").bookEvent(today.toString(), "10:00", "Yan", "Demo", "alice"));
+        assertNull(registry.calendar("nobody"));
+        assertEquals(List.of("alice", "bob", "carol", "dave", "erin"), registry.advisors());
+    }
+
+    @Test
+    void advisorsMayNotTakeTheSalesCalendarsName() {
+        for (String id : List.of("sales", "Sales")) {
+            IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                    () -> new SchedulerConfig().advisorCalendars(List.of(id), "unused",
+                            BookingJournal.Durability.BATCHED, 50, 14, "standalone",
+                            null, SlotGrid.DEFAULT, null, pool, null, null));
+            assertTrue(e.getMessage().contains("reserved"), e.getMessage());
+        }
+    }
+
+    @Test
+    void searchMergesAdvisorsByDistanceThenAdvisor() {
+        for (String advisor : List.of("alice", "bob", "carol", "dave")) {
+            registry.calendar(advisor).bookEvent(today.toString(), "10:00", "Zoe", "Demo", advisor);
+        }
+        List<CalendarRegistry.AdvisorSlot> slots =
+                registry.getClosestAvailable(null, today, LocalTime.of(10, 0), 4);
+
+        // only erin is free at 10:00; then everyone's 09:45 in advisor order
+        assertEquals(List.of("erin", "alice", "bob", "carol"),
+                slots.stream().map(CalendarRegistry.AdvisorSlot::advisor).toList());
+        assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(9, 45), LocalTime.of(9, 45), LocalTime.of(9, 45)),
+                slots.stream().map(CalendarRegistry.AdvisorSlot::startTime).toList());
+    }
+
+    @Test
+    void searchCanBeLimitedToASubsetAndAcrossDays() {
+        Calendar bob = registry.calendar("bob");
+        for (int i = 0; i < 32; i++) {
+            bob.bookEvent(today.toString(), LocalTime.of(9, 0).plusMinutes(15L * i).toString(), "Zoe", "Demo", "bob");
+        }
+        List<CalendarRegistry.AdvisorSlot> slots =
+                registry.getClosestAvailable(List.of("bob"), null, null, today, LocalTime.of(16, 45), 1);
+
+        assertEquals(new CalendarRegistry.AdvisorSlot("bob", today.plusDays(1), LocalTime.of(9, 0), LocalTime.of(9, 15)),
+                slots.getFirst());
+        assertTrue(registry.getClosestAvailable(List.of("bob"), today, LocalTime.NOON, 3).isEmpty());
+        assertThrows(IllegalArgumentException.class,
+                () -> registry.getClosestAvailable(List.of("nobody"), today, LocalTime.NOON, 3));
+    }
+
+    @Test
+    void hugeCountIsBoundedByTheFreeSlots() {
+        assertEquals(5 * 32, registry.getClosestAvailable(null, today, LocalTime.NOON, Integer.MAX_VALUE).size());
+    }
+}
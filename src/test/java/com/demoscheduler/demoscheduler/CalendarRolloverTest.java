@@ -0,0 +1,155 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies the rolling 14-day window advances with an injected clock
+ * without losing bookings on the days that stay.
+ */
+class CalendarRolloverTest {
+
+    /** Clock the test moves forward by hand. */
+    static final class MutableClock extends Clock {
+        private Instant now;
+        private final ZoneId zone;
+
+        MutableClock(Instant now, ZoneId zone) {
+            this.now = now;
+            this.zone = zone;
+        }
+
+        void advance(Duration d) { now = now.plus(d); }
+
+        @Override public ZoneId getZone()              { return zone; }
+        @Override public Clock  withZone(ZoneId zone)  { return new MutableClock(now, zone); }
+        @Override public Instant instant()             { return now; }
+    }
+
+    private final LocalDate start = LocalDate.of(2025, 3, 10);
+    private MutableClock clock;
+    private Calendar calendar;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(start.atTime(23, 30).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        calendar = new Calendar(clock);
+        calendar.init();
+    }
+
+    @Test
+    void noRolloverWhileDateUnchanged() {
+        calendar.bookEvent(start.toString(), "09:00", "Alice", "", "");
+        clock.advance(Duration.ofMinutes(20));               // 23:50, same day
+
+        assertEquals(0, calendar.rollover());
+        assertEquals(start, calendar.today());
+        assertEquals(31, calendar.getClosestAvailable(start, LocalTime.of(9, 0), 1000).size());
+    }
+
+    @Test
+    void rolloverDropsOldestDayAndAppendsNewOne() {
+        assertTrue(calendar.bookEvent(start.plusDays(1).toString(), "10:00", "Alice", "Demo", "Bob"));
+        assertTrue(calendar.bookEvent(start.plusDays(13).toString(), "16:45", "Carol", "", ""));
+
+        clock.advance(Duration.ofHours(1));                  // past midnight
+        assertEquals(1, calendar.rollover());
+
+        LocalDate today = start.plusDays(1);
+        assertEquals(today, calendar.today());
+        assertTrue(calendar.getClosestAvailable(start, LocalTime.of(9, 0), 5).isEmpty(),
+                "Yesterday must have left the window");
+        assertEquals(32, calendar.getClosestAvailable(today.plusDays(13), LocalTime.of(9, 0), 1000).size(),
+                "A fresh, empty day must have been appended");
+
+        // bookings on retained days survive
+        assertFalse(calendar.bookEvent(today.toString(), "10:00", "Eve", "", ""));
+        assertFalse(calendar.bookEvent(start.plusDays(13).toString(), "16:45", "Eve", "", ""));
+        assertTrue(calendar.cancelEvent(today.toString(), "10:00", "Alice"));
+    }
+
+    @Test
+    void consecutiveRolloversKeepWindowContiguous() {
+        for (int d = 1; d <= 30; d++) {
+            clock.advance(Duration.ofDays(1));
+            assertEquals(1, calendar.rollover());
+
+            LocalDate today = start.plusDays(d);
+            assertEquals(d > 13 ? 31 : 32, calendar.getClosestAvailable(today, LocalTime.of(12, 0), 1000).size());
+            assertEquals(32, calendar.getClosestAvailable(today.plusDays(13), LocalTime.of(12, 0), 1000).size());
+            assertTrue(calendar.getClosestAvailable(today.plusDays(14), LocalTime.of(12, 0), 5).isEmpty());
+            assertTrue(calendar.getClosestAvailable(today.minusDays(1), LocalTime.of(12, 0), 5).isEmpty());
+
+            // book a slot at the far end and check it is still there once it becomes "today"
+            assertTrue(calendar.bookEvent(today.plusDays(13).toString(), "09:00", "c" + d, "", ""));
+            if (d > 13) {
+                assertFalse(calendar.bookEvent(today.toString(), "09:00", "late", "", ""),
+                        "Booking made 13 days ago must still hold");
+            }
+        }
+    }
+
+    @Test
+    void advisorTallyForgetsDaysThatLeftTheWindow() {
+        calendar.bookEvent(start.toString(), "09:00", "Alice", "", "Bob");
+        calendar.bookEvent(start.plusDays(2).toString(), "09:00", "Alice", "", "Bob");
+        assertEquals(2, (int) calendar.utilization().bookingsByAdvisor().get("Bob"));
+
+        clock.advance(Duration.ofHours(1));
+        calendar.rollover();
+        Calendar.Utilization u = calendar.utilization();
+        assertEquals(1, (int) u.bookingsByAdvisor().get("Bob"));
+        assertEquals(start.plusDays(1), u.days().get(0).date());
+        assertEquals(1, u.days().get(1).booked());
+        assertEquals(0, u.days().get(13).booked(), "fresh day");
+    }
+
+    @Test
+    void namesOfDaysThatLeftTheWindowAreDropped() {
+        for (int i = 0; i < 32; i++) {
+            calendar.bookEvent(start.toString(), LocalTime.of(9, 0).plusMinutes(15L * i).toString(), "client-" + i, "", "Bob");
+        }
+        calendar.bookEvent(start.plusDays(5).toString(), "09:00", "Alice", "", "Bob");
+        assertEquals(34, calendar.distinctNames());
+
+        clock.advance(Duration.ofHours(1));
+        calendar.rollover();
+        assertEquals(34, calendar.distinctNames(), "kept one rollover for readers of the old window");
+
+        clock.advance(Duration.ofDays(1));
+        calendar.rollover();
+        assertEquals(2, calendar.distinctNames());
+        assertEquals("Alice", calendar.getSlot(start.plusDays(5), LocalTime.of(9, 0)).getClient());
+        assertEquals(1, (int) calendar.utilization().bookingsByAdvisor().get("Bob"));
+
+        assertTrue(calendar.bookEvent(start.plusDays(5).toString(), "09:15", "client-0", "", "Bob"));
+        assertEquals(1, calendar.bookingsOf("client-0", null, null).size());
+    }
+
+    @Test
+    void jumpBeyondHorizonRebuildsEveryDay() {
+        calendar.bookEvent(start.plusDays(5).toString(), "09:00", "Alice", "", "");
+        clock.advance(Duration.ofDays(40));
+
+        assertEquals(14, calendar.rollover());
+        LocalDate today = start.plusDays(40);
+        for (int d = 0; d < 14; d++) {
+            assertEquals(32, calendar.getClosestAvailable(today.plusDays(d), LocalTime.of(9, 0), 1000).size());
+        }
+    }
+
+    @Test
+    void convenienceWrappersFollowTheClock() {
+        clock.advance(Duration.ofHours(1));
+        calendar.rollover();
+
+        assertTrue(calendar.bookEvent("09:00", "Alice", "", ""));
+        assertEquals(LocalTime.of(9, 15),
+                calendar.getClosestAvailable(LocalTime.of(9, 0), 1).getFirst().getStartTime());
+        assertFalse(calendar.bookEvent(start.plusDays(1).toString(), "09:00", "Eve", "", ""));
+    }
+}
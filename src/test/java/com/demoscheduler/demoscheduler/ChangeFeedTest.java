@@ -0,0 +1,110 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Ring semantics of the change feed, and what calendars publish into it.
+ */
+class ChangeFeedTest {
+
+    private final LocalDate date = LocalDate.now();
+
+    @Test
+    void readsChangesInOrderFromACursor() {
+        ChangeFeed feed = new ChangeFeed(8);
+        assertEquals(0, feed.head());
+        for (int i = 0; i < 5; i++) feed.publish("sales", date, LocalTime.of(9, i));
+
+        List<ChangeFeed.Change> out = new ArrayList<>();
+        assertEquals(3, feed.read(0, 3, out), "bounded by max");
+        assertEquals(5, feed.read(3, 100, out));
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), out.stream().map(ChangeFeed.Change::seq).toList());
+        assertEquals(LocalTime.of(9, 4), out.get(4).startTime());
+
+        out.clear();
+        assertEquals(5, feed.read(5, 100, out), "nothing new");
+        assertTrue(out.isEmpty());
+    }
+
+    @Test
+    void readerThatFellBehindTheRingIsToldToResync() {
+        ChangeFeed feed = new ChangeFeed(4);
+        for (int i = 0; i < 10; i++) feed.publish("sales", date, LocalTime.of(9, i));
+
+        List<ChangeFeed.Change> out = new ArrayList<>();
+        assertEquals(-1, feed.read(5, 100, out), "change 6 was overwritten by 10");
+        assertEquals(10, feed.read(6, 100, out), "7..10 are still there");
+        assertEquals(4, out.size());
+        assertEquals(-1, feed.read(11, 100, out), "a cursor from the future is not ours");
+    }
+
+    @Test
+    void concurrentPublishersNeverLoseOrReorderSequenceNumbers() throws InterruptedException {
+        ChangeFeed feed = new ChangeFeed(1 << 16);
+        int threads = 4, each = 5_000;
+        CountDownLatch start = new CountDownLatch(1);
+        List<Thread> writers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            String name = "advisor-" + t;
+            Thread w = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < each; i++) feed.publish(name, date, LocalTime.NOON);
+            });
+            w.start();
+            writers.add(w);
+        }
+        start.countDown();
+
+        List<ChangeFeed.Change> out = new ArrayList<>();
+        long cursor = 0;
+        while (cursor < (long) threads * each) {
+            long next = feed.read(cursor, 1000, out);
+            assertTrue(next >= cursor);
+            cursor = next;
+        }
+        for (Thread w : writers) w.join();
+
+        for (int i = 0; i < out.size(); i++) assertEquals(i + 1, out.get(i).seq());
+    }
+
+    @Test
+    void calendarPublishesEverySuccessfulWriteButNoReplay() {
+        ChangeFeed feed = new ChangeFeed(64);
+        Calendar cal = new Calendar(Clock.systemDefaultZone(), null, null, SlotGrid.DEFAULT, 14,
+                CalendarMetrics.NOOP, feed.listener("sales"));
+        cal.init();
+
+        cal.bookEvent(date.toString(), "09:00", "Alice", "", "");
+        cal.bookEvent(date.toString(), "09:00", "Eve", "", "");                     // taken: no change
+        cal.bookEvent(date.toString(), "10:00", Duration.ofMinutes(30), "Bob", "", "");
+        cal.bookBatch(List.of(LocalDateTime.of(date, LocalTime.of(11, 0))), "Carol", "", "");
+        cal.cancelEvent(date.toString(), "09:00", "Eve");                            // not hers
+        cal.cancelEvent(date.toString(), "09:00", "Alice");
+
+        List<ChangeFeed.Change> out = new ArrayList<>();
+        feed.read(0, 100, out);
+        assertEquals(List.of(LocalTime.of(9, 0), LocalTime.of(10, 0), LocalTime.of(10, 15),
+                        LocalTime.of(11, 0), LocalTime.of(9, 0)),
+                out.stream().map(ChangeFeed.Change::startTime).toList());
+        assertTrue(out.stream().allMatch(c -> c.calendar().equals("sales") && c.date().equals(date)));
+
+        assertFalse(cal.getSlot(date, LocalTime.of(9, 0)).isBooked(), "listeners read the state back");
+        assertEquals("Bob", cal.getSlot(date, LocalTime.of(10, 15)).getClient());
+        assertNull(cal.getSlot(date, LocalTime.of(9, 7)));
+    }
+}
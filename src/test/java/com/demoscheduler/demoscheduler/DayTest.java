@@ -0,0 +1,108 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.SplittableRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Column store of one day: encoding of bookings and torn-read freedom.
+ */
+class DayTest {
+
+    private final StringDictionary names = new StringDictionary();
+    private final Day day = new Day(LocalDate.of(2025, 3, 3), LocalTime.of(9, 0), 900, 32, names);
+
+    @Test
+    void bookingRoundTripsThroughTheColumns() {
+        assertNull(day.booking(5));
+        assertTrue(day.tryBook(5, new Booking("Alice", "Demo", "Bob")));
+        assertFalse(day.tryBook(5, new Booking("Carol", "Demo", "Bob")));
+
+        Event ev = day.event(5);
+        assertEquals(LocalTime.of(10, 15), ev.getStartTime());
+        assertEquals(LocalTime.of(10, 30), ev.getEndTime());
+        assertEquals(new Booking("Alice", "Demo", "Bob"), day.booking(5));
+
+        assertFalse(day.tryCancel(5, "Carol"));
+        assertFalse(day.tryCancel(5, "Nobody"));
+        assertTrue(day.tryCancel(5, "Alice"));
+        assertNull(day.booking(5));
+    }
+
+    @Test
+    void namesAreStoredOncePerDistinctString() {
+        for (int i = 0; i < 32; i++) day.tryBook(i, new Booking("Alice", "Demo " + i, "Bob"));
+        assertEquals(2, names.size());
+        assertEquals("Demo 31", day.booking(31).description());
+    }
+
+    @Test
+    void losingBookerInternsNothing() {
+        assertTrue(day.tryBook(0, new Booking("Alice", "", "Bob")));
+        assertFalse(day.tryBook(0, new Booking("Mallory", "", "Eve")));
+        assertEquals(2, names.size());
+        assertEquals(StringDictionary.NONE, names.find("Mallory"));
+    }
+
+    @Test
+    void runStartsMatchBruteForceAcrossWords() {
+        Day wide = new Day(LocalDate.of(2025, 3, 3), LocalTime.of(0, 0), 300, 150, names);   // 3 bitmap words
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (int i = 0; i < 150; i++) {
+            if (rnd.nextInt(8) == 0 && wide.tryBook(i, new Booking("Alice", "", ""))) wide.syncBit(i);
+        }
+        for (int k = 1; k <= 150; k += (k < 10 ? 1 : 7)) {
+            long[] starts = wide.runStarts(k);
+            for (int i = 0; i < 150; i++) {
+                boolean free = i + k <= 150;
+                for (int j = i; free && j < i + k; j++) free = !wide.isTaken(j);
+                assertEquals(free, (starts[i >>> 6] & (1L << i)) != 0, "k=" + k + " i=" + i);
+            }
+            assertEquals(0, starts[2] >>> (150 - 128), "no starts past the last slot");
+        }
+    }
+
+    @Test
+    void bitScansFindNeighbours() {
+        long[] bits = { 1L << 5, 0, 1L << 63 };
+        assertEquals(5, Day.nextSetBit(bits, 0));
+        assertEquals(191, Day.nextSetBit(bits, 6));
+        assertEquals(-1, Day.nextSetBit(bits, 192));
+        assertEquals(5, Day.prevSetBit(bits, 190));
+        assertEquals(191, Day.prevSetBit(bits, 500));
+        assertEquals(-1, Day.prevSetBit(bits, 4));
+    }
+
+    @Test
+    void readersNeverSeeAMixOfTwoBookings() throws Exception {
+        AtomicBoolean stop = new AtomicBoolean();
+        AtomicReference<Booking> torn = new AtomicReference<>();
+        Thread writer = Thread.ofPlatform().start(() -> {
+            for (int i = 0; !stop.get(); i++) {
+                String who = "client-" + (i & 7);
+                day.tryBook(0, new Booking(who, "about " + who, "adv-" + who));
+                day.tryCancel(0, who);
+            }
+        });
+        try {
+            for (int i = 0; i < 200_000; i++) {
+                Booking b = day.booking(0);
+                if (b != null && (!b.advisor().equals("adv-" + b.client())
+                        || !b.description().equals("about " + b.client()))) {
+                    torn.set(b);
+                    break;
+                }
+            }
+        } finally {
+            stop.set(true);
+            writer.join();
+        }
+        assertNull(torn.get(), "torn read");
+    }
+}
@@ -3,10 +3,19 @@ package com.demoscheduler.demoscheduler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Set;
+import java.util.SplittableRandom;
 import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -82,6 +91,176 @@ class CalendarTest {
         assertEquals(Set.of(LocalTime.of(16, 0), LocalTime.of(16, 15)), times);
     }
 
+    @Test
+    void closestSlotsComeBackOrderedByDistance() {
+        calendar.bookEvent(today.toString(), "12:00", "Alice", "Demo", "Bob");
+
+        List<LocalTime> times = calendar.getClosestAvailable(today, LocalTime.of(12, 5), 4).stream()
+                .map(Event::getStartTime)
+                .toList();
+
+        assertEquals(List.of(LocalTime.of(12, 15), LocalTime.of(11, 45),
+                LocalTime.of(12, 30), LocalTime.of(11, 30)), times);
+    }
+
+    @Test
+    void dateOutsideHorizonHasNoSlots() {
+        assertTrue(calendar.getClosestAvailable(today.plusDays(14), LocalTime.of(9, 0), 5).isEmpty());
+    }
+
+    @Test
+    void horizonSearchSpillsIntoNeighbouringDays() {
+        for (int i = 0; i < 32; i++) {
+            calendar.bookEvent(tomorrow.toString(), LocalTime.of(9, 0).plusMinutes(15L * i).toString(),
+                    "Alice", "Demo", "Bob");
+        }
+        calendar.bookEvent(today.toString(), "16:45", "Alice", "Demo", "Bob");
+
+        // desired: tomorrow 09:10 — tomorrow is full, so the nearest are late today and early the day after
+        List<Event> slots = calendar.getClosestAvailable(null, null, tomorrow, LocalTime.of(9, 10), 3);
+
+        assertEquals(List.of(
+                today.atTime(16, 30), today.atTime(16, 15), today.atTime(16, 0)),
+                slots.stream().map(e -> e.getDate().atTime(e.getStartTime())).toList());
+    }
+
+    @Test
+    void rangeSearchRanksByAbsoluteDistanceAndStaysInRange() {
+        LocalDate d2 = today.plusDays(2);
+        List<Event> slots = calendar.getClosestAvailable(d2, today.plusDays(3), today, LocalTime.of(12, 0), 34);
+
+        assertEquals(34, slots.size());
+        assertEquals(d2.atTime(9, 0), slots.getFirst().getDate().atTime(slots.getFirst().getStartTime()));
+        assertEquals(today.plusDays(3).atTime(9, 15), slots.getLast().getDate().atTime(slots.getLast().getStartTime()));
+        assertTrue(calendar.getClosestAvailable(today.plusDays(20), null, today, LocalTime.NOON, 5).isEmpty());
+    }
+
+    @Test
+    void utilizationCountersMatchAScanOfTheSlots() {
+        SplittableRandom rnd = new SplittableRandom(11);
+        for (int i = 0; i < 400; i++) {
+            String date = today.plusDays(rnd.nextInt(14)).toString();
+            String time = LocalTime.of(9, 0).plusMinutes(15L * rnd.nextInt(32)).toString();
+            if (rnd.nextInt(3) > 0) calendar.bookEvent(date, time, "Alice", "", rnd.nextBoolean() ? "Bob" : "Eve");
+            else                    calendar.cancelEvent(date, time, "Alice");
+        }
+        Calendar.Hold hold = calendar.hold(tomorrow, LocalTime.of(16, 45), Duration.ofMinutes(15), Duration.ofMinutes(5));
+
+        Calendar.Utilization u = calendar.utilization();
+        assertEquals(8, u.hours().size());
+        assertEquals(LocalTime.of(9, 0), u.hours().get(0));
+        assertArrayEquals(new int[] { 4, 4, 4, 4, 4, 4, 4, 4 }, u.slotsPerHour());
+        assertEquals(14, u.days().size());
+
+        List<Event> all = calendar.snapshot().slots();
+        for (Calendar.DayUtilization day : u.days()) {
+            for (int h = 0; h < 8; h++) {
+                LocalTime hour = LocalTime.of(9 + h, 0);
+                long booked = all.stream()
+                        .filter(e -> e.getDate().equals(day.date()) && e.getStartTime().getHour() == hour.getHour())
+                        .filter(e -> e.isBooked() || hold != null && e.getDate().equals(tomorrow)
+                                && e.getStartTime().equals(LocalTime.of(16, 45)))
+                        .count();
+                assertEquals(booked, day.bookedByHour()[h], day.date() + " " + hour);
+            }
+            assertEquals(32, day.booked() + day.free());
+            assertEquals(day.booked(), Arrays.stream(day.bookedByHour()).sum());
+        }
+        for (String advisor : List.of("Bob", "Eve")) {
+            assertEquals((int) all.stream().filter(e -> e.getAdvisor().equals(advisor)).count(),
+                    (int) u.bookingsByAdvisor().get(advisor), advisor);
+        }
+    }
+
+    @Test
+    void horizonSearchMatchesBruteForce() {
+        SplittableRandom rnd = new SplittableRandom(7);
+        for (int i = 0; i < 300; i++) {
+            calendar.bookEvent(today.plusDays(rnd.nextInt(14)).toString(),
+                    LocalTime.of(9, 0).plusMinutes(15L * rnd.nextInt(32)).toString(), "Alice", "Demo", "Bob");
+        }
+        LocalDateTime desired = today.plusDays(5).atTime(13, 7);
+
+        List<LocalDateTime> expected = calendar.snapshot().slots().stream()
+                .filter(e -> !e.isBooked())
+                .map(e -> e.getDate().atTime(e.getStartTime()))
+                .sorted(Comparator
+                        .comparingLong((LocalDateTime t) ->
+                                Math.abs(Duration.between(desired, t).getSeconds()))
+                        .thenComparing(t -> t))
+                .limit(60)
+                .toList();
+
+        List<LocalDateTime> actual = calendar
+                .getClosestAvailable(null, null, desired.toLocalDate(), desired.toLocalTime(), 60).stream()
+                .map(e -> e.getDate().atTime(e.getStartTime()))
+                .toList();
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void lengthSearchFindsNearestContiguousRun() {
+        calendar.bookEvent(today.toString(), "10:00", "Alice", "", "");
+        calendar.bookEvent(today.toString(), "10:45", "Alice", "", "");
+
+        List<Event> runs = calendar.getClosestAvailable(today, LocalTime.of(10, 0), Duration.ofMinutes(45), 3);
+
+        // 10:00 and 10:45 are taken, so no 45-minute run may start at 09:30–10:45; 09:00 wins the tie with 11:00
+        assertEquals(List.of(LocalTime.of(9, 15), LocalTime.of(9, 0), LocalTime.of(11, 0)),
+                runs.stream().map(Event::getStartTime).toList());
+        assertEquals(LocalTime.of(10, 0), runs.getFirst().getEndTime());
+        assertThrows(IllegalArgumentException.class,
+                () -> calendar.getClosestAvailable(today, LocalTime.NOON, Duration.ofMinutes(20), 1));
+    }
+
+    @Test
+    void lengthBookingClaimsEveryCoveredSlot() {
+        assertTrue(calendar.bookEvent(today.toString(), "14:00", Duration.ofMinutes(90), "Alice", "Workshop", "Bob"));
+
+        assertFalse(calendar.bookEvent(today.toString(), "15:15", "Carol", "", ""));
+        assertTrue(calendar.bookEvent(today.toString(), "15:30", "Carol", "", ""));
+        assertFalse(calendar.bookEvent(today.toString(), "13:30", Duration.ofMinutes(60), "Dave", "", ""),
+                "overlaps the workshop");
+        assertTrue(calendar.bookEvent(today.toString(), "13:00", Duration.ofMinutes(60), "Dave", "", ""));
+        assertFalse(calendar.bookEvent(today.toString(), "16:30", Duration.ofMinutes(60), "Erin", "", ""),
+                "runs past closing");
+        assertTrue(calendar.bookEvent(today.toString(), "16:30", "Erin", "", ""), "failed run left nothing behind");
+    }
+
+    @Test
+    void gridIsConfigurable() {
+        SlotGrid grid = new SlotGrid(LocalTime.of(8, 0), LocalTime.of(12, 0), Duration.ofMinutes(30));
+        Calendar custom = new Calendar(Clock.systemDefaultZone(), null, null, grid, 3, CalendarMetrics.NOOP);
+        custom.init();
+
+        assertEquals(8, custom.slotsPerDay());
+        assertEquals(24, custom.snapshot().slots().size());
+        assertFalse(custom.bookEvent(today.toString(), "08:15", "Alice", "", ""), "off the 30-minute grid");
+        assertTrue(custom.bookEvent(today.toString(), "11:30", "Alice", "", ""));
+        assertEquals(LocalTime.of(10, 30),          // the last hour that ends before the 11:30 booking
+                custom.getClosestAvailable(today, LocalTime.of(11, 30), Duration.ofHours(1), 1).getFirst().getStartTime());
+        assertThrows(IllegalArgumentException.class,
+                () -> new SlotGrid(LocalTime.of(8, 0), LocalTime.of(12, 10), Duration.ofMinutes(30)));
+    }
+
+    @Test
+    void forEachFreeWalksRangeInOrderAndCanStop() {
+        calendar.bookEvent(tomorrow.toString(), "09:15", "Alice", "", "");
+
+        List<LocalDateTime> seen = new ArrayList<>();
+        assertTrue(calendar.forEachFree(tomorrow, tomorrow, Duration.ofMinutes(30), (date, start, end) -> {
+            seen.add(date.atTime(start));
+            return true;
+        }));
+        assertEquals(29, seen.size());                    // 31 half-hour starts, minus 09:00 and 09:15
+        assertEquals(tomorrow.atTime(9, 30), seen.getFirst());
+        assertEquals(tomorrow.atTime(16, 30), seen.getLast());
+
+        int[] visits = { 0 };
+        assertFalse(calendar.forEachFree(null, null, Duration.ofMinutes(15), (date, start, end) -> ++visits[0] < 3));
+        assertEquals(3, visits[0]);
+    }
+
     @Test
     void beforeBusinessHoursReturnsEarlySlot() {
         Event first = calendar.getClosestAvailable(today, LocalTime.of(7, 30), 1).getFirst();
@@ -128,6 +307,31 @@ class CalendarTest {
                 "Invalid time format must be rejected");
     }
 
+    @Test
+    void batchBooksEverySlot() {
+        assertTrue(calendar.bookBatch(List.of(tomorrow.atTime(10, 0), today.atTime(9, 0), today.atTime(9, 15)),
+                "Alice", "Series", "Bob"));
+
+        assertFalse(calendar.bookEvent(tomorrow.toString(), "10:00", "Carol", "", ""));
+        assertEquals(30, calendar.getClosestAvailable(today, LocalTime.of(9, 0), 32).size());
+        assertTrue(calendar.cancelEvent(today.toString(), "09:15", "Alice"));
+    }
+
+    @Test
+    void batchIsAllOrNothing() {
+        calendar.bookEvent(today.toString(), "11:00", "Carol", "", "");
+
+        assertFalse(calendar.bookBatch(List.of(today.atTime(10, 45), today.atTime(11, 0), today.atTime(11, 15)),
+                "Alice", "Series", "Bob"));
+        assertFalse(calendar.bookBatch(List.of(today.atTime(10, 45), today.atTime(10, 45)), "Alice", "", ""));
+        assertFalse(calendar.bookBatch(List.of(today.atTime(10, 45), today.atTime(10, 50)), "Alice", "", ""));
+        assertFalse(calendar.bookBatch(List.of(), "Alice", "", ""));
+
+        // nothing of the failed batches stuck
+        assertTrue(calendar.bookEvent(today.toString(), "10:45", "Dave", "", ""));
+        assertTrue(calendar.bookEvent(today.toString(), "11:15", "Dave", "", ""));
+    }
+
     @Test
     void cancelBookedSlotAndMakeItAvailableAgain() {
         // 1) book slot
@@ -176,4 +380,131 @@ class CalendarTest {
                 "Bad time format should return false"
         );
     }
-}
\ No newline at end of file
+
+    /* ────────────── SNAPSHOT / DISPLAY TESTS ───────────── */
+
+    @Test
+    void snapshotCopiesEverySlotInOrder() {
+        calendar.bookEvent(tomorrow.toString(), "09:00", "Alice", "Demo", "Bob");
+        CalendarSnapshot snap = calendar.snapshot();
+
+        assertTrue(snap.consistent());
+        assertEquals(448, snap.slots().size());
+        assertEquals(today, snap.slots().getFirst().getDate());
+        Event booked = snap.slots().get(32);
+        assertEquals(tomorrow, booked.getDate());
+        assertEquals("Alice", booked.getClient());
+
+        // the copy is detached from later changes
+        calendar.cancelEvent(tomorrow.toString(), "09:00", "Alice");
+        assertTrue(booked.isBooked());
+        assertTrue(calendar.version() > snap.version());
+    }
+
+    @Test
+    void consoleDumperOnlyPrintsAfterChanges() {
+        ByteArrayOutputStream buf = new ByteArrayOutputStream();
+        CalendarConsoleDumper dumper = new CalendarConsoleDumper(calendar, new PrintStream(buf));
+
+        assertTrue(dumper.dumpIfChanged(), "First tick always dumps");
+        assertFalse(dumper.dumpIfChanged(), "Nothing changed since the last dump");
+
+        calendar.bookEvent(today.toString(), "10:00", "Alice", "Demo", "Bob");
+        assertTrue(dumper.dumpIfChanged());
+        assertTrue(buf.toString().contains("Alice"));
+    }
+
+    /* ────────────── VERSION TESTS ───────────── */
+
+    @Test
+    void rangeVersionMovesOnlyWithChangesToItsDays() {
+        long day1   = calendar.version(tomorrow, tomorrow);
+        long all    = calendar.version(null, null);
+        long today0 = calendar.version(today, today);
+
+        calendar.bookEvent(tomorrow.toString(), "09:00", "Alice", "", "");
+        assertTrue(calendar.version(tomorrow, tomorrow) > day1);
+        assertTrue(calendar.version(null, null) > all);
+        assertEquals(today0, calendar.version(today, today), "other days keep their version");
+
+        long before = calendar.version(tomorrow, tomorrow);
+        calendar.bookEvent(tomorrow.toString(), "09:00", "Eve", "", "");
+        calendar.cancelEvent(tomorrow.toString(), "09:00", "Eve");
+        assertEquals(before, calendar.version(tomorrow, tomorrow), "failed writes change nothing");
+
+        calendar.bookEvent(tomorrow.toString(), "09:30", "Alice", "", "");
+        before = calendar.version(tomorrow, tomorrow);
+        assertFalse(calendar.bookBatch(List.of(LocalDateTime.of(tomorrow, LocalTime.of(9, 15)),
+                LocalDateTime.of(tomorrow, LocalTime.of(9, 30))), "Bob", "", ""));
+        assertTrue(calendar.version(tomorrow, tomorrow) > before,
+                "a batch that released its claims moves the version: searches may have seen them");
+    }
+
+    /* ────────────── CLIENT INDEX TESTS ───────────── */
+
+    @Test
+    void listsAndCancelsAClientsBookingsThroughTheIndex() {
+        calendar.bookEvent(today.toString(), "10:00", "Alice", "", "Bob");
+        calendar.bookEvent(tomorrow.toString(), "09:00", Duration.ofMinutes(30), "Alice", "", "");
+        calendar.bookEvent(today.plusDays(3).toString(), "11:00", "Alice", "", "Bob");
+        calendar.bookEvent(today.toString(), "09:00", "Eve", "", "Bob");
+
+        assertEquals(List.of(today.atTime(10, 0), tomorrow.atTime(9, 0), tomorrow.atTime(9, 15),
+                        today.plusDays(3).atTime(11, 0)),
+                calendar.bookingsOf("Alice", null, null).stream()
+                        .map(e -> e.getDate().atTime(e.getStartTime())).toList());
+        assertEquals(3, calendar.bookingsOf("Alice", tomorrow, today.plusDays(3)).size());
+        assertEquals(3, calendar.bookingsWithAdvisor("Bob", null, null).size());
+        assertTrue(calendar.bookingsOf("Nobody", null, null).isEmpty());
+
+        assertEquals(2, calendar.cancelAll("Alice", tomorrow, tomorrow));
+        assertEquals(2, calendar.bookingsOf("Alice", null, null).size());
+        calendar.cancelEvent(today.toString(), "10:00", "Alice");
+        assertEquals(List.of(today.plusDays(3)),
+                calendar.bookingsOf("Alice", null, null).stream().map(Event::getDate).toList());
+        assertEquals(2, calendar.bookingsWithAdvisor("Bob", null, null).size(), "cancel drops the advisor entry");
+
+        assertEquals(1, calendar.cancelAll("Alice", null, null));
+        assertTrue(calendar.bookingsOf("Alice", null, null).isEmpty());
+        assertEquals(1, calendar.bookedSlots(0), "Eve's booking stays");
+    }
+
+    /* ────────────── METRICS TESTS ───────────── */
+
+    @Test
+    void metricsReportOutcomesAndScanLength() {
+        List<Object> seen = new ArrayList<>();
+        CalendarMetrics recorder = new CalendarMetrics() {
+            @Override public void searched(int slotsScanned, int found) { seen.add("scan:" + slotsScanned + "/" + found); }
+            @Override public void book(BookOutcome outcome)             { seen.add(outcome); }
+            @Override public void slotsBooked(int slots)                { seen.add("slots:" + slots); }
+            @Override public void cancel(CancelOutcome outcome)         { seen.add(outcome); }
+        };
+        Calendar cal = new Calendar(Clock.systemDefaultZone(), null, null, 14, recorder);
+        cal.init();
+
+        cal.bookEvent(today.toString(), "09:00", "Alice", "", "");
+        cal.bookEvent(today.toString(), "09:00", "Eve", "", "");
+        cal.bookEvent(today.toString(), "09:07", "Eve", "", "");
+        cal.bookEvent("not-a-date", "09:00", "Eve", "", "");
+        cal.bookBatch(List.of(today.atTime(10, 0), today.atTime(10, 15), today.atTime(10, 30)), "Alice", "", "");
+        cal.bookBatch(List.of(today.atTime(10, 45), today.atTime(10, 30)), "Eve", "", "");
+        cal.cancelEvent(today.toString(), "09:00", "Eve");
+        cal.cancelEvent(today.toString(), "09:15", "Eve");
+        cal.cancelEvent(today.toString(), "09:00", "Alice");
+        cal.getClosestAvailable(today, LocalTime.of(9, 0), 2);
+
+        assertEquals(List.of(
+                CalendarMetrics.BookOutcome.BOOKED, "slots:1",
+                CalendarMetrics.BookOutcome.ALREADY_BOOKED,
+                CalendarMetrics.BookOutcome.NOT_FOUND,
+                CalendarMetrics.BookOutcome.INVALID,
+                CalendarMetrics.BookOutcome.BOOKED, "slots:3",
+                CalendarMetrics.BookOutcome.ALREADY_BOOKED,      // once per batch, not per slot
+                CalendarMetrics.CancelOutcome.CLIENT_MISMATCH,
+                CalendarMetrics.CancelOutcome.NOT_BOOKED,
+                CalendarMetrics.CancelOutcome.CANCELLED,
+                "scan:2/2"), seen);
+        assertEquals(3, cal.bookedSlots(0));
+    }
+}
@@ -0,0 +1,80 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * A follower whose leader is unreachable: it keeps no journal of its own,
+ * serves reads, and turns every write away with 503.
+ */
+@SpringBootTest(properties = {
+        "scheduler.replication.mode=follower",
+        "scheduler.replication.leader=127.0.0.1:1"
+})
+@AutoConfigureMockMvc
+class FollowerControllerTest {
+
+    private static final String READ_ONLY = "Read-only follower: send writes to the leader";
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private final String tomorrow = LocalDate.now().plusDays(1).toString();
+
+    @Test
+    void keepsNoJournalAndServesReads() throws Exception {
+        assertTrue(context.getBeansOfType(BookingJournal.class).isEmpty());
+        assertTrue(context.getBeansOfType(SnapshotStore.class).isEmpty());
+
+        mvc.perform(get("/api/scheduler/replication"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("follower"))
+                .andExpect(jsonPath("$.lag[0].connected").value(false));
+        mvc.perform(get("/api/scheduler/slots").param("date", tomorrow).param("desired", "09:00"))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    void turnsWritesAwayWith503() throws Exception {
+        String slot = "{\"date\":\"" + tomorrow + "\",\"startTime\":\"09:00\",\"client\":\"Alice\"";
+
+        write("/api/scheduler/book", slot + "}").andExpect(content().string(READ_ONLY));
+        write("/api/scheduler/book", slot + ",\"idempotencyKey\":\"k1\"}").andExpect(content().string(READ_ONLY));
+        write("/api/scheduler/cancel", slot + "}").andExpect(content().string(READ_ONLY));
+        write("/api/scheduler/book/batch",
+                "{\"client\":\"Alice\",\"slots\":[{\"date\":\"" + tomorrow + "\",\"startTime\":\"09:00\"}]}");
+        write("/api/scheduler/cancel/all", "{\"client\":\"Alice\"}");
+        write("/api/scheduler/holds", slot + "}");
+        write("/api/scheduler/holds/h1/confirm", "{\"client\":\"Alice\"}");
+        mvc.perform(delete("/api/scheduler/holds/h1")).andExpect(status().isServiceUnavailable());
+
+        mvc.perform(get("/api/scheduler/slots").param("date", tomorrow).param("desired", "09:00").param("count", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].startTime").value("09:00:00"))
+                .andExpect(jsonPath("$[0].booked").value(false));
+    }
+
+    private ResultActions write(String path, String body) throws Exception {
+        return mvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
@@ -0,0 +1,102 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Replay, fingerprint checks, concurrency and eviction of idempotency keys.
+ */
+class IdempotencyCacheTest {
+
+    private final CalendarRolloverTest.MutableClock clock =
+            new CalendarRolloverTest.MutableClock(Instant.parse("2025-03-10T09:00:00Z"), ZoneOffset.UTC);
+    private final IdempotencyCache.Outcome booked   = new IdempotencyCache.Outcome(200, "Booked successfully");
+    private final IdempotencyCache.Outcome conflict = new IdempotencyCache.Outcome(409, "already booked");
+
+    private IdempotencyCache cache(int maxEntries) {
+        return new IdempotencyCache(clock, maxEntries, Duration.ofMinutes(10), Duration.ofSeconds(5));
+    }
+
+    @Test
+    void retryGetsTheOriginalOutcomeWithoutRunningAgain() {
+        IdempotencyCache cache = cache(100);
+        AtomicInteger runs = new AtomicInteger();
+
+        IdempotencyCache.Result first = cache.execute("k", "req", () -> { runs.incrementAndGet(); return booked; });
+        IdempotencyCache.Result retry = cache.execute("k", "req", () -> { runs.incrementAndGet(); return conflict; });
+
+        assertEquals(IdempotencyCache.Status.EXECUTED, first.status());
+        assertEquals(IdempotencyCache.Status.REPLAYED, retry.status());
+        assertEquals(booked, retry.outcome());
+        assertEquals(1, runs.get());
+
+        assertEquals(IdempotencyCache.Status.KEY_REUSED, cache.execute("k", "other", () -> booked).status());
+        assertEquals(IdempotencyCache.Status.EXECUTED, cache.execute("k2", "req", () -> conflict).status());
+    }
+
+    @Test
+    void concurrentDuplicatesRunTheActionOnce() throws Exception {
+        IdempotencyCache cache = cache(100);
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<IdempotencyCache.Result>> results = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                results.add(pool.submit(() -> cache.execute("k", "req", () -> {
+                    runs.incrementAndGet();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return booked;
+                })));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            int executed = 0;
+            for (Future<IdempotencyCache.Result> f : results) {
+                IdempotencyCache.Result r = f.get(10, TimeUnit.SECONDS);
+                assertEquals(booked, r.outcome());
+                if (r.status() == IdempotencyCache.Status.EXECUTED) executed++;
+            }
+            assertEquals(1, executed);
+            assertEquals(1, runs.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedRequestGivesTheKeyUp() {
+        IdempotencyCache cache = cache(100);
+        assertThrows(IllegalStateException.class,
+                () -> cache.execute("k", "req", () -> { throw new IllegalStateException("journal down"); }));
+        assertEquals(IdempotencyCache.Status.EXECUTED, cache.execute("k", "req", () -> booked).status());
+    }
+
+    @Test
+    void entriesExpireAndCapacityIsBounded() {
+        IdempotencyCache cache = cache(3);
+        cache.execute("old", "req", () -> booked);
+        clock.advance(Duration.ofMinutes(11));
+        assertEquals(IdempotencyCache.Status.EXECUTED, cache.execute("old", "req", () -> conflict).status(),
+                "expired");
+
+        for (int i = 0; i < 10; i++) cache.execute("k" + i, "req", () -> booked);
+        assertTrue(cache.size() <= 4, "size " + cache.size());
+        assertEquals(IdempotencyCache.Status.REPLAYED, cache.execute("k9", "req", () -> conflict).status());
+        assertEquals(IdempotencyCache.Status.EXECUTED, cache.execute("k0", "req", () -> conflict).status(),
+                "oldest evicted");
+    }
+}
@@ -0,0 +1,49 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Line format and flushing of the NDJSON slot stream.
+ */
+class NdjsonSlotWriterTest {
+
+    private final LocalDate date = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void writesOneObjectPerLineAndFlushesTheFirstAtOnce() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        NdjsonSlotWriter writer = new NdjsonSlotWriter(sink, Long.MAX_VALUE);
+
+        writer.write("sales", date, LocalTime.of(9, 0), LocalTime.of(9, 15));
+        assertEquals("{\"advisor\":\"sales\",\"date\":\"2025-03-10\",\"startTime\":\"09:00:00\",\"endTime\":\"09:15:00\"}\n",
+                sink.toString(StandardCharsets.UTF_8), "first line goes out immediately");
+
+        writer.write("a\"b", date, LocalTime.of(9, 15), LocalTime.of(9, 30));
+        assertEquals(1, sink.toString(StandardCharsets.UTF_8).lines().count(), "later lines are buffered");
+
+        writer.close();
+        assertEquals(2, writer.lines());
+        assertTrue(sink.toString(StandardCharsets.UTF_8).contains("{\"advisor\":\"a\\\"b\","));
+    }
+
+    @Test
+    void bufferIsBoundedForLongStreams() throws IOException {
+        ByteArrayOutputStream sink = new ByteArrayOutputStream();
+        NdjsonSlotWriter writer = new NdjsonSlotWriter(sink, Long.MAX_VALUE);
+        for (int i = 0; i < 10_000; i++) writer.write("sales", date, LocalTime.of(9, 0), LocalTime.of(9, 15));
+
+        // without close() at most one buffer's worth may still be held back
+        int beforeClose = sink.size();
+        writer.close();
+        assertTrue(sink.size() - beforeClose <= NdjsonSlotWriter.BUFFER_BYTES);
+        assertEquals(10_000, sink.toString(StandardCharsets.UTF_8).lines().count());
+    }
+}
@@ -0,0 +1,167 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadFactory;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * A leader and followers on localhost: followers converge on the leader's
+ * bookings, report their lag and pick up where they left off.
+ */
+class ReplicationTest {
+
+    private final Clock         clock   = Clock.systemDefaultZone();
+    private final LocalDate     date    = LocalDate.now(clock);
+    private final ThreadFactory threads = Thread.ofPlatform().daemon(true).factory();
+
+    @TempDir
+    Path dir;
+
+    private BookingJournal    journal;
+    private Calendar          leader;
+    private ReplicationServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        journal = new BookingJournal(dir.resolve("bookings.journal"), BookingJournal.Durability.BATCHED, Duration.ZERO);
+        leader  = new Calendar(clock, journal);
+        leader.init();
+        server = startServer(0);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+        journal.close();
+    }
+
+    @Test
+    void followersApplyTheLeadersWritesAndReportTheirLag() {
+        leader.bookEvent(date.toString(), "09:00", "Alice", "Demo", "Bob");
+        leader.bookBatch(List.of(LocalDateTime.of(date, LocalTime.of(10, 0)),
+                LocalDateTime.of(date, LocalTime.of(10, 15))), "Carol", "", "Bob");
+
+        Calendar copy = new Calendar(clock);
+        copy.init();
+        try (ReplicationClient client = startClient(server.port(), copy)) {
+            await(() -> copy.getSlot(date, LocalTime.of(10, 15)).isBooked());
+            assertEquals("Alice", copy.getSlot(date, LocalTime.of(9, 0)).getClient());
+
+            leader.cancelEvent(date.toString(), "09:00", "Alice");
+            leader.bookEvent(date.toString(), "11:00", "Dave", "", "");
+            await(() -> copy.getSlot(date, LocalTime.of(11, 0)).isBooked());
+            assertFalse(copy.getSlot(date, LocalTime.of(9, 0)).isBooked());
+            assertEquals(List.of(LocalTime.of(10, 0), LocalTime.of(10, 15)),
+                    copy.bookingsWithAdvisor("Bob", null, null).stream().map(Event::getStartTime).toList(),
+                    "indexes follow");
+
+            await(() -> client.lag().get(0).leaderOffset() == journal.durableEnd());
+            ReplicationClient.Lag lag = client.lag().get(0);
+            assertTrue(lag.connected());
+            assertEquals(journal.appendedEnd(), lag.appliedOffset());
+            assertEquals(0, lag.bytesBehind());
+            assertEquals(1, server.followers().size());
+        }
+    }
+
+    @Test
+    void followerResumesAfterTheLeaderRestarts() throws IOException {
+        Calendar copy = new Calendar(clock);
+        copy.init();
+        try (ReplicationClient client = startClient(server.port(), copy)) {
+            leader.bookEvent(date.toString(), "09:00", "Alice", "", "");
+            await(() -> copy.getSlot(date, LocalTime.of(9, 0)).isBooked());
+
+            int port = server.port();
+            server.close();
+            await(() -> !client.lag().get(0).connected());
+            leader.bookEvent(date.toString(), "09:15", "Bob", "", "");
+            server = startServer(port);
+
+            await(() -> copy.getSlot(date, LocalTime.of(9, 15)).isBooked());
+            assertEquals(journal.appendedEnd(), client.lag().get(0).appliedOffset(), "each record applied once");
+        }
+    }
+
+    @Test
+    void compactionRestartsOnlyFollowersItLeftBehind() {
+        Calendar early = new Calendar(clock);
+        early.init();
+        try (ReplicationClient first = startClient(server.port(), early)) {
+            for (int i = 0; i < 10; i++) {
+                leader.bookEvent(date.toString(), "09:00", "Alice", "", "");
+                leader.cancelEvent(date.toString(), "09:00", "Alice");
+            }
+            leader.bookEvent(date.toString(), "10:00", "Bob", "", "");
+            await(() -> first.lag().get(0).appliedOffset() == journal.appendedEnd());
+
+            long upto = journal.appendedEnd();
+            assertTrue(journal.compact(upto, List.of(JournalRecord.book(date, LocalTime.of(10, 0), new Booking("Bob", "", "")))));
+            leader.bookEvent(date.toString(), "11:00", "Carol", "", "");
+            await(() -> early.getSlot(date, LocalTime.of(11, 0)).isBooked());
+            assertEquals(journal.appendedEnd(), first.lag().get(0).appliedOffset(), "a follower past the checkpoint carries on");
+
+            Calendar late = new Calendar(clock);
+            late.init();
+            try (ReplicationClient second = startClient(server.port(), late)) {
+                await(() -> late.getSlot(date, LocalTime.of(11, 0)).isBooked());
+                assertEquals("Bob", late.getSlot(date, LocalTime.of(10, 0)).getClient());
+                assertFalse(late.getSlot(date, LocalTime.of(9, 0)).isBooked());
+                await(() -> second.lag().get(0).appliedOffset() == journal.appendedEnd());
+            }
+        }
+    }
+
+    @Test
+    void unknownCalendarIsReportedNotApplied() {
+        Calendar copy = new Calendar(clock);
+        copy.init();
+        try (ReplicationClient client = new ReplicationClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port()), Map.of("nobody", copy),
+                clock, threads, Duration.ofMillis(20), Duration.ofSeconds(5))) {
+            client.start();
+            await(() -> client.lag().get(0).lastError() != null);
+            assertTrue(client.lag().get(0).lastError().contains("nobody"));
+            assertEquals(-1, client.lag().get(0).millisSinceContact());
+        }
+    }
+
+    private ReplicationServer startServer(int port) throws IOException {
+        return new ReplicationServer(InetAddress.getLoopbackAddress(), port,
+                name -> "sales".equals(name) ? journal : null,
+                threads, Duration.ofMillis(1), Duration.ofMillis(20));
+    }
+
+    private ReplicationClient startClient(int port, Calendar copy) {
+        ReplicationClient client = new ReplicationClient(
+                new InetSocketAddress(InetAddress.getLoopbackAddress(), port), Map.of("sales", copy),
+                clock, threads, Duration.ofMillis(20), Duration.ofSeconds(5));
+        client.start();
+        return client;
+    }
+
+    private static void await(BooleanSupplier condition) {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.nanoTime() < deadline, "timed out");
+            Thread.onSpinWait();
+        }
+    }
+}
@@ -0,0 +1,213 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * The application as {@code application.properties} configures it — only
+ * its data files moved to a temporary directory — driven over MockMvc.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class SchedulerControllerTest {
+
+    @TempDir
+    static Path data;
+
+    @DynamicPropertySource
+    static void dataFiles(DynamicPropertyRegistry registry) {
+        registry.add("scheduler.journal.path", () -> data.resolve("bookings.journal").toString());
+        registry.add("scheduler.snapshot.path", () -> data.resolve("calendar.snapshot").toString());
+        registry.add("scheduler.advisors.data-dir", () -> data.resolve("advisors").toString());
+    }
+
+    @Autowired
+    private MockMvc mvc;
+
+    @Autowired
+    private ApplicationContext context;
+
+    private final String tomorrow = LocalDate.now().plusDays(1).toString();
+
+    /* ────────────── CONTEXT ───────────── */
+
+    @Test
+    void startsAsAStandaloneInstanceWithItsDefaults() throws Exception {
+        assertNotNull(context.getBean(BookingJournal.class));
+        assertNotNull(context.getBean(SnapshotStore.class));
+        assertNotNull(context.getBean("admissionFilter"));
+        assertTrue(context.getBeansOfType(ReplicationServer.class).isEmpty());
+        assertTrue(context.getBeansOfType(ReplicationClient.class).isEmpty());
+
+        mvc.perform(get("/api/scheduler/replication"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.role").value("standalone"));
+    }
+
+    /* ────────────── IDEMPOTENCY ───────────── */
+
+    @Test
+    void bookingRetriedWithItsKeyIsReplayed() throws Exception {
+        book("10:00", "Alice", "book-1")
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        book("10:00", "Alice", "book-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Booked successfully"));
+
+        book("10:00", "Alice", "book-2").andExpect(status().isConflict());     // a new key is a new attempt
+        book("10:15", "Alice", "book-1")
+                .andExpect(status().isUnprocessableEntity())
+                .andExpect(header().doesNotExist("Idempotent-Replayed"));
+        book("10:15", "Alice", "k".repeat(256)).andExpect(status().isBadRequest());
+        book("10:15", "Alice", null).andExpect(status().isOk());
+    }
+
+    @Test
+    void cancellationRetriedWithItsKeyIsReplayedNotRepeated() throws Exception {
+        book("11:00", "Bob", null).andExpect(status().isOk());
+
+        cancel("11:00", "Bob", "cancel-1").andExpect(status().isOk());
+        cancel("11:00", "Bob", "cancel-1")
+                .andExpect(status().isOk())
+                .andExpect(header().string("Idempotent-Replayed", "true"))
+                .andExpect(content().string("Cancellation successful"));
+        cancel("11:00", "Bob", null).andExpect(status().isConflict());       // it really is cancelled
+        cancel("11:00", "Eve", "cancel-1").andExpect(status().isUnprocessableEntity());
+
+        book("11:00", "Eve", null).andExpect(status().isOk());
+        cancel("11:00", "Bob", "cancel-1").andExpect(status().isOk());        // still the first outcome …
+        cancel("11:00", "Eve", null).andExpect(status().isOk());              // … not a second cancel
+    }
+
+    /* ────────────── CONDITIONAL /slots ───────────── */
+
+    @Test
+    void slotSearchRevalidatesWithItsETagUntilTheDayChanges() throws Exception {
+        String query = "{\"date\":\"" + tomorrow + "\",\"desired\":\"14:00\",\"count\":3}";
+        String etag = mvc.perform(get("/api/scheduler/slots")
+                        .param("date", tomorrow).param("desired", "14:00").param("count", "3"))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mvc.perform(get("/api/scheduler/slots")
+                        .param("date", tomorrow).param("desired", "14:00").param("count", "3")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+        mvc.perform(post("/api/scheduler/slots").contentType(MediaType.APPLICATION_JSON).content(query)
+                        .header("If-None-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+        mvc.perform(post("/api/scheduler/slots").contentType(MediaType.APPLICATION_JSON).content(query)
+                        .header("If-None-Match", "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", etag));
+
+        book("16:00", "Carol", null).andExpect(status().isOk());
+        String changed = mvc.perform(get("/api/scheduler/slots")
+                        .param("date", tomorrow).param("desired", "14:00").param("count", "3")
+                        .header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+        assertNotEquals(etag, changed, "a booking on the day retires the tag");
+    }
+
+    @Test
+    void slotSearchesAnswerUnparseableDatesAndTimesWith400() throws Exception {
+        mvc.perform(get("/api/scheduler/slots").param("date", "tomorrow").param("desired", "09:00"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/scheduler/slots").param("desired", "9am"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/scheduler/slots").param("desired", "09:00").param("from", "2025-02-30"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/api/scheduler/slots").param("date", tomorrow))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/scheduler/advisors/slots").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"desired\":\"09:00\",\"to\":\"soon\"}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(post("/api/scheduler/advisors/slots").contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"date\":\"" + tomorrow + "\",\"desired\":\"25:00\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    /* ────────────── /changes ───────────── */
+
+    @Test
+    void changeFeedResumesAfterLastEventId() throws Exception {
+        String fresh = events(subscribe(null), "event:reset");
+        Matcher reset = Pattern.compile("id:(\\d+-\\d+)\nevent:reset").matcher(fresh);
+        assertTrue(reset.find(), fresh);
+        String lastEventId = reset.group(1);
+
+        book("12:00", "Dave", null).andExpect(status().isOk());
+
+        String resumed = events(subscribe(lastEventId), "event:slot");
+        assertFalse(resumed.contains("event:reset"), "a current id resumes without a resync: " + resumed);
+        assertTrue(resumed.contains("\"startTime\":\"12:00:00\"") && resumed.contains("\"booked\":true"), resumed);
+
+        String unknown = events(subscribe("0-" + lastEventId.substring(lastEventId.indexOf('-') + 1)), "event:reset");
+        assertFalse(unknown.contains("event:slot"), "another run's id resyncs first: " + unknown);
+    }
+
+    private MvcResult subscribe(String lastEventId) throws Exception {
+        var req = get("/api/scheduler/changes").accept(MediaType.TEXT_EVENT_STREAM);
+        if (lastEventId != null) req.header("Last-Event-ID", lastEventId);
+        return mvc.perform(req).andExpect(request().asyncStarted()).andReturn();
+    }
+
+    /** The stream so far, once it contains {@code expected}. */
+    private static String events(MvcResult stream, String expected) throws UnsupportedEncodingException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        String body;
+        while (!(body = stream.getResponse().getContentAsString()).contains(expected)) {
+            assertTrue(System.nanoTime() < deadline, "no " + expected + " in " + body);
+            Thread.onSpinWait();
+        }
+        return body;
+    }
+
+    private ResultActions book(String startTime, String client, String key) throws Exception {
+        return mvc.perform(post("/api/scheduler/book").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"date\":\"" + tomorrow + "\",\"startTime\":\"" + startTime + "\",\"client\":\"" + client + "\""
+                        + idempotencyKey(key) + "}"));
+    }
+
+    private ResultActions cancel(String startTime, String client, String key) throws Exception {
+        return mvc.perform(post("/api/scheduler/cancel").contentType(MediaType.APPLICATION_JSON).content(
+                "{\"date\":\"" + tomorrow + "\",\"startTime\":\"" + startTime + "\",\"client\":\"" + client + "\""
+                        + idempotencyKey(key) + "}"));
+    }
+
+    private static String idempotencyKey(String key) {
+        return key == null ? "" : ",\"idempotencyKey\":\"" + key + "\"";
+    }
+}
@@ -0,0 +1,143 @@
+package com.demoscheduler.demoscheduler;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Fixed-format parsing and pre-encoded slot JSON give the same results as
+ * {@code java.time} and Jackson, for a fraction of the allocation;
+ * {@code RequestParsingBenchmark} and {@code SlotsSerializationBenchmark}
+ * put numbers on it.
+ */
+class SlotJsonTest {
+
+    /** Configured like Spring Boot's mapper, which wrote {@code /slots} before {@link SlotJson}. */
+    private static final ObjectMapper JACKSON = new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final LocalDate date = LocalDate.of(2025, 3, 10);
+
+    @Test
+    void parsesLikeJavaTime() {
+        for (LocalDate d = LocalDate.of(1999, 12, 1); d.isBefore(LocalDate.of(2101, 3, 1)); d = d.plusDays(1)) {
+            assertEquals(d.toEpochDay(), SlotFormat.epochDay(d.toString()), d.toString());
+        }
+        assertEquals(LocalDate.of(0, 1, 1).toEpochDay(), SlotFormat.epochDay("0000-01-01"));
+        assertEquals(LocalDate.of(20250, 3, 10), SlotFormat.date("+20250-03-10"), "other forms go to java.time");
+
+        for (int s = 0; s < 86_400; s += 60) {
+            LocalTime t = LocalTime.ofSecondOfDay(s);
+            assertEquals(s, SlotFormat.secondOfDay(t.toString()), t.toString());
+        }
+        assertEquals(9 * 3600 + 15 * 60 + 30, SlotFormat.secondOfDay("09:15:30"));
+        assertEquals(9 * 3600, SlotFormat.secondOfDay("09:00:00.000"));
+        assertEquals(LocalTime.of(9, 0), SlotFormat.time("09:00:00.000"));
+        assertThrows(DateTimeParseException.class, () -> SlotFormat.secondOfDay("09:00:00.5"),
+                "a fraction would be truncated onto the 09:00 slot");
+        assertThrows(DateTimeParseException.class, () -> SlotFormat.time("09:14:59.999999999"));
+
+        for (String bad : List.of("2025-02-29", "2100-02-29", "2025-13-01", "2025-04-31", "2025-3-10", "2025/03/10", "")) {
+            assertThrows(DateTimeParseException.class, () -> SlotFormat.epochDay(bad), bad);
+        }
+        assertEquals(LocalDate.of(2024, 2, 29).toEpochDay(), SlotFormat.epochDay("2024-02-29"));
+        for (String bad : List.of("24:00", "09:60", "9:00", "09-00", "09:00:60", "ab:cd")) {
+            assertThrows(DateTimeParseException.class, () -> SlotFormat.secondOfDay(bad), bad);
+        }
+    }
+
+    @Test
+    void writesWhatJacksonWrites() throws Exception {
+        Calendar calendar = new Calendar(Clock.fixed(date.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        calendar.init();
+        assertTrue(calendar.bookEvent("2025-03-10", "09:15", "Zoë \"Z\"", "line\nbreak\u0001\t\b\f\\ \uD83D\uDCC5 \uDCC5\u00e9\u20ac", "sales"));
+        assertTrue(calendar.bookEvent("2025-03-11", "16:45", "Ana", null, null));
+
+        List<Event> slots = new ArrayList<>(calendar.getClosestAvailable(date, LocalTime.of(9, 0), 3));
+        slots.addAll(calendar.snapshot().slots());
+        slots.addAll(calendar.getClosestAvailable(date, LocalTime.of(12, 0), Duration.ofMinutes(45), 2));
+        slots.add(new Event(LocalDate.of(12025, 1, 2), LocalTime.of(9, 30, 0, 5_000_000), LocalTime.of(10, 0),
+                "Bob", "", "sales"));
+        slots.add(new Event(date, LocalTime.of(9, 30), LocalTime.of(10, 0), null, null, null));
+
+        assertEquals(new String(JACKSON.writeValueAsBytes(slots), StandardCharsets.UTF_8),
+                new String(SlotJson.write(slots), StandardCharsets.UTF_8));
+        assertArrayEquals(JACKSON.writeValueAsBytes(List.of()), SlotJson.write(List.of()));
+
+        assertNotNull(slots.get(0).head, "slot events carry their pre-encoded head");
+        assertSame(slots.get(0).head, calendar.getClosestAvailable(date.plusDays(5), LocalTime.of(9, 0), 1).get(0).head,
+                "one head per time of day, whatever the day");
+    }
+
+    /**
+     * Bytes allocated per {@code /slots} request — parsing its date and time,
+     * then writing 32 slots — against the same with {@code java.time} and
+     * Jackson, after both are warmed up.  Generous margins: this guards
+     * against regressions, the benchmarks measure.
+     */
+    @Test
+    void requestsAllocateFarLessThanJavaTimeAndJackson() throws Exception {
+        Calendar calendar = new Calendar(Clock.fixed(date.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC));
+        calendar.init();
+        List<Event> slots = calendar.getClosestAvailable(date, LocalTime.of(12, 0), 32);
+        int rounds = 20_000;
+
+        long sink = 0;
+        for (int i = 0; i < rounds; i++) sink += parseJavaTime() + parseFixed() + writeJackson(slots) + writeFixed(slots);
+        long javaTime = allocated();
+        for (int i = 0; i < rounds; i++) sink += parseJavaTime();
+        javaTime = allocated() - javaTime;
+        long fixed = allocated();
+        for (int i = 0; i < rounds; i++) sink += parseFixed();
+        fixed = allocated() - fixed;
+        long jackson = allocated();
+        for (int i = 0; i < rounds; i++) sink += writeJackson(slots);
+        jackson = allocated() - jackson;
+        long encoded = allocated();
+        for (int i = 0; i < rounds; i++) sink += writeFixed(slots);
+        encoded = allocated() - encoded;
+        assertTrue(sink != 0);
+
+        assertTrue(fixed * 20 < javaTime, "parsing: " + fixed / rounds + " bytes vs " + javaTime / rounds + " with java.time");
+        int json = SlotJson.write(slots).length;
+        assertTrue(encoded / rounds < json + 64, "writing: " + encoded / rounds + " bytes for " + json + " of JSON");
+        assertTrue((fixed + encoded) * 2 < javaTime + jackson,
+                "a request: " + (fixed + encoded) / rounds + " bytes vs " + (javaTime + jackson) / rounds);
+    }
+
+    private static long parseJavaTime() {
+        return LocalDate.parse("2025-03-10").toEpochDay() + LocalTime.parse("09:15").toSecondOfDay();
+    }
+
+    private static long parseFixed() {
+        return SlotFormat.epochDay("2025-03-10") + SlotFormat.secondOfDay("09:15");
+    }
+
+    private static long writeJackson(List<Event> slots) throws Exception {
+        return JACKSON.writeValueAsBytes(slots).length;
+    }
+
+    private static long writeFixed(List<Event> slots) {
+        return SlotJson.write(slots).length;
+    }
+
+    private static long allocated() {
+        return ((com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean())
+                .getThreadAllocatedBytes(Thread.currentThread().threadId());
+    }
+}
@@ -0,0 +1,53 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Hits, misses and ETags of the {@code /slots} response cache.
+ */
+class SlotResponseCacheTest {
+
+    private final byte[] body = "[]".getBytes();
+
+    @Test
+    void hitsOnlyForTheSameQueryAndVersion() {
+        SlotResponseCache cache = new SlotResponseCache(16, 1024);
+        assertNull(cache.get("q", 1));
+
+        SlotResponseCache.Response r = cache.put("q", 1, body);
+        assertSame(r, cache.get("q", 1));
+        assertNull(cache.get("q", 2), "newer version");
+        assertNull(cache.get("other", 1));
+
+        cache.put("q", 2, body);
+        assertNull(cache.get("q", 1), "replaced by the newer version");
+    }
+
+    @Test
+    void etagsDependOnQueryAndVersion() {
+        SlotResponseCache cache = new SlotResponseCache(16, 1024);
+        String tag = cache.etag(List.of("q", 5), 7);
+        assertEquals(tag, cache.put(List.of("q", 5), 7, body).etag());
+        assertNotEquals(tag, cache.etag(List.of("q", 5), 8));
+        assertNotEquals(tag, cache.etag(List.of("q", 6), 7));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        assertNotEquals(cache.etag("Aa", 7), cache.etag("BB", 7), "equal hash codes, different tags");
+
+        assertTrue(SlotResponseCache.matches(tag, tag));
+        assertTrue(SlotResponseCache.matches("\"x\", W/" + tag, tag));
+        assertTrue(SlotResponseCache.matches("*", tag));
+        assertFalse(SlotResponseCache.matches(null, tag));
+        assertFalse(SlotResponseCache.matches("\"x\"", tag));
+    }
+
+    @Test
+    void largeBodiesAreServedButNotKept() {
+        SlotResponseCache cache = new SlotResponseCache(16, 1);
+        assertNotNull(cache.put("q", 1, body));
+        assertNull(cache.get("q", 1));
+    }
+}
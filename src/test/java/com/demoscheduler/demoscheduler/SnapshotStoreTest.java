@@ -0,0 +1,170 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.*;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verifies binary snapshots restore calendars losslessly and quickly.
+ */
+class SnapshotStoreTest {
+
+    @TempDir
+    Path dir;
+
+    private final LocalDate today = LocalDate.of(2025, 3, 10);
+    private final Clock clock = Clock.fixed(today.atTime(8, 0).toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+
+    private BookingJournal journal(String name) throws IOException {
+        return new BookingJournal(dir.resolve(name + ".journal"), BookingJournal.Durability.BATCHED, Duration.ofMillis(5));
+    }
+
+    private Calendar open(BookingJournal journal, String name, int days) {
+        Calendar calendar = new Calendar(clock, journal, new SnapshotStore(dir.resolve(name + ".snapshot")), days);
+        calendar.init();
+        return calendar;
+    }
+
+    private static void assertSameSlots(CalendarSnapshot expected, CalendarSnapshot actual) {
+        assertEquals(expected.slots().size(), actual.slots().size());
+        for (int i = 0; i < expected.slots().size(); i++) {
+            Event e = expected.slots().get(i), a = actual.slots().get(i);
+            assertEquals(e.getDate(), a.getDate());
+            assertEquals(e.getStartTime(), a.getStartTime());
+            assertEquals(e.isBooked(), a.isBooked(), "booked flag of " + e.getDate() + " " + e.getStartTime());
+            assertEquals(e.getClient(), a.getClient());
+            assertEquals(e.getDescription(), a.getDescription());
+            assertEquals(e.getAdvisor(), a.getAdvisor());
+        }
+    }
+
+    @Test
+    void snapshotPlusJournalTailRestoresEverything() throws IOException {
+        CalendarSnapshot before;
+        try (BookingJournal journal = journal("sales")) {
+            Calendar calendar = open(journal, "sales", 14);
+            calendar.bookEvent(today.toString(), "09:00", "Alice", "Demo", "Bob");
+            calendar.bookEvent(today.plusDays(13).toString(), "16:45", "Carol", "Ünïcödé", "Bob");
+            calendar.bookEvent(today.toString(), "10:00", "Dave", "", "");
+            assertTrue(calendar.writeSnapshot());
+            assertFalse(calendar.writeSnapshot(), "Nothing changed since the last snapshot");
+
+            // changes after the snapshot live only in the journal tail
+            calendar.cancelEvent(today.toString(), "10:00", "Dave");
+            calendar.bookEvent(today.plusDays(2).toString(), "12:00", "Erin", "Follow-up", "Frank");
+            before = calendar.snapshot();
+        }
+
+        try (BookingJournal journal = journal("sales")) {
+            assertSameSlots(before, open(journal, "sales", 14).snapshot());
+        }
+    }
+
+    @Test
+    void snapshotAloneRestoresWithoutJournal() {
+        Calendar calendar = open(null, "plain", 14);
+        calendar.bookEvent(today.toString(), "09:00", "Alice", "Demo", "Bob");
+        assertTrue(calendar.writeSnapshot());
+
+        assertSameSlots(calendar.snapshot(), open(null, "plain", 14).snapshot());
+    }
+
+    @Test
+    void corruptSnapshotFallsBackToFullJournalReplay() throws IOException {
+        CalendarSnapshot before;
+        try (BookingJournal journal = journal("sales")) {
+            Calendar calendar = open(journal, "sales", 14);
+            calendar.bookEvent(today.toString(), "09:00", "Alice", "Demo", "Bob");
+            calendar.writeSnapshot();
+            calendar.bookEvent(today.toString(), "09:15", "Carol", "", "");
+            before = calendar.snapshot();
+        }
+        Path snap = dir.resolve("sales.snapshot");
+        byte[] bytes = Files.readAllBytes(snap);
+        bytes[bytes.length / 2] ^= 0x5A;
+        Files.write(snap, bytes);
+
+        try (BookingJournal journal = journal("sales")) {
+            assertSameSlots(before, open(journal, "sales", 14).snapshot());
+        }
+    }
+
+    @Test
+    void overlongStringsFailTheSnapshotInsteadOfTruncating() {
+        Calendar calendar = open(null, "sales", 14);
+        assertTrue(calendar.bookEvent(today.toString(), "09:00", "Alice", "Demo", ""));
+        assertTrue(calendar.writeSnapshot());
+        assertTrue(calendar.bookEvent(today.toString(), "09:15", "Bob", "x".repeat(70_000), ""));
+
+        assertThrows(IllegalArgumentException.class, calendar::writeSnapshot);
+        Calendar restored = open(null, "sales", 14);
+        assertTrue(restored.getSlot(today, LocalTime.of(9, 0)).isBooked(), "the previous snapshot is intact");
+        assertFalse(restored.getSlot(today, LocalTime.of(9, 15)).isBooked());
+    }
+
+    /* ────────────── COLD START AT SCALE ───────────── */
+
+    @Test
+    void coldStartOfLongHorizonMultiCalendarDataset() throws IOException {
+        int calendars = 24, days = 366;
+        List<CalendarSnapshot> expected = new ArrayList<>();
+        long appended = 0;
+
+        for (int c = 0; c < calendars; c++) {
+            try (BookingJournal journal = new BookingJournal(dir.resolve("advisor-" + c + ".journal"),
+                    BookingJournal.Durability.TIME_BASED, Duration.ofMillis(50))) {
+                Calendar calendar = open(journal, "advisor-" + c, days);
+                for (int round = 0; round < 3; round++) {                   // churn across several snapshots
+                    for (int d = 0; d < days; d++) {
+                        String date = today.plusDays(d).toString();
+                        for (int s = (c + d) % 2; s < 32; s += 2) {       // half of every day booked
+                            String time = LocalTime.of(9, 0).plusMinutes(15L * s).toString();
+                            if (round > 0 && s % 4 < 2) calendar.cancelEvent(date, time, "client-" + (d * 31 + s + round - 1) % 500);
+                            calendar.bookEvent(date, time, "client-" + (d * 31 + s + round) % 500, "Demo " + s, "advisor-" + c);
+                        }
+                    }
+                    assertTrue(calendar.writeSnapshot());
+                }
+                for (int d = 0; d < days; d += 7) {                          // a tail past the last snapshot
+                    calendar.cancelEvent(today.plusDays(d).toString(), "09:00", "client-" + (d * 31 + 2) % 500);
+                }
+                expected.add(calendar.snapshot());
+                appended += journal.appendedEnd();
+            }
+        }
+
+        long bytes = 0, journals = 0;
+        for (int c = 0; c < calendars; c++) {
+            bytes    += Files.size(dir.resolve("advisor-" + c + ".snapshot"));
+            journals += Files.size(dir.resolve("advisor-" + c + ".journal"));
+        }
+        assertTrue(journals < appended / 2, "compacted journals: " + journals + " of " + appended + " bytes appended");
+        assertTrue(bytes < calendars * days * 32 * 8L, "snapshots: " + bytes + " bytes for " + calendars * days * 32 + " slots");
+
+        long t0 = System.nanoTime();
+        List<Calendar> restored = new ArrayList<>();
+        List<BookingJournal> opened = new ArrayList<>();
+        try {
+            for (int c = 0; c < calendars; c++) {
+                opened.add(journal("advisor-" + c));
+                restored.add(open(opened.get(c), "advisor-" + c, days));
+            }
+            long coldStartMs = (System.nanoTime() - t0) / 1_000_000;
+
+            for (int c = 0; c < calendars; c++) {
+                assertSameSlots(expected.get(c), restored.get(c).snapshot());
+            }
+            assertTrue(coldStartMs < 10_000, "Cold start took " + coldStartMs + " ms");
+        } finally {
+            for (BookingJournal j : opened) j.close();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.demoscheduler.demoscheduler;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Expiry order, cancellation and cascading of the hold timing wheel.
+ */
+class TimingWheelTest {
+
+    @Test
+    void firesAtTheDeadlineNeverBefore() {
+        TimingWheel<String> wheel = new TimingWheel<>(100, 1_000);
+        wheel.schedule("a", 1_250);
+        wheel.schedule("due", 500);
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(1_050, fired::add);
+        assertEquals(List.of("due"), fired, "past deadlines fire on the next advance");
+        wheel.advance(1_299, fired::add);
+        assertEquals(List.of("due"), fired, "1250 rounds up to the 1300 tick");
+        wheel.advance(1_300, fired::add);
+        assertEquals(List.of("due", "a"), fired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimersDoNotFire() {
+        TimingWheel<String> wheel = new TimingWheel<>(10, 0);
+        TimingWheel.Timer<String> t = wheel.schedule("x", 50);
+        wheel.schedule("y", 50);
+        assertTrue(t.cancel());
+        assertFalse(t.cancel());
+
+        List<String> fired = new ArrayList<>();
+        wheel.advance(100, fired::add);
+        assertEquals(List.of("y"), fired);
+    }
+
+    @Test
+    void randomDeadlinesAcrossAllLevelsFireInOrderAndOnTime() {
+        TimingWheel<Long> wheel = new TimingWheel<>(1, 7);
+        SplittableRandom rnd = new SplittableRandom(18);
+        int n = 20_000;
+        for (int i = 0; i < n; i++) {
+            long deadline = 7 + switch (i % 4) {               // spread over levels 0..3 and past the range
+                case 0  -> rnd.nextLong(64);
+                case 1  -> rnd.nextLong(4_096);
+                case 2  -> rnd.nextLong(300_000);
+                default -> rnd.nextLong(20_000_000);
+            };
+            wheel.schedule(deadline, deadline);
+        }
+
+        long[] last = {Long.MIN_VALUE};
+        int fired = 0;
+        for (long now = 0; fired < n; now += 1 + rnd.nextLong(5_000)) {
+            long at = now;
+            fired += wheel.advance(now, deadline -> {
+                assertTrue(deadline <= at, "fired early");
+                assertTrue(deadline >= last[0], "out of order");
+                last[0] = deadline;
+            });
+        }
+        assertEquals(0, wheel.size());
+    }
+}